@@ -2,6 +2,7 @@ plugins {
     alias(libs.plugins.android.library)
     alias(libs.plugins.kotlin.android)
     alias(libs.plugins.compose.compiler)
+    alias(libs.plugins.kotlin.serialization)
     alias(libs.plugins.hilt)
     alias(libs.plugins.ksp)
     `maven-publish`
@@ -74,6 +75,9 @@ dependencies {
     
     // Kotlin Serialization (from library)
     implementation(libs.kotlinx.serialization.json)
+    
+    // WorkManager (from library)
+    implementation(libs.androidx.work.runtime)
 }
 
 // Publishing configuration for API
@@ -2,6 +2,18 @@ package com.example.modules.template_feature.api
 
 import androidx.compose.runtime.Composable
 import androidx.navigation.NavHostController
+import com.example.modules.template_feature.data.remotedatasource.api.EndpointClass
+import com.example.modules.template_feature.data.remotedatasource.metrics.EndpointMetrics
+import com.example.modules.template_feature.data.remotedatasource.metrics.HistogramSnapshot
+import com.example.modules.template_feature.di.BackgroundSyncConfig
+import com.example.modules.template_feature.domain.models.EndpointCallStats
+import com.example.modules.template_feature.domain.models.HttpCacheStats
+import com.example.modules.template_feature.domain.models.RateLimitStats
+import com.example.modules.template_feature.domain.models.RequestPriority
+import com.example.modules.template_feature.domain.models.SyncProgress
+import com.example.modules.template_feature.domain.models.ValidatedEndpoint
+import com.example.modules.template_feature.domain.models.ValidatorStats
+import kotlinx.coroutines.flow.Flow
 
 interface TemplateFeatureModuleApi {
     
@@ -17,4 +29,61 @@ interface TemplateFeatureModuleApi {
      * Check if the module is initialized and ready to use
      */
     fun isInitialized(): Boolean
+
+    /**
+     * Schedule periodic background sync so the list is usually fresh when opened.
+     * Safe to call on every app start; an existing schedule is updated, not duplicated.
+     */
+    fun scheduleBackgroundSync(config: BackgroundSyncConfig = BackgroundSyncConfig())
+
+    /**
+     * Stop the periodic background sync
+     */
+    fun cancelBackgroundSync()
+
+    /**
+     * Open a WebSocket that applies server changes as they happen. Reconnects on its own
+     * until [stopRealtimeUpdates] is called.
+     */
+    fun startRealtimeUpdates()
+
+    fun stopRealtimeUpdates()
+
+    /**
+     * Progress of every sync, whoever started it, including per-phase timings
+     */
+    fun observeSyncProgress(): Flow<SyncProgress>
+
+    /**
+     * Circuit breaker state, attempts and retries per endpoint.
+     */
+    fun observeCallPolicyStats(): Flow<Map<String, EndpointCallStats>>
+
+    /**
+     * Current rate, delayed requests and 429s per endpoint class.
+     */
+    fun observeRateLimitStats(): Flow<Map<EndpointClass, RateLimitStats>>
+
+    /**
+     * How long calls waited for a dispatcher slot, per priority. Sync traffic runs
+     * in the background lane; everything else is interactive.
+     */
+    fun getRequestQueueWaits(): Map<RequestPriority, HistogramSnapshot>
+
+    /**
+     * Latency histograms (DNS, connect, TLS, time to first byte, body read, total) and
+     * byte counts per endpoint since the process started. To forward each call instead,
+     * contribute a NetworkMetricsSink to the Hilt set.
+     */
+    fun getNetworkMetrics(): Map<String, EndpointMetrics>
+
+    /**
+     * Hit, conditional hit and miss counts of the module's HTTP disk cache
+     */
+    fun observeHttpCacheStats(): Flow<HttpCacheStats>
+
+    /**
+     * How often ETag / Last-Modified revalidation saved a download, per endpoint
+     */
+    fun observeValidatorStats(): Flow<Map<ValidatedEndpoint, ValidatorStats>>
 }
\ No newline at end of file
@@ -4,11 +4,40 @@ import androidx.compose.runtime.Composable
 import androidx.navigation.NavHostController
 import androidx.navigation.compose.rememberNavController
 import com.example.modules.template_feature.api.navigation.TemplateFeatureNavigation
+import com.example.modules.template_feature.data.remotedatasource.api.CallPolicyInterceptor
+import com.example.modules.template_feature.data.remotedatasource.api.EndpointClass
+import com.example.modules.template_feature.data.remotedatasource.api.HttpCachePolicyInterceptor
+import com.example.modules.template_feature.data.remotedatasource.api.RateLimitInterceptor
+import com.example.modules.template_feature.data.remotedatasource.metrics.EndpointMetrics
+import com.example.modules.template_feature.data.remotedatasource.metrics.HistogramSnapshot
+import com.example.modules.template_feature.data.remotedatasource.metrics.NetworkMetricsRecorder
+import com.example.modules.template_feature.data.remotedatasource.scheduling.RequestPriorityScheduler
+import com.example.modules.template_feature.data.sync.TemplateFeatureChangeStream
+import com.example.modules.template_feature.di.BackgroundSyncConfig
+import com.example.modules.template_feature.di.TemplateFeatureSyncScheduler
+import com.example.modules.template_feature.domain.models.EndpointCallStats
+import com.example.modules.template_feature.domain.models.HttpCacheStats
+import com.example.modules.template_feature.domain.models.RateLimitStats
+import com.example.modules.template_feature.domain.models.RequestPriority
+import com.example.modules.template_feature.domain.models.SyncProgress
+import com.example.modules.template_feature.domain.models.ValidatedEndpoint
+import com.example.modules.template_feature.domain.models.ValidatorStats
+import com.example.modules.template_feature.domain.usecases.SyncTemplateFeatureUseCase
+import kotlinx.coroutines.flow.Flow
 import javax.inject.Inject
 import javax.inject.Singleton
 
 @Singleton
-class TemplateFeatureModuleApiImpl @Inject constructor() : TemplateFeatureModuleApi {
+class TemplateFeatureModuleApiImpl @Inject constructor(
+    private val syncScheduler: TemplateFeatureSyncScheduler,
+    private val changeStream: TemplateFeatureChangeStream,
+    private val cachePolicyInterceptor: HttpCachePolicyInterceptor,
+    private val callPolicyInterceptor: CallPolicyInterceptor,
+    private val rateLimitInterceptor: RateLimitInterceptor,
+    private val requestPriorityScheduler: RequestPriorityScheduler,
+    private val networkMetricsRecorder: NetworkMetricsRecorder,
+    private val syncTemplateFeatureUseCase: SyncTemplateFeatureUseCase
+) : TemplateFeatureModuleApi {
 
     @Composable
     override fun TemplateFeatureNavigation(navController: NavHostController?) {
@@ -18,4 +47,48 @@ class TemplateFeatureModuleApiImpl @Inject constructor() : TemplateFeatureModule
     override fun isInitialized(): Boolean {
         return true // Module is always ready when dependency injected
     }
+
+    override fun scheduleBackgroundSync(config: BackgroundSyncConfig) {
+        syncScheduler.schedule(config)
+    }
+
+    override fun cancelBackgroundSync() {
+        syncScheduler.cancel()
+    }
+
+    override fun startRealtimeUpdates() {
+        changeStream.start()
+    }
+
+    override fun stopRealtimeUpdates() {
+        changeStream.stop()
+    }
+
+    override fun observeSyncProgress(): Flow<SyncProgress> {
+        return syncTemplateFeatureUseCase.observeSyncProgress()
+    }
+
+    override fun observeCallPolicyStats(): Flow<Map<String, EndpointCallStats>> {
+        return callPolicyInterceptor.stats
+    }
+
+    override fun observeRateLimitStats(): Flow<Map<EndpointClass, RateLimitStats>> {
+        return rateLimitInterceptor.stats
+    }
+
+    override fun getRequestQueueWaits(): Map<RequestPriority, HistogramSnapshot> {
+        return requestPriorityScheduler.queueWaits()
+    }
+
+    override fun getNetworkMetrics(): Map<String, EndpointMetrics> {
+        return networkMetricsRecorder.snapshot()
+    }
+
+    override fun observeHttpCacheStats(): Flow<HttpCacheStats> {
+        return cachePolicyInterceptor.stats
+    }
+
+    override fun observeValidatorStats(): Flow<Map<ValidatedEndpoint, ValidatorStats>> {
+        return syncTemplateFeatureUseCase.observeValidatorStats()
+    }
 }
\ No newline at end of file
@@ -0,0 +1,76 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Room
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class PendingOperationDaoTest {
+
+    private lateinit var database: TemplateFeatureDatabase
+    private lateinit var dao: PendingOperationDao
+
+    @Before
+    fun setUp() {
+        database = Room.inMemoryDatabaseBuilder(
+            InstrumentationRegistry.getInstrumentation().targetContext,
+            TemplateFeatureDatabase::class.java
+        )
+            .addCallback(TemplateFeatureBucketTriggers.callback)
+            .addCallback(TemplateFeatureFtsTriggers.callback)
+            .build()
+        dao = database.pendingOperationDao()
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun completeCreate_swapsTheLocalRowForTheServerCopy() = runBlocking {
+        val sequence = recordCreate("local_1")
+
+        dao.completeCreate(sequence, "local_1", entity("server-1"))
+
+        assertThat(database.templateFeatureDao().getTemplateFeatureById("local_1")).isNull()
+        assertThat(database.templateFeatureDao().getTemplateFeatureById("server-1")).isNotNull()
+        assertThat(dao.getPendingOperations(limit = 10)).isEmpty()
+    }
+
+    @Test
+    fun completeCreate_deletesOnTheServerWhenTheRowWasDeletedInFlight() = runBlocking {
+        val sequence = recordCreate("local_1")
+        dao.deleteLocally("local_1", operation = null)
+
+        dao.completeCreate(sequence, "local_1", entity("server-1"))
+
+        assertThat(database.templateFeatureDao().getTemplateFeatureById("server-1")).isNull()
+        val pending = dao.getPendingOperations(limit = 10).single()
+        assertThat(pending.featureId).isEqualTo("server-1")
+        assertThat(pending.type).isEqualTo(PendingOperationType.DELETE)
+    }
+
+    private suspend fun recordCreate(id: String): Long {
+        dao.insertLocalChange(
+            entity(id),
+            PendingOperationEntity(featureId = id, type = PendingOperationType.CREATE, title = "Feature $id")
+        )
+        return dao.getPendingOperations(limit = 10).single().sequence
+    }
+
+    private fun entity(id: String) = TemplateFeatureEntity(
+        id = id,
+        title = "Feature $id",
+        description = "Description $id",
+        isActive = true,
+        createdAt = "2023-01-01T00:00:00Z",
+        contentHash = "$id:Feature $id"
+    )
+}
@@ -0,0 +1,221 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Room
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import app.cash.turbine.test
+import com.example.modules.template_feature.domain.models.SyncStatus
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.runBlocking
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+
+@RunWith(AndroidJUnit4::class)
+class TemplateFeatureDaoTest {
+
+    private lateinit var database: TemplateFeatureDatabase
+    private lateinit var dao: TemplateFeatureDao
+
+    @Before
+    fun setUp() {
+        database = Room.inMemoryDatabaseBuilder(
+            InstrumentationRegistry.getInstrumentation().targetContext,
+            TemplateFeatureDatabase::class.java
+        )
+            .addCallback(TemplateFeatureBucketTriggers.callback)
+            .addCallback(TemplateFeatureFtsTriggers.callback)
+            .build()
+        dao = database.templateFeatureDao()
+    }
+
+    @After
+    fun tearDown() {
+        database.close()
+    }
+
+    @Test
+    fun promoteStagedTemplateFeatures_emitsExactlyOnce() = runBlocking {
+        dao.insertTemplateFeatures(listOf(entity("1"), entity("2")))
+
+        dao.getAllTemplateFeatures().test {
+            assertThat(awaitItem().map { it.id }).containsExactly("1", "2")
+
+            // Staging writes are invisible to observers of template_features
+            dao.insertStagedTemplateFeatures(listOf(staged("2", "Changed"), staged("3")))
+            dao.promoteStagedTemplateFeatures()
+
+            val snapshot = awaitItem()
+            assertThat(snapshot.map { it.id }).containsExactly("2", "3")
+            assertThat(snapshot.first { it.id == "2" }.title).isEqualTo("Changed")
+
+            delay(INVALIDATION_SETTLE_MS)
+            expectNoEvents()
+        }
+    }
+
+    @Test
+    fun applyTemplateFeatureChanges_emitsExactlyOnce() = runBlocking {
+        dao.insertTemplateFeatures(listOf(entity("1"), entity("2")))
+
+        dao.getAllTemplateFeatures().test {
+            awaitItem()
+
+            dao.applyTemplateFeatureChanges(
+                upserts = listOf(entity("3")),
+                deletedIds = listOf("1")
+            )
+
+            assertThat(awaitItem().map { it.id }).containsExactly("2", "3")
+
+            delay(INVALIDATION_SETTLE_MS)
+            expectNoEvents()
+        }
+    }
+
+    @Test
+    fun promoteStagedTemplateFeatures_leavesUnchangedRowsUntouched() = runBlocking {
+        val original = entity("1").copy(lastUpdated = 1L)
+        dao.insertTemplateFeatures(listOf(original))
+
+        dao.insertStagedTemplateFeatures(listOf(staged("1").copy(lastUpdated = 2L)))
+        dao.promoteStagedTemplateFeatures()
+
+        assertThat(dao.getTemplateFeatureById("1")?.lastUpdated).isEqualTo(1L)
+    }
+
+    @Test
+    fun bucketDigests_followInsertsReplacesAndDeletes() = runBlocking {
+        dao.insertTemplateFeatures(listOf(entity("1"), entity("2"), entity("3")))
+        dao.insertTemplateFeature(entity("2", title = "Changed"))
+        dao.deleteTemplateFeatureById("3")
+        dao.insertTemplateFeature(entity("4").copy(syncStatus = SyncStatus.PENDING))
+        dao.insertStagedTemplateFeatures(listOf(staged("5")))
+        dao.publishStagedTemplateFeatures()
+
+        val expected = listOf(entity("1"), entity("2", title = "Changed"), entity("5"))
+            .groupBy { it.bucket }
+            .map { (bucket, rows) ->
+                TemplateFeatureBucketEntity(
+                    bucket = bucket,
+                    digest = rows.fold(0L) { digest, row -> digest xor row.rowDigest },
+                    rowCount = rows.size
+                )
+            }
+        // Buckets that were emptied stay behind with a zero digest
+        assertThat(dao.getBucketDigests().filter { it.rowCount > 0 }).containsExactlyElementsIn(expected)
+    }
+
+    @Test
+    fun bucketDigests_accumulateRowsSharingABucketAcrossReplaces() = runBlocking {
+        val ids = (1..10_000).map { it.toString() }
+            .groupBy { TemplateFeatureBuckets.bucketOf(it) }
+            .values
+            .first { it.size >= 3 }
+            .take(3)
+        dao.insertTemplateFeatures(ids.map { entity(it) })
+        dao.insertTemplateFeature(entity(ids[0], title = "Changed"))
+        dao.insertStagedTemplateFeatures(listOf(staged(ids[1], title = "Promoted")))
+        dao.publishStagedTemplateFeatures()
+
+        val rows = listOf(entity(ids[0], title = "Changed"), entity(ids[1], title = "Promoted"), entity(ids[2]))
+        assertThat(dao.getBucketDigests().single { it.bucket == rows[0].bucket }).isEqualTo(
+            TemplateFeatureBucketEntity(
+                bucket = rows[0].bucket,
+                digest = rows.fold(0L) { digest, row -> digest xor row.rowDigest },
+                rowCount = 3
+            )
+        )
+    }
+
+    @Test
+    fun searchTemplateFeatures_ranksTitleHitsFirstAndFollowsReplaces() = runBlocking {
+        dao.insertTemplateFeatures(
+            listOf(
+                entity("1", title = "Billing").copy(description = "Handles authentication for invoices", lastUpdated = 2L),
+                entity("2", title = "Authentication").copy(lastUpdated = 1L),
+                entity("3", title = "Search")
+            )
+        )
+        dao.insertStagedTemplateFeatures(listOf(staged("1", title = "Billing"), staged("2", title = "Login"), staged("3", title = "Search")))
+        dao.publishStagedTemplateFeatures()
+
+        val afterReplace = dao.searchTemplateFeatures(TemplateFeatureFtsQuery.of("auth")!!, limit = 20).first()
+        dao.insertTemplateFeature(entity("4", title = "Author tools").copy(lastUpdated = 0L))
+        val ranked = dao.searchTemplateFeatures(TemplateFeatureFtsQuery.of("AUTH")!!, limit = 20).first()
+
+        assertThat(afterReplace.map { it.id }).containsExactly("1")
+        assertThat(ranked.map { it.id }).containsExactly("4", "1").inOrder()
+    }
+
+    @Test
+    fun searchTemplateFeatures_followsUpsertsOfExistingRows() = runBlocking {
+        dao.insertTemplateFeatures(listOf(entity("1", title = "Billing"), entity("2", title = "Search")))
+
+        dao.insertTemplateFeature(entity("1", title = "Invoices"))
+        dao.applyTemplateFeatureChanges(upserts = listOf(entity("2", title = "Lookup")), deletedIds = emptyList())
+
+        assertThat(dao.searchTemplateFeatures(TemplateFeatureFtsQuery.of("billing")!!, limit = 20).first()).isEmpty()
+        assertThat(dao.searchTemplateFeatures(TemplateFeatureFtsQuery.of("search")!!, limit = 20).first()).isEmpty()
+        assertThat(dao.searchTemplateFeatures(TemplateFeatureFtsQuery.of("invoices")!!, limit = 20).first().map { it.id })
+            .containsExactly("1")
+        assertThat(dao.searchTemplateFeatures(TemplateFeatureFtsQuery.of("lookup")!!, limit = 20).first().map { it.id })
+            .containsExactly("2")
+    }
+
+    @Test
+    fun validators_goAwayWithTheirRow() = runBlocking {
+        dao.insertTemplateFeatures(listOf(entity("1"), entity("2")))
+        dao.insertValidators(TemplateFeatureValidatorEntity("1", etag = "\"v1\"", lastModified = null, bodyBytes = 120))
+        dao.insertValidators(TemplateFeatureValidatorEntity("2", etag = "\"v1\"", lastModified = null, bodyBytes = 120))
+
+        dao.insertTemplateFeature(entity("1", title = "Changed"))
+        dao.deleteTemplateFeatureById("2")
+
+        assertThat(dao.getValidators("1")).isNull()
+        assertThat(dao.getValidators("2")).isNull()
+    }
+
+    @Test
+    fun insertServerTemplateFeature_skipsRowsWithQueuedWrites() = runBlocking {
+        dao.insertTemplateFeatures(listOf(entity("1"), entity("2")))
+        database.pendingOperationDao().insertLocalChange(
+            entity("1", title = "Edited locally"),
+            PendingOperationEntity(featureId = "1", type = PendingOperationType.UPDATE, title = "Edited locally")
+        )
+
+        val storedQueued = dao.insertServerTemplateFeature(entity("1", title = "Server copy"))
+        val storedOther = dao.insertServerTemplateFeature(entity("2", title = "Server copy"))
+
+        assertThat(storedQueued).isFalse()
+        assertThat(storedOther).isTrue()
+        assertThat(dao.getTemplateFeatureById("1")?.title).isEqualTo("Edited locally")
+        assertThat(dao.getTemplateFeatureById("2")?.title).isEqualTo("Server copy")
+    }
+
+    private fun entity(id: String, title: String = "Feature $id") = TemplateFeatureEntity(
+        id = id,
+        title = title,
+        description = "Description $id",
+        isActive = true,
+        createdAt = "2023-01-01T00:00:00Z",
+        contentHash = "$id:$title"
+    )
+
+    private fun staged(id: String, title: String = "Feature $id") = TemplateFeatureStagingEntity(
+        id = id,
+        title = title,
+        description = "Description $id",
+        isActive = true,
+        createdAt = "2023-01-01T00:00:00Z",
+        contentHash = "$id:$title"
+    )
+
+    companion object {
+        // Room delivers invalidations asynchronously; give a second one time to show up
+        private const val INVALIDATION_SETTLE_MS = 500L
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.modules.template_feature.di
+
+import android.util.Log
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.platform.app.InstrumentationRegistry
+import androidx.work.Configuration
+import androidx.work.NetworkType
+import androidx.work.WorkInfo
+import androidx.work.WorkManager
+import androidx.work.testing.SynchronousExecutor
+import androidx.work.testing.WorkManagerTestInitHelper
+import com.google.common.truth.Truth.assertThat
+import org.junit.Before
+import org.junit.Test
+import org.junit.runner.RunWith
+import java.util.concurrent.TimeUnit
+
+@RunWith(AndroidJUnit4::class)
+class TemplateFeatureSyncSchedulerTest {
+
+    private lateinit var workManager: WorkManager
+    private lateinit var scheduler: TemplateFeatureSyncScheduler
+
+    @Before
+    fun setUp() {
+        val context = InstrumentationRegistry.getInstrumentation().targetContext
+        val configuration = Configuration.Builder()
+            .setMinimumLoggingLevel(Log.DEBUG)
+            .setExecutor(SynchronousExecutor())
+            .build()
+        WorkManagerTestInitHelper.initializeTestWorkManager(context, configuration)
+        workManager = WorkManager.getInstance(context)
+        scheduler = TemplateFeatureSyncScheduler(workManager)
+    }
+
+    @Test
+    fun schedule_enqueuesOneConstrainedPeriodicRequest() {
+        scheduler.schedule(BackgroundSyncConfig(requiresUnmeteredNetwork = true))
+        scheduler.schedule(BackgroundSyncConfig(requiresUnmeteredNetwork = true))
+
+        val workInfos = uniqueWork()
+        assertThat(workInfos).hasSize(1)
+        assertThat(workInfos.single().state).isEqualTo(WorkInfo.State.ENQUEUED)
+        assertThat(workInfos.single().constraints.requiredNetworkType).isEqualTo(NetworkType.UNMETERED)
+        assertThat(workInfos.single().constraints.requiresBatteryNotLow()).isTrue()
+        assertThat(workInfos.single().periodicityInfo?.repeatIntervalMillis)
+            .isEqualTo(TimeUnit.MINUTES.toMillis(15))
+    }
+
+    @Test
+    fun adapt_lengthensIntervalAfterQuietSync() {
+        val config = BackgroundSyncConfig()
+        scheduler.schedule(config)
+
+        scheduler.adapt(config, currentIntervalMinutes = 15, lastChangeCount = 0)
+
+        val workInfo = uniqueWork().single()
+        assertThat(workInfo.periodicityInfo?.repeatIntervalMillis).isEqualTo(TimeUnit.MINUTES.toMillis(30))
+    }
+
+    @Test
+    fun cancel_cancelsScheduledSync() {
+        scheduler.schedule()
+
+        scheduler.cancel()
+
+        assertThat(uniqueWork().single().state).isEqualTo(WorkInfo.State.CANCELLED)
+    }
+
+    private fun uniqueWork(): List<WorkInfo> {
+        return workManager.getWorkInfosForUniqueWork(TemplateFeatureSyncScheduler.WORK_NAME).get()
+    }
+}
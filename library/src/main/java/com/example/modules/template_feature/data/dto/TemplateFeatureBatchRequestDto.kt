@@ -0,0 +1,23 @@
+package com.example.modules.template_feature.data.dto
+
+import kotlinx.serialization.Serializable
+
+@Serializable
+data class TemplateFeatureBatchRequestDto(
+    val operations: List<TemplateFeatureBatchOperationDto>
+)
+
+@Serializable
+data class TemplateFeatureBatchOperationDto(
+    val type: String,
+    val id: String? = null,
+    val feature: TemplateFeatureRequestDto? = null,
+    // Lets the server recognize an operation it already applied when a batch is resent
+    val idempotencyKey: String? = null
+) {
+    companion object {
+        const val TYPE_CREATE = "create"
+        const val TYPE_UPDATE = "update"
+        const val TYPE_DELETE = "delete"
+    }
+}
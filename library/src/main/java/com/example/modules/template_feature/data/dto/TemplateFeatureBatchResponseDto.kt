@@ -0,0 +1,16 @@
+package com.example.modules.template_feature.data.dto
+
+import kotlinx.serialization.Serializable
+
+// Results are positional, one per operation in the request
+@Serializable
+data class TemplateFeatureBatchResponseDto(
+    val results: List<TemplateFeatureBatchResultDto>
+)
+
+@Serializable
+data class TemplateFeatureBatchResultDto(
+    val status: Int,
+    val feature: TemplateFeatureResponseDto? = null,
+    val error: String? = null
+)
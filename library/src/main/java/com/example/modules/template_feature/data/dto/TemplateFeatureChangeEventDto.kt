@@ -0,0 +1,20 @@
+package com.example.modules.template_feature.data.dto
+
+import kotlinx.serialization.Serializable
+
+// One message on the change stream; sequence numbers increase by one per event
+@Serializable
+data class TemplateFeatureChangeEventDto(
+    val sequence: Long,
+    val type: String,
+    val feature: TemplateFeatureResponseDto? = null,
+    val id: String? = null
+) {
+    companion object {
+        const val TYPE_UPSERT = "upsert"
+        const val TYPE_DELETE = "delete"
+        
+        // Sent instead of a replay when the requested sequence is no longer retained
+        const val TYPE_RESYNC = "resync"
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.modules.template_feature.data.dto
+
+import kotlinx.serialization.Serializable
+
+@Serializable
+data class TemplateFeatureChangesDto(
+    val features: List<TemplateFeatureResponseDto> = emptyList(),
+    val deletedIds: List<String> = emptyList(),
+    val cursor: String
+)
@@ -0,0 +1,19 @@
+package com.example.modules.template_feature.data.dto
+
+import kotlinx.serialization.Serializable
+
+// Buckets the server has no rows in may be left out
+@Serializable
+data class TemplateFeatureDigestsDto(
+    val bucketCount: Int,
+    val buckets: List<TemplateFeatureBucketDigestDto> = emptyList(),
+    // Where the changes endpoint picks up after these digests were taken
+    val cursor: String? = null
+)
+
+@Serializable
+data class TemplateFeatureBucketDigestDto(
+    val bucket: Int,
+    val digest: Long,
+    val rowCount: Int
+)
@@ -0,0 +1,13 @@
+package com.example.modules.template_feature.data.dto
+
+import kotlinx.serialization.Serializable
+
+@Serializable
+data class TemplateFeaturePageDto(
+    val items: List<TemplateFeatureResponseDto> = emptyList(),
+    val nextCursor: String? = null,
+    // Size of the whole listing, if the server reports it
+    val totalCount: Int? = null,
+    // Sent with the last page: where the changes endpoint picks up after this listing
+    val cursor: String? = null
+)
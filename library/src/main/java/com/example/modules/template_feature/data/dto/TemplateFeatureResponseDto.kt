@@ -8,5 +8,6 @@ data class TemplateFeatureResponseDto(
     val title: String,
     val description: String,
     val isActive: Boolean,
-    val createdAt: String
+    val createdAt: String,
+    val updatedAt: Long? = null
 )
\ No newline at end of file
@@ -0,0 +1,119 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Dao
+import androidx.room.Insert
+import androidx.room.OnConflictStrategy
+import androidx.room.Query
+import androidx.room.Transaction
+import com.example.modules.template_feature.domain.models.SyncStatus
+import kotlinx.coroutines.flow.Flow
+
+@Dao
+interface PendingOperationDao {
+    
+    @Insert
+    suspend fun insertPendingOperation(operation: PendingOperationEntity): Long
+    
+    @Query("SELECT * FROM pending_operations ORDER BY sequence ASC LIMIT :limit")
+    suspend fun getPendingOperations(limit: Int): List<PendingOperationEntity>
+    
+    @Query("SELECT DISTINCT featureId FROM pending_operations")
+    suspend fun getPendingFeatureIds(): List<String>
+    
+    @Query("SELECT COUNT(*) FROM pending_operations WHERE featureId = :featureId")
+    suspend fun countPendingOperations(featureId: String): Int
+    
+    @Query("SELECT COUNT(*) FROM pending_operations")
+    fun observePendingOperationCount(): Flow<Int>
+    
+    @Query("DELETE FROM pending_operations WHERE sequence = :sequence")
+    suspend fun deletePendingOperation(sequence: Long): Int
+    
+    @Query("DELETE FROM pending_operations WHERE featureId = :featureId")
+    suspend fun deletePendingOperationsForFeature(featureId: String)
+    
+    @Query("UPDATE pending_operations SET attempts = attempts + 1, nextAttemptAt = :nextAttemptAt WHERE sequence = :sequence")
+    suspend fun markAttemptFailed(sequence: Long, nextAttemptAt: Long)
+    
+    @Query("UPDATE pending_operations SET featureId = :serverId WHERE featureId = :localId")
+    suspend fun remapFeatureId(localId: String, serverId: String)
+    
+    @Query("DELETE FROM template_features WHERE id = :id")
+    suspend fun deleteTemplateFeature(id: String)
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun insertTemplateFeature(templateFeature: TemplateFeatureEntity)
+    
+    @Query("UPDATE template_features SET syncStatus = :syncStatus WHERE id = :id")
+    suspend fun updateSyncStatus(id: String, syncStatus: SyncStatus)
+    
+    @Transaction
+    suspend fun insertLocalChange(templateFeature: TemplateFeatureEntity, operation: PendingOperationEntity) {
+        insertTemplateFeature(templateFeature)
+        insertPendingOperation(operation)
+    }
+    
+    @Transaction
+    suspend fun deleteLocally(featureId: String, operation: PendingOperationEntity?) {
+        deleteTemplateFeature(featureId)
+        if (operation != null) {
+            insertPendingOperation(operation)
+        } else {
+            deletePendingOperationsForFeature(featureId)
+        }
+    }
+    
+    /**
+     * Swaps a locally created row for the server's copy and points every queued
+     * follow-up operation at the server id, all in one transaction so a crash
+     * can never replay the create twice.
+     *
+     * If the create is no longer queued, the row was deleted locally while the
+     * request was in flight; the server copy is then deleted too instead of
+     * bringing the row back.
+     */
+    @Transaction
+    suspend fun completeCreate(sequence: Long, localId: String, serverFeature: TemplateFeatureEntity) {
+        if (deletePendingOperation(sequence) == 0) {
+            insertPendingOperation(PendingOperationEntity(featureId = serverFeature.id, type = PendingOperationType.DELETE))
+            return
+        }
+        deleteTemplateFeature(localId)
+        remapFeatureId(localId, serverFeature.id)
+        insertTemplateFeature(serverFeature)
+    }
+    
+    @Transaction
+    suspend fun completeUpdate(sequence: Long, serverFeature: TemplateFeatureEntity) {
+        deletePendingOperation(sequence)
+        // Later local edits are still queued; keep showing them instead of this older server copy
+        if (countPendingOperations(serverFeature.id) == 0) {
+            insertTemplateFeature(serverFeature)
+        }
+    }
+    
+    /**
+     * Drops a refused create together with every write queued behind it, and
+     * keeps the local row flagged so the user can see it never reached the server.
+     */
+    @Transaction
+    suspend fun rejectCreate(featureId: String) {
+        deletePendingOperationsForFeature(featureId)
+        updateSyncStatus(featureId, SyncStatus.REJECTED)
+    }
+    
+    /**
+     * Replaces the local copy of a refused update or delete with the server's
+     * version, unless newer local writes for the feature are still queued.
+     */
+    @Transaction
+    suspend fun rollBack(sequence: Long, featureId: String, serverFeature: TemplateFeatureEntity?) {
+        deletePendingOperation(sequence)
+        if (countPendingOperations(featureId) > 0) return
+        if (serverFeature != null) {
+            insertTemplateFeature(serverFeature)
+        } else {
+            deleteTemplateFeature(featureId)
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Entity
+import androidx.room.Index
+import androidx.room.PrimaryKey
+import java.util.UUID
+
+@Entity(
+    tableName = "pending_operations",
+    indices = [Index("featureId")]
+)
+data class PendingOperationEntity(
+    @PrimaryKey(autoGenerate = true)
+    val sequence: Long = 0,
+    val featureId: String,
+    val type: PendingOperationType,
+    val title: String? = null,
+    val description: String? = null,
+    val isActive: Boolean? = null,
+    val attempts: Int = 0,
+    val nextAttemptAt: Long = 0,
+    val createdAt: Long = System.currentTimeMillis(),
+    // Set once when the write is made and sent unchanged on every attempt, including one made before it was queued
+    val idempotencyKey: String = UUID.randomUUID().toString()
+)
+
+enum class PendingOperationType {
+    CREATE,
+    UPDATE,
+    DELETE
+}
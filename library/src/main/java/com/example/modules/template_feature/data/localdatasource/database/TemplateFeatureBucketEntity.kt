@@ -0,0 +1,17 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+/**
+ * XOR of the row digests of every synced row in one id bucket. Kept up to
+ * date by the triggers in [TemplateFeatureBucketTriggers], never written
+ * from Kotlin.
+ */
+@Entity(tableName = "template_feature_buckets")
+data class TemplateFeatureBucketEntity(
+    @PrimaryKey
+    val bucket: Int,
+    val digest: Long,
+    val rowCount: Int
+)
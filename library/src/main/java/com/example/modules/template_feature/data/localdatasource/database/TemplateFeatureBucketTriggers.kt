@@ -0,0 +1,56 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.RoomDatabase
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Maintains template_feature_buckets as rows change, so reconciliation never
+ * has to scan template_features. Only SYNCED rows count, since pending and
+ * rejected rows do not exist on the server in their local form.
+ *
+ * SQLite has no XOR operator, so it is spelled (a | b) & ~(a & b).
+ *
+ * Statements inside a trigger take on the conflict clause of the statement
+ * that fired it, so an INSERT OR IGNORE here would run as INSERT OR REPLACE
+ * under the DAO's REPLACE inserts and reset the bucket. Missing buckets are
+ * seeded with a guarded INSERT that never conflicts instead.
+ */
+object TemplateFeatureBucketTriggers {
+    
+    private fun xor(a: String, b: String) = "(($a) | ($b)) & ~(($a) & ($b))"
+    
+    private const val EXISTING_DIGEST = "(SELECT rowDigest FROM template_features WHERE id = NEW.id)"
+    
+    private fun addRow(row: String) =
+        "INSERT INTO template_feature_buckets (bucket, digest, rowCount) SELECT $row.bucket, 0, 0 " +
+            "WHERE NOT EXISTS (SELECT 1 FROM template_feature_buckets WHERE bucket = $row.bucket); " +
+            "UPDATE template_feature_buckets SET digest = ${xor("digest", "$row.rowDigest")}, rowCount = rowCount + 1 " +
+            "WHERE bucket = $row.bucket AND $row.syncStatus = 'SYNCED';"
+    
+    private fun removeRow(row: String) =
+        "UPDATE template_feature_buckets SET digest = ${xor("digest", "$row.rowDigest")}, rowCount = rowCount - 1 " +
+            "WHERE bucket = $row.bucket AND $row.syncStatus = 'SYNCED';"
+    
+    val STATEMENTS = listOf(
+        // INSERT OR REPLACE does not fire delete triggers, so take out the row being replaced here
+        "CREATE TRIGGER IF NOT EXISTS template_features_buckets_replace BEFORE INSERT ON template_features " +
+            "BEGIN " +
+            "UPDATE template_feature_buckets SET digest = ${xor("digest", EXISTING_DIGEST)}, rowCount = rowCount - 1 " +
+            "WHERE bucket = NEW.bucket " +
+            "AND EXISTS (SELECT 1 FROM template_features WHERE id = NEW.id AND syncStatus = 'SYNCED'); " +
+            "END",
+        "CREATE TRIGGER IF NOT EXISTS template_features_buckets_insert AFTER INSERT ON template_features " +
+            "BEGIN ${addRow("NEW")} END",
+        "CREATE TRIGGER IF NOT EXISTS template_features_buckets_update AFTER UPDATE ON template_features " +
+            "BEGIN ${removeRow("OLD")} ${addRow("NEW")} END",
+        "CREATE TRIGGER IF NOT EXISTS template_features_buckets_delete AFTER DELETE ON template_features " +
+            "BEGIN ${removeRow("OLD")} END"
+    )
+    
+    // onOpen rather than onCreate, so the triggers also come back after a destructive migration
+    val callback = object : RoomDatabase.Callback() {
+        override fun onOpen(db: SupportSQLiteDatabase) {
+            STATEMENTS.forEach(db::execSQL)
+        }
+    }
+}
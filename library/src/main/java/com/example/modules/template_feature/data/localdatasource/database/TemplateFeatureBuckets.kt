@@ -0,0 +1,27 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import java.nio.ByteBuffer
+import java.security.MessageDigest
+
+/**
+ * Bucket layout shared with the server's digests endpoint. Both sides must
+ * agree on [BUCKET_COUNT] and on how ids and rows are hashed.
+ */
+object TemplateFeatureBuckets {
+    
+    const val BUCKET_COUNT = 256
+    
+    fun bucketOf(id: String): Int {
+        val hash = sha256(id.toByteArray(Charsets.UTF_8))
+        return (ByteBuffer.wrap(hash).int and Int.MAX_VALUE) % BUCKET_COUNT
+    }
+    
+    fun rowDigestOf(id: String, contentHash: String): Long {
+        val hash = sha256("$id\u0000$contentHash".toByteArray(Charsets.UTF_8))
+        return ByteBuffer.wrap(hash).long
+    }
+    
+    private fun sha256(bytes: ByteArray): ByteArray {
+        return MessageDigest.getInstance("SHA-256").digest(bytes)
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+data class TemplateFeatureContentHash(
+    val id: String,
+    val contentHash: String
+)
@@ -5,6 +5,7 @@ import androidx.room.Delete
 import androidx.room.Insert
 import androidx.room.OnConflictStrategy
 import androidx.room.Query
+import androidx.room.Transaction
 import androidx.room.Update
 import kotlinx.coroutines.flow.Flow
 
@@ -35,6 +36,135 @@ interface TemplateFeatureDao {
     @Query("DELETE FROM template_features WHERE id = :id")
     suspend fun deleteTemplateFeatureById(id: String)
     
+    @Query("DELETE FROM template_features WHERE id IN (:ids)")
+    suspend fun deleteTemplateFeaturesByIds(ids: List<String>)
+    
     @Query("DELETE FROM template_features")
     suspend fun deleteAllTemplateFeatures()
+    
+    @Query("SELECT COUNT(*) FROM template_features")
+    suspend fun getTemplateFeatureCount(): Int
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun insertStagedTemplateFeatures(templateFeatures: List<TemplateFeatureStagingEntity>)
+    
+    @Query("DELETE FROM template_features_staging")
+    suspend fun clearStagedTemplateFeatures()
+    
+    @Query("SELECT id, contentHash FROM template_features WHERE id IN (:ids)")
+    suspend fun getContentHashes(ids: List<String>): List<TemplateFeatureContentHash>
+    
+    // Rows with queued offline writes are left alone until the outbox has replayed them,
+    // and rejected local rows stay until the user fixes or discards them
+    @Query(
+        "SELECT COUNT(*) FROM template_features_staging s " +
+            "LEFT JOIN template_features t ON t.id = s.id " +
+            "WHERE (t.id IS NULL OR t.contentHash != s.contentHash) " +
+            "AND s.id NOT IN (SELECT featureId FROM pending_operations)"
+    )
+    suspend fun countChangedStagedTemplateFeatures(): Int
+    
+    @Query(
+        "SELECT COUNT(*) FROM template_features " +
+            "WHERE id NOT IN (SELECT id FROM template_features_staging) " +
+            "AND id NOT IN (SELECT featureId FROM pending_operations) " +
+            "AND syncStatus != 'REJECTED'"
+    )
+    suspend fun countRemovedStagedTemplateFeatures(): Int
+    
+    @Query(
+        "DELETE FROM template_features " +
+            "WHERE id NOT IN (SELECT id FROM template_features_staging) " +
+            "AND id NOT IN (SELECT featureId FROM pending_operations) " +
+            "AND syncStatus != 'REJECTED'"
+    )
+    suspend fun deleteRemovedStagedTemplateFeatures()
+    
+    @Query(
+        "INSERT OR REPLACE INTO template_features " +
+            "(id, title, description, isActive, createdAt, lastUpdated, contentHash, bucket, rowDigest) " +
+            "SELECT s.id, s.title, s.description, s.isActive, s.createdAt, s.lastUpdated, s.contentHash, s.bucket, s.rowDigest " +
+            "FROM template_features_staging s " +
+            "LEFT JOIN template_features t ON t.id = s.id " +
+            "WHERE (t.id IS NULL OR t.contentHash != s.contentHash) " +
+            "AND s.id NOT IN (SELECT featureId FROM pending_operations)"
+    )
+    suspend fun upsertChangedStagedTemplateFeatures()
+    
+    // FTS4 has no relevance function Room can call, so title hits rank above
+    // description-only hits and recency breaks ties
+    @Query(
+        "SELECT template_features.* FROM template_features " +
+            "JOIN template_features_fts ON template_features.rowid = template_features_fts.rowid " +
+            "WHERE template_features_fts MATCH :match " +
+            "ORDER BY template_features.rowid IN " +
+            "(SELECT rowid FROM template_features_fts WHERE title MATCH :match) DESC, " +
+            "template_features.lastUpdated DESC " +
+            "LIMIT :limit"
+    )
+    fun searchTemplateFeatures(match: String, limit: Int): Flow<List<TemplateFeatureEntity>>
+    
+    @Query("SELECT * FROM template_feature_validators WHERE featureId = :id")
+    suspend fun getValidators(id: String): TemplateFeatureValidatorEntity?
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    suspend fun insertValidators(validators: TemplateFeatureValidatorEntity)
+    
+    @Query("DELETE FROM template_feature_validators WHERE featureId = :id")
+    suspend fun deleteValidators(id: String)
+    
+    @Query("SELECT COUNT(*) FROM pending_operations WHERE featureId = :id")
+    suspend fun countPendingOperations(id: String): Int
+    
+    /**
+     * Stores a server copy of one row unless a local write to it was queued
+     * while the copy was being fetched, returning whether it was stored.
+     */
+    @Transaction
+    suspend fun insertServerTemplateFeature(templateFeature: TemplateFeatureEntity): Boolean {
+        if (countPendingOperations(templateFeature.id) > 0) return false
+        insertTemplateFeature(templateFeature)
+        return true
+    }
+    
+    @Query("SELECT * FROM template_feature_buckets")
+    suspend fun getBucketDigests(): List<TemplateFeatureBucketEntity>
+    
+    @Query("SELECT id FROM template_features WHERE bucket IN (:buckets) AND syncStatus = 'SYNCED'")
+    suspend fun getSyncedIdsInBuckets(buckets: List<Int>): List<String>
+    
+    /**
+     * Applies a delta in one transaction so observers see a single invalidation
+     * rather than one per statement.
+     */
+    @Transaction
+    suspend fun applyTemplateFeatureChanges(upserts: List<TemplateFeatureEntity>, deletedIds: List<String>) {
+        if (upserts.isNotEmpty()) {
+            insertTemplateFeatures(upserts)
+        }
+        deletedIds.chunked(TemplateFeatureDatabase.MAX_QUERY_ARGUMENTS).forEach { ids ->
+            deleteTemplateFeaturesByIds(ids)
+        }
+    }
+    
+    /**
+     * Reconciles template_features with the staged snapshot, touching only rows
+     * that were added, changed or removed on the server.
+     */
+    @Transaction
+    suspend fun promoteStagedTemplateFeatures() {
+        deleteRemovedStagedTemplateFeatures()
+        upsertChangedStagedTemplateFeatures()
+        clearStagedTemplateFeatures()
+    }
+    
+    /**
+     * Moves the staged rows into template_features without removing anything,
+     * so a first sync into an empty table becomes visible batch by batch.
+     */
+    @Transaction
+    suspend fun publishStagedTemplateFeatures() {
+        upsertChangedStagedTemplateFeatures()
+        clearStagedTemplateFeatures()
+    }
 }
\ No newline at end of file
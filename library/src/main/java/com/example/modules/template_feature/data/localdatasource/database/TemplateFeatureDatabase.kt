@@ -6,15 +6,27 @@ import androidx.room.RoomDatabase
 import android.content.Context
 
 @Database(
-    entities = [TemplateFeatureEntity::class],
-    version = 1,
+    entities = [
+        TemplateFeatureEntity::class,
+        TemplateFeatureStagingEntity::class,
+        PendingOperationEntity::class,
+        TemplateFeatureBucketEntity::class,
+        TemplateFeatureFtsEntity::class,
+        TemplateFeatureValidatorEntity::class
+    ],
+    version = 11,
     exportSchema = false
 )
 abstract class TemplateFeatureDatabase : RoomDatabase() {
     
     abstract fun templateFeatureDao(): TemplateFeatureDao
     
+    abstract fun pendingOperationDao(): PendingOperationDao
+    
     companion object {
         const val DATABASE_NAME = "template_feature_database"
+        
+        // Stays below SQLite's bound parameter limit on older Android versions
+        const val MAX_QUERY_ARGUMENTS = 500
     }
 }
\ No newline at end of file
@@ -1,7 +1,9 @@
 package com.example.modules.template_feature.data.localdatasource.database
 
+import androidx.room.ColumnInfo
 import androidx.room.Entity
 import androidx.room.PrimaryKey
+import com.example.modules.template_feature.domain.models.SyncStatus
 
 @Entity(tableName = "template_features")
 data class TemplateFeatureEntity(
@@ -11,5 +13,12 @@ data class TemplateFeatureEntity(
     val description: String,
     val isActive: Boolean,
     val createdAt: String,
-    val lastUpdated: Long = System.currentTimeMillis()
+    val lastUpdated: Long = System.currentTimeMillis(),
+    val contentHash: String = "",
+    // Rows promoted from staging in SQL rely on the column default
+    @ColumnInfo(defaultValue = "SYNCED")
+    val syncStatus: SyncStatus = SyncStatus.SYNCED,
+    // Derived from id and contentHash for the bucket digest triggers
+    val bucket: Int = TemplateFeatureBuckets.bucketOf(id),
+    val rowDigest: Long = TemplateFeatureBuckets.rowDigestOf(id, contentHash)
 )
\ No newline at end of file
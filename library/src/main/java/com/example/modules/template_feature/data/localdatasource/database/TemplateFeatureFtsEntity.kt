@@ -0,0 +1,34 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Entity
+import androidx.room.Fts4
+import androidx.room.FtsOptions
+
+/**
+ * Full-text index over template_features. It is an external content table,
+ * so the text is not stored twice; Room keeps it in step with its own
+ * triggers, plus [TemplateFeatureFtsTriggers] for INSERT OR REPLACE.
+ */
+@Fts4(contentEntity = TemplateFeatureEntity::class, tokenizer = FtsOptions.TOKENIZER_UNICODE61)
+@Entity(tableName = "template_features_fts")
+data class TemplateFeatureFtsEntity(
+    val title: String,
+    val description: String
+)
+
+object TemplateFeatureFtsQuery {
+    
+    /**
+     * Turns free text into a MATCH expression where every word is a prefix
+     * that must appear, or null when nothing searchable is left. Everything
+     * but letters and digits is dropped, so user input can never form FTS
+     * operators or a syntax error.
+     */
+    fun of(text: String): String? {
+        val terms = text.split(NON_WORD).filter { it.isNotEmpty() }
+        if (terms.isEmpty()) return null
+        return terms.joinToString(" ") { "$it*" }
+    }
+    
+    private val NON_WORD = Regex("[^\\p{L}\\p{N}]+")
+}
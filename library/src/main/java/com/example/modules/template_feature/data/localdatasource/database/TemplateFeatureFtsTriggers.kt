@@ -0,0 +1,30 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.RoomDatabase
+import androidx.sqlite.db.SupportSQLiteDatabase
+
+/**
+ * Room's content sync triggers remove index entries on DELETE, but INSERT OR
+ * REPLACE does not fire delete triggers, which would leave the replaced
+ * row's words in template_features_fts. This takes them out first, while the
+ * old row is still in the content table for FTS4 to read its tokens from.
+ * FTS4 has no 'delete' command, so this is a plain DELETE by docid, the same
+ * statement Room's own BEFORE DELETE trigger uses.
+ */
+object TemplateFeatureFtsTriggers {
+    
+    val STATEMENTS = listOf(
+        "CREATE TRIGGER IF NOT EXISTS template_features_fts_replace BEFORE INSERT ON template_features " +
+            "BEGIN " +
+            "DELETE FROM template_features_fts " +
+            "WHERE docid = (SELECT rowid FROM template_features WHERE id = NEW.id); " +
+            "END"
+    )
+    
+    // onOpen rather than onCreate, so the trigger also comes back after a destructive migration
+    val callback = object : RoomDatabase.Callback() {
+        override fun onOpen(db: SupportSQLiteDatabase) {
+            STATEMENTS.forEach(db::execSQL)
+        }
+    }
+}
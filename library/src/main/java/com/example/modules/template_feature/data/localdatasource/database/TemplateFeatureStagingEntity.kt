@@ -0,0 +1,23 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Entity
+import androidx.room.PrimaryKey
+
+/**
+ * Holding area for a full sync in progress. Pages land here first and are
+ * promoted into template_features in a single transaction once the download
+ * completes, so observers never see a partially synced list.
+ */
+@Entity(tableName = "template_features_staging")
+data class TemplateFeatureStagingEntity(
+    @PrimaryKey
+    val id: String,
+    val title: String,
+    val description: String,
+    val isActive: Boolean,
+    val createdAt: String,
+    val lastUpdated: Long = System.currentTimeMillis(),
+    val contentHash: String = "",
+    val bucket: Int = TemplateFeatureBuckets.bucketOf(id),
+    val rowDigest: Long = TemplateFeatureBuckets.rowDigestOf(id, contentHash)
+)
@@ -0,0 +1,30 @@
+package com.example.modules.template_feature.data.localdatasource.database
+
+import androidx.room.Entity
+import androidx.room.ForeignKey
+import androidx.room.PrimaryKey
+
+/**
+ * ETag and Last-Modified of the last template-features/{id} response. The
+ * foreign key drops them together with their row, including when a sync
+ * replaces it, so there is never more than one entry per stored feature.
+ */
+@Entity(
+    tableName = "template_feature_validators",
+    foreignKeys = [
+        ForeignKey(
+            entity = TemplateFeatureEntity::class,
+            parentColumns = ["id"],
+            childColumns = ["featureId"],
+            onDelete = ForeignKey.CASCADE
+        )
+    ]
+)
+data class TemplateFeatureValidatorEntity(
+    @PrimaryKey
+    val featureId: String,
+    val etag: String?,
+    val lastModified: String?,
+    // -1 when the response did not say how large it was
+    val bodyBytes: Long
+)
@@ -2,6 +2,7 @@ package com.example.modules.template_feature.data.localdatasource.preferences
 
 import android.content.Context
 import android.content.SharedPreferences
+import com.example.modules.template_feature.domain.models.SyncScope
 
 class TemplateFeaturePreferences(
     context: Context
@@ -19,6 +20,60 @@ class TemplateFeaturePreferences(
         return preferences.getLong(KEY_LAST_SYNC_TIME, 0L)
     }
     
+    fun setSyncCursor(cursor: String) {
+        preferences.edit().putString(KEY_SYNC_CURSOR, cursor).apply()
+    }
+    
+    fun getSyncCursor(): String? {
+        return preferences.getString(KEY_SYNC_CURSOR, null)
+    }
+    
+    fun clearSyncCursor() {
+        preferences.edit().remove(KEY_SYNC_CURSOR).apply()
+    }
+    
+    fun setStreamSequence(sequence: Long) {
+        preferences.edit().putLong(KEY_STREAM_SEQUENCE, sequence).apply()
+    }
+    
+    /**
+     * The last change stream event applied to Room, or null if none has been.
+     */
+    fun getStreamSequence(): Long? {
+        if (!preferences.contains(KEY_STREAM_SEQUENCE)) return null
+        return preferences.getLong(KEY_STREAM_SEQUENCE, 0L)
+    }
+    
+    fun setSyncScope(scope: SyncScope) {
+        preferences.edit().putString(KEY_SYNC_SCOPE, scope.name).apply()
+    }
+    
+    fun getSyncScope(): SyncScope {
+        return preferences.getString(KEY_SYNC_SCOPE, null)
+            ?.let { name -> SyncScope.entries.firstOrNull { it.name == name } }
+            ?: SyncScope.ACTIVE
+    }
+    
+    fun setMaterializedScope(scope: SyncScope) {
+        preferences.edit().putString(KEY_MATERIALIZED_SCOPE, scope.name).apply()
+    }
+    
+    /**
+     * The scope whose rows are fully stored locally, or null before the first sync.
+     */
+    fun getMaterializedScope(): SyncScope? {
+        return preferences.getString(KEY_MATERIALIZED_SCOPE, null)
+            ?.let { name -> SyncScope.entries.firstOrNull { it.name == name } }
+    }
+    
+    fun setInactiveViewedAt(timestamp: Long) {
+        preferences.edit().putLong(KEY_INACTIVE_VIEWED_AT, timestamp).apply()
+    }
+    
+    fun getInactiveViewedAt(): Long {
+        return preferences.getLong(KEY_INACTIVE_VIEWED_AT, 0L)
+    }
+    
     fun setNotificationsEnabled(enabled: Boolean) {
         preferences.edit().putBoolean(KEY_NOTIFICATIONS_ENABLED, enabled).apply()
     }
@@ -42,6 +97,11 @@ class TemplateFeaturePreferences(
     companion object {
         private const val PREFERENCES_NAME = "template_feature_preferences"
         private const val KEY_LAST_SYNC_TIME = "last_sync_time"
+        private const val KEY_SYNC_CURSOR = "sync_cursor"
+        private const val KEY_STREAM_SEQUENCE = "stream_sequence"
+        private const val KEY_SYNC_SCOPE = "sync_scope"
+        private const val KEY_MATERIALIZED_SCOPE = "materialized_scope"
+        private const val KEY_INACTIVE_VIEWED_AT = "inactive_viewed_at"
         private const val KEY_NOTIFICATIONS_ENABLED = "notifications_enabled"
         private const val KEY_FIRST_LAUNCH = "first_launch"
     }
@@ -0,0 +1,64 @@
+package com.example.modules.template_feature.data.localdatasource.preferences
+
+import android.content.Context
+import android.content.SharedPreferences
+import com.example.modules.template_feature.data.remotedatasource.api.HttpValidators
+import com.example.modules.template_feature.domain.models.SyncScope
+
+/**
+ * ETag and Last-Modified values of the list endpoints, one entry per
+ * [SyncScope]. Detail validators live in Room next to their rows, so they go
+ * away when the feature does.
+ */
+class TemplateFeatureValidatorStore(
+    context: Context
+) {
+    private val preferences: SharedPreferences = context.getSharedPreferences(
+        PREFERENCES_NAME,
+        Context.MODE_PRIVATE
+    )
+    
+    fun getValidators(key: String): HttpValidators? {
+        val etag = preferences.getString("$key$SUFFIX_ETAG", null)
+        val lastModified = preferences.getString("$key$SUFFIX_LAST_MODIFIED", null)
+        if (etag == null && lastModified == null) return null
+        return HttpValidators(
+            etag = etag,
+            lastModified = lastModified,
+            bodyBytes = preferences.getLong("$key$SUFFIX_BODY_BYTES", -1L)
+        )
+    }
+    
+    fun setValidators(key: String, validators: HttpValidators) {
+        preferences.edit()
+            .putString("$key$SUFFIX_ETAG", validators.etag)
+            .putString("$key$SUFFIX_LAST_MODIFIED", validators.lastModified)
+            .putLong("$key$SUFFIX_BODY_BYTES", validators.bodyBytes)
+            .apply()
+    }
+    
+    fun clearValidators(key: String) {
+        preferences.edit()
+            .remove("$key$SUFFIX_ETAG")
+            .remove("$key$SUFFIX_LAST_MODIFIED")
+            .remove("$key$SUFFIX_BODY_BYTES")
+            .apply()
+    }
+    
+    fun clearAll() {
+        preferences.edit().clear().apply()
+    }
+    
+    companion object {
+        private const val PREFERENCES_NAME = "template_feature_validators"
+        private const val SUFFIX_ETAG = ".etag"
+        private const val SUFFIX_LAST_MODIFIED = ".last_modified"
+        private const val SUFFIX_BODY_BYTES = ".body_bytes"
+        
+        // Each scope is a different listing, so its validators cannot stand in for another's
+        fun listKey(scope: SyncScope): String = when (scope) {
+            SyncScope.ALL -> "list"
+            SyncScope.ACTIVE -> "list:active"
+        }
+    }
+}
@@ -2,8 +2,13 @@ package com.example.modules.template_feature.data.mappers
 
 import com.example.modules.template_feature.data.dto.TemplateFeatureRequestDto
 import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationEntity
 import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureEntity
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureStagingEntity
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureValidatorEntity
+import com.example.modules.template_feature.data.remotedatasource.api.HttpValidators
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
+import java.security.MessageDigest
 
 // DTO to Domain Model
 fun TemplateFeatureResponseDto.toDomainModel(): TemplateFeatureModel {
@@ -29,6 +34,15 @@ fun TemplateFeatureModel.toRequestDto(): TemplateFeatureRequestDto {
     )
 }
 
+// Pending Operation to Request DTO
+fun PendingOperationEntity.toRequestDto(): TemplateFeatureRequestDto {
+    return TemplateFeatureRequestDto(
+        title = this.title.orEmpty(),
+        description = this.description.orEmpty(),
+        isActive = this.isActive ?: false
+    )
+}
+
 // Entity to Domain Model
 fun TemplateFeatureEntity.toDomainModel(): TemplateFeatureModel {
     return TemplateFeatureModel(
@@ -36,7 +50,8 @@ fun TemplateFeatureEntity.toDomainModel(): TemplateFeatureModel {
         title = this.title,
         description = this.description,
         isActive = this.isActive,
-        createdAt = this.createdAt
+        createdAt = this.createdAt,
+        syncStatus = this.syncStatus
     )
 }
 
@@ -51,7 +66,9 @@ fun TemplateFeatureModel.toEntity(): TemplateFeatureEntity {
         title = this.title,
         description = this.description,
         isActive = this.isActive,
-        createdAt = this.createdAt
+        createdAt = this.createdAt,
+        contentHash = contentHashOf(title, description, isActive, createdAt),
+        syncStatus = this.syncStatus
     )
 }
 
@@ -66,10 +83,66 @@ fun TemplateFeatureResponseDto.toEntity(): TemplateFeatureEntity {
         title = this.title,
         description = this.description,
         isActive = this.isActive,
-        createdAt = this.createdAt
+        createdAt = this.createdAt,
+        lastUpdated = this.updatedAt ?: System.currentTimeMillis(),
+        contentHash = contentHash()
     )
 }
 
 fun List<TemplateFeatureResponseDto>.toEntityListFromDto(): List<TemplateFeatureEntity> {
     return this.map { it.toEntity() }
+}
+
+// Response DTO to Staging Entity
+fun TemplateFeatureResponseDto.toStagingEntity(): TemplateFeatureStagingEntity {
+    return TemplateFeatureStagingEntity(
+        id = this.id,
+        title = this.title,
+        description = this.description,
+        isActive = this.isActive,
+        createdAt = this.createdAt,
+        lastUpdated = this.updatedAt ?: System.currentTimeMillis(),
+        contentHash = contentHash()
+    )
+}
+
+fun List<TemplateFeatureResponseDto>.toStagingEntityListFromDto(): List<TemplateFeatureStagingEntity> {
+    return this.map { it.toStagingEntity() }
+}
+
+fun HttpValidators.toEntity(featureId: String): TemplateFeatureValidatorEntity {
+    return TemplateFeatureValidatorEntity(
+        featureId = featureId,
+        etag = etag,
+        lastModified = lastModified,
+        bodyBytes = bodyBytes
+    )
+}
+
+fun TemplateFeatureValidatorEntity.toHttpValidators(): HttpValidators {
+    return HttpValidators(
+        etag = etag,
+        lastModified = lastModified,
+        bodyBytes = bodyBytes
+    )
+}
+
+// Content hash used to detect rows that actually changed between syncs
+fun TemplateFeatureResponseDto.contentHash(): String {
+    return contentHashOf(title, description, isActive, createdAt)
+}
+
+internal fun contentHashOf(
+    title: String,
+    description: String,
+    isActive: Boolean,
+    createdAt: String
+): String {
+    val digest = MessageDigest.getInstance("SHA-256")
+    listOf(title, description, isActive.toString(), createdAt).forEach { field ->
+        digest.update(field.toByteArray(Charsets.UTF_8))
+        // Separator keeps ("ab", "c") and ("a", "bc") apart
+        digest.update(0.toByte())
+    }
+    return digest.digest().joinToString("") { "%02x".format(it) }
 }
\ No newline at end of file
@@ -0,0 +1,12 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+data class CallPolicyConfig(
+    // Extra attempts after the first one, for idempotent requests only
+    val maxRetries: Int = 2,
+    val baseBackoffMs: Long = 250,
+    val maxBackoffMs: Long = 5_000,
+    // A server asking us to wait longer than this gets its response back instead of a retry
+    val maxRetryAfterMs: Long = 10_000,
+    val failureThreshold: Int = 5,
+    val openDurationMs: Long = 30_000
+)
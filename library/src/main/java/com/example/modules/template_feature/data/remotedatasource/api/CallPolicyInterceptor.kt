@@ -0,0 +1,315 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import com.example.modules.template_feature.data.remotedatasource.metrics.MetricsEventListener
+import com.example.modules.template_feature.domain.models.CircuitState
+import com.example.modules.template_feature.domain.models.EndpointCallStats
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.Interceptor
+import okhttp3.Request
+import okhttp3.Response
+import okio.Timeout
+import java.io.IOException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Future
+import java.util.concurrent.ScheduledThreadPoolExecutor
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.random.Random
+
+/**
+ * Application interceptor that keeps one circuit breaker per endpoint so a
+ * dead backend fails fast instead of costing every caller a full timeout.
+ * Calls made through [callFactory] also retry transient failures of
+ * idempotent requests with exponential backoff and full jitter, honoring
+ * Retry-After. The wait between attempts happens outside OkHttp, so it
+ * holds no dispatcher slot and ends as soon as the call is cancelled.
+ */
+class CallPolicyInterceptor(
+    private val config: CallPolicyConfig,
+    private val clock: () -> Long = System::currentTimeMillis,
+    private val timer: RetryTimer = RetryTimer.Default,
+    private val random: Random = Random.Default
+) : Interceptor {
+
+    private val _stats = MutableStateFlow<Map<String, EndpointCallStats>>(emptyMap())
+    val stats: StateFlow<Map<String, EndpointCallStats>> = _stats.asStateFlow()
+
+    private val breakers = HashMap<String, Breaker>()
+
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val request = chain.request()
+        // Cache-only requests never reach the server, so they say nothing about its health
+        if (request.cacheControl.onlyIfCached) return chain.proceed(request)
+
+        val endpoint = MetricsEventListener.endpointOf(chain.call())
+        acquire(endpoint)
+        val response = try {
+            chain.proceed(request)
+        } catch (e: IOException) {
+            // A call its caller gave up on says nothing about the server
+            if (!chain.call().isCanceled()) onFailure(endpoint)
+            throw e
+        }
+        if (response.code in SERVER_FAILURE_CODES) onFailure(endpoint) else onSuccess(endpoint)
+        return response
+    }
+
+    /**
+     * Wraps [delegate] so each call is retried as a whole, going back through
+     * the delegate (and its dispatcher) for every attempt.
+     */
+    fun callFactory(delegate: Call.Factory): Call.Factory {
+        return Call.Factory { request -> RetryingCall(delegate, request) }
+    }
+
+    private fun isIdempotent(request: Request): Boolean {
+        return request.method in IDEMPOTENT_METHODS || request.header(IDEMPOTENCY_KEY) != null
+    }
+
+    /**
+     * How long to wait before the next attempt, or null if [response] should
+     * go back to the caller as it is.
+     */
+    private fun retryDelayMs(call: Call, attempt: Int, response: Response): Long? {
+        if (!isIdempotent(call.request()) || attempt >= config.maxRetries || response.code !in RETRYABLE_CODES) return null
+        // An offline cache miss comes back as a 504 that no retry can change
+        if (response.request.cacheControl.onlyIfCached) return null
+        val retryAfterMs = retryAfterMs(response)
+        if (retryAfterMs != null && retryAfterMs > config.maxRetryAfterMs) return null
+        return backOff(call, attempt, retryAfterMs)
+    }
+
+    private fun retryDelayMs(call: Call, attempt: Int, exception: IOException): Long? {
+        if (!isIdempotent(call.request()) || attempt >= config.maxRetries || call.isCanceled()) return null
+        if (exception is CircuitOpenException) return null
+        return backOff(call, attempt, retryAfterMs = null)
+    }
+
+    private fun backOff(call: Call, attempt: Int, retryAfterMs: Long?): Long {
+        val ceiling = (config.baseBackoffMs shl attempt.coerceAtMost(MAX_SHIFT)).coerceAtMost(config.maxBackoffMs)
+        updateStats(MetricsEventListener.endpointOf(call)) { it.copy(retries = it.retries + 1) }
+        return retryAfterMs ?: random.nextLong(ceiling + 1)
+    }
+
+    private fun retryAfterMs(response: Response): Long? {
+        val value = response.header(RETRY_AFTER) ?: return null
+        value.trim().toLongOrNull()?.let { seconds -> return (seconds * 1_000).coerceAtLeast(0) }
+        val date = response.headers.getDate(RETRY_AFTER) ?: return null
+        return (date.time - clock()).coerceAtLeast(0)
+    }
+
+    private fun acquire(endpoint: String) {
+        val now = clock()
+        val rejectedForMs = synchronized(breakers) {
+            val breaker = breakers.getOrPut(endpoint) { Breaker() }
+            val waitedMs = now - breaker.openedAt
+            when {
+                breaker.state == CircuitState.CLOSED -> null
+                // Only the first caller after the cool-down gets to probe; a probe that never
+                // reported back is replaced after another cool-down
+                waitedMs >= config.openDurationMs -> {
+                    breaker.state = CircuitState.HALF_OPEN
+                    breaker.openedAt = now
+                    null
+                }
+                else -> config.openDurationMs - waitedMs
+            }
+        }
+        if (rejectedForMs != null) {
+            updateStats(endpoint) { it.copy(shortCircuited = it.shortCircuited + 1) }
+            throw CircuitOpenException(endpoint, rejectedForMs)
+        }
+        updateStats(endpoint) { it.copy(attempts = it.attempts + 1) }
+        publish(endpoint)
+    }
+
+    private fun onSuccess(endpoint: String) {
+        synchronized(breakers) {
+            val breaker = breakers.getValue(endpoint)
+            breaker.state = CircuitState.CLOSED
+            breaker.consecutiveFailures = 0
+        }
+        publish(endpoint)
+    }
+
+    private fun onFailure(endpoint: String) {
+        synchronized(breakers) {
+            val breaker = breakers.getValue(endpoint)
+            breaker.consecutiveFailures++
+            if (breaker.state == CircuitState.HALF_OPEN || breaker.consecutiveFailures >= config.failureThreshold) {
+                breaker.state = CircuitState.OPEN
+                breaker.openedAt = clock()
+            }
+        }
+        publish(endpoint)
+    }
+
+    private fun publish(endpoint: String) {
+        val (state, failures) = synchronized(breakers) {
+            breakers.getValue(endpoint).let { it.state to it.consecutiveFailures }
+        }
+        updateStats(endpoint) { it.copy(state = state, consecutiveFailures = failures) }
+    }
+
+    private fun updateStats(endpoint: String, transform: (EndpointCallStats) -> EndpointCallStats) {
+        _stats.update { stats -> stats + (endpoint to transform(stats[endpoint] ?: EndpointCallStats())) }
+    }
+
+    private inner class RetryingCall(
+        private val delegate: Call.Factory,
+        private val originalRequest: Request
+    ) : Call {
+
+        private val executed = AtomicBoolean()
+        @Volatile private var canceled = false
+        @Volatile private var attemptCall: Call? = null
+        @Volatile private var pendingRetry: PendingRetry? = null
+
+        override fun request(): Request = originalRequest
+
+        override fun execute(): Response {
+            check(executed.compareAndSet(false, true)) { "Already Executed" }
+            var attempt = 0
+            while (true) {
+                val delayMs = try {
+                    val response = newAttempt().execute()
+                    val delayMs = retryDelayMs(this, attempt, response) ?: return response
+                    response.close()
+                    delayMs
+                } catch (e: IOException) {
+                    retryDelayMs(this, attempt, e) ?: throw e
+                }
+                val elapsed = CountDownLatch(1)
+                schedule(delayMs, onCanceled = elapsed::countDown) { elapsed.countDown() }
+                elapsed.await()
+                attempt++
+            }
+        }
+
+        override fun enqueue(responseCallback: Callback) {
+            check(executed.compareAndSet(false, true)) { "Already Executed" }
+            enqueueAttempt(attempt = 0, responseCallback)
+        }
+
+        private fun enqueueAttempt(attempt: Int, responseCallback: Callback) {
+            val call = try {
+                newAttempt()
+            } catch (e: IOException) {
+                responseCallback.onFailure(this, e)
+                return
+            }
+            call.enqueue(object : Callback {
+                override fun onFailure(call: Call, e: IOException) {
+                    val delayMs = retryDelayMs(this@RetryingCall, attempt, e)
+                    if (delayMs == null) {
+                        responseCallback.onFailure(this@RetryingCall, e)
+                        return
+                    }
+                    schedule(delayMs, onCanceled = { responseCallback.onFailure(this@RetryingCall, IOException("Canceled")) }) {
+                        enqueueAttempt(attempt + 1, responseCallback)
+                    }
+                }
+
+                override fun onResponse(call: Call, response: Response) {
+                    val delayMs = retryDelayMs(this@RetryingCall, attempt, response)
+                    if (delayMs == null) {
+                        responseCallback.onResponse(this@RetryingCall, response)
+                        return
+                    }
+                    response.close()
+                    schedule(delayMs, onCanceled = { responseCallback.onFailure(this@RetryingCall, IOException("Canceled")) }) {
+                        enqueueAttempt(attempt + 1, responseCallback)
+                    }
+                }
+            })
+        }
+
+        private fun newAttempt(): Call {
+            if (canceled) throw IOException("Canceled")
+            val call = delegate.newCall(originalRequest)
+            attemptCall = call
+            // cancel() may have run before the attempt was visible to it
+            if (canceled) call.cancel()
+            return call
+        }
+
+        private fun schedule(delayMs: Long, onCanceled: () -> Unit, task: () -> Unit) {
+            pendingRetry = PendingRetry(timer.schedule(delayMs, task), onCanceled)
+            // Cancelled while the retry was being scheduled
+            if (canceled) cancelPendingRetry()
+        }
+
+        private fun cancelPendingRetry() {
+            val retry = pendingRetry ?: return
+            // Whichever of cancel() and the timer gets there first decides what the caller sees
+            if (retry.future.cancel(false)) retry.onCanceled()
+        }
+
+        override fun cancel() {
+            canceled = true
+            attemptCall?.cancel()
+            cancelPendingRetry()
+        }
+
+        override fun isExecuted(): Boolean = executed.get()
+
+        override fun isCanceled(): Boolean = canceled
+
+        // Each attempt runs under the client's own timeouts
+        override fun timeout(): Timeout = Timeout.NONE
+
+        override fun clone(): Call = RetryingCall(delegate, originalRequest)
+    }
+
+    private class PendingRetry(
+        val future: Future<*>,
+        val onCanceled: () -> Unit
+    )
+
+    private class Breaker {
+        var state = CircuitState.CLOSED
+        var consecutiveFailures = 0
+        var openedAt = 0L
+    }
+
+    companion object {
+        const val IDEMPOTENCY_KEY = "Idempotency-Key"
+        private const val RETRY_AFTER = "Retry-After"
+        private const val MAX_SHIFT = 20
+        private val IDEMPOTENT_METHODS = setOf("GET", "HEAD", "OPTIONS", "PUT", "DELETE")
+        private val RETRYABLE_CODES = setOf(408, 429, 502, 503, 504)
+        // 429 and 408 mean the server is alive, just busy with us
+        private val SERVER_FAILURE_CODES = setOf(500, 502, 503, 504)
+    }
+}
+
+/**
+ * Runs a retry, or a call waiting for its rate limit, after a delay without
+ * tying up a thread while it waits.
+ */
+fun interface RetryTimer {
+    fun schedule(delayMs: Long, task: () -> Unit): Future<*>
+
+    companion object {
+        private val executor by lazy {
+            ScheduledThreadPoolExecutor(1, ThreadFactory { runnable ->
+                Thread(runnable, "template-feature-retry").apply { isDaemon = true }
+            }).apply { removeOnCancelPolicy = true }
+        }
+
+        val Default = RetryTimer { delayMs, task ->
+            executor.schedule(Runnable { task() }, delayMs, TimeUnit.MILLISECONDS)
+        }
+    }
+}
+
+class CircuitOpenException(
+    val endpoint: String,
+    val retryInMs: Long
+) : IOException("Circuit open for $endpoint, retry in ${retryInMs}ms")
@@ -0,0 +1,31 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import okhttp3.Request
+import retrofit2.Invocation
+
+/**
+ * Budget a [TemplateFeatureApiService] method draws from in [RateLimitInterceptor].
+ */
+enum class EndpointClass(val isBackground: Boolean) {
+    SEARCH(isBackground = false),
+    READ(isBackground = false),
+    WRITE(isBackground = false),
+    
+    // Bulk list, page, delta and digest downloads made by sync
+    SYNC(isBackground = true);
+
+    companion object {
+        fun of(request: Request): EndpointClass {
+            return request.tag(Invocation::class.java)?.method()?.getAnnotation(RateLimited::class.java)?.value
+                ?: if (request.method == "GET") READ else WRITE
+        }
+    }
+}
+
+/**
+ * Assigns a service method to an [EndpointClass]. Unannotated methods count as
+ * [EndpointClass.READ] for GET and [EndpointClass.WRITE] otherwise.
+ */
+@Target(AnnotationTarget.FUNCTION)
+@Retention(AnnotationRetention.RUNTIME)
+annotation class RateLimited(val value: EndpointClass)
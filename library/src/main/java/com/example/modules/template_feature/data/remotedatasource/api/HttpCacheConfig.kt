@@ -0,0 +1,9 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+data class HttpCacheConfig(
+    val maxSizeBytes: Long = 10L * 1024 * 1024,
+    // How stale a cached response may be and still be used while online; 0 honors the server's Cache-Control as is
+    val maxStaleSeconds: Int = 0,
+    // While offline anything cached is better than an error, within reason
+    val offlineMaxStaleSeconds: Int = 7 * 24 * 60 * 60
+)
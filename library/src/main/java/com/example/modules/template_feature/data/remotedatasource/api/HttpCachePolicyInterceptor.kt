@@ -0,0 +1,71 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import com.example.modules.template_feature.data.remotedatasource.connectivity.ConnectivityMonitor
+import com.example.modules.template_feature.domain.models.HttpCacheStats
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import okhttp3.CacheControl
+import okhttp3.Interceptor
+import okhttp3.Request
+import okhttp3.Response
+import java.net.HttpURLConnection
+import java.util.concurrent.TimeUnit
+
+/**
+ * Application interceptor that sits in front of the OkHttp cache. Offline,
+ * GETs are answered from the cache only; online, the server's Cache-Control
+ * decides, optionally relaxed by [HttpCacheConfig.maxStaleSeconds]. Every
+ * response is counted as a hit, conditional hit or miss.
+ */
+class HttpCachePolicyInterceptor(
+    private val connectivityMonitor: ConnectivityMonitor,
+    private val config: HttpCacheConfig
+) : Interceptor {
+
+    private val _stats = MutableStateFlow(HttpCacheStats())
+    val stats: StateFlow<HttpCacheStats> = _stats.asStateFlow()
+
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val response = chain.proceed(applyPolicy(chain.request()))
+        record(response)
+        return response
+    }
+
+    private fun applyPolicy(request: Request): Request {
+        // Callers that set their own Cache-Control or validators know what they want
+        if (request.method != "GET" || request.header("Cache-Control") != null) return request
+        
+        val cacheControl = when {
+            !connectivityMonitor.isOnline.value -> CacheControl.Builder()
+                .onlyIfCached()
+                .maxStale(config.offlineMaxStaleSeconds, TimeUnit.SECONDS)
+                .build()
+            config.maxStaleSeconds > 0 -> CacheControl.Builder()
+                .maxStale(config.maxStaleSeconds, TimeUnit.SECONDS)
+                .build()
+            else -> return request
+        }
+        return request.newBuilder().cacheControl(cacheControl).build()
+    }
+
+    private fun record(response: Response) {
+        if (response.request.method != "GET") return
+        val cacheResponse = response.cacheResponse
+        val networkResponse = response.networkResponse
+        _stats.update { stats ->
+            when {
+                cacheResponse != null && networkResponse == null -> stats.copy(hits = stats.hits + 1)
+                cacheResponse != null && networkResponse?.code == HttpURLConnection.HTTP_NOT_MODIFIED ->
+                    stats.copy(conditionalHits = stats.conditionalHits + 1)
+                else -> stats.copy(misses = stats.misses + 1)
+            }
+        }
+    }
+
+    companion object {
+        // What OkHttp answers with when only-if-cached finds nothing usable
+        const val UNSATISFIABLE_REQUEST = 504
+    }
+}
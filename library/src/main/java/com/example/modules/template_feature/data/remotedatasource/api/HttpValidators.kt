@@ -0,0 +1,34 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import retrofit2.Response
+
+data class HttpValidators(
+    val etag: String? = null,
+    val lastModified: String? = null,
+    // -1 when the response did not say how large it was
+    val bodyBytes: Long = -1
+)
+
+/**
+ * Validators the server sent with this response, or null if it sent none.
+ */
+fun Response<*>.validators(bodyBytes: Long): HttpValidators? {
+    val etag = headers()[HttpHeaders.ETAG]
+    val lastModified = headers()[HttpHeaders.LAST_MODIFIED]
+    if (etag == null && lastModified == null) return null
+    return HttpValidators(etag = etag, lastModified = lastModified, bodyBytes = bodyBytes)
+}
+
+val Response<*>.isNotModified: Boolean
+    get() = code() == HttpHeaders.NOT_MODIFIED
+
+object HttpHeaders {
+    const val ETAG = "ETag"
+    const val LAST_MODIFIED = "Last-Modified"
+    const val IF_NONE_MATCH = "If-None-Match"
+    const val IF_MODIFIED_SINCE = "If-Modified-Since"
+    const val NOT_MODIFIED = 304
+    
+    // Carries the delta cursor where no page body can: streamed listings and 304s
+    const val SYNC_CURSOR = "X-Sync-Cursor"
+}
@@ -0,0 +1,24 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+data class TokenBudget(
+    val permitsPerSecond: Double,
+    val burst: Int
+)
+
+data class RateLimitConfig(
+    // Shared by every class, so overlapping sync, search and detail loads still add up to one client's worth
+    val shared: TokenBudget = TokenBudget(permitsPerSecond = 10.0, burst = 20),
+    val perClass: Map<EndpointClass, TokenBudget> = mapOf(
+        EndpointClass.SEARCH to TokenBudget(permitsPerSecond = 4.0, burst = 4),
+        EndpointClass.READ to TokenBudget(permitsPerSecond = 8.0, burst = 16),
+        EndpointClass.WRITE to TokenBudget(permitsPerSecond = 4.0, burst = 8),
+        EndpointClass.SYNC to TokenBudget(permitsPerSecond = 4.0, burst = 8)
+    ),
+    // Shared tokens background classes must leave behind for user-initiated calls
+    val backgroundReserve: Int = 5,
+    // On a 429 the rate is multiplied by this, but never below minRateFraction of the configured rate
+    val throttleFactor: Double = 0.5,
+    val minRateFraction: Double = 0.1,
+    // Rate regained per successful response until the configured rate is back
+    val recoveryFraction: Double = 0.05
+)
@@ -0,0 +1,255 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import com.example.modules.template_feature.domain.models.RateLimitStats
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.Interceptor
+import okhttp3.Request
+import okhttp3.Response
+import okio.Timeout
+import java.io.IOException
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Future
+import java.util.concurrent.atomic.AtomicBoolean
+import kotlin.math.ceil
+
+/**
+ * Paces requests through token buckets: one per [EndpointClass] and one
+ * shared by all of them. Requests are delayed, never dropped. Background
+ * classes may not dip into the last [RateLimitConfig.backgroundReserve]
+ * shared tokens, so user-initiated calls never wait behind sync. A 429
+ * halves the offending class's rate and the shared rate; successes bring
+ * them back gradually.
+ *
+ * Calls wait for their permit in [callFactory], before OkHttp has given them
+ * a dispatcher slot or a connection, on a timer that cancelling the call
+ * stops. Installed as a network interceptor as well, so only responses that
+ * came from the server move the rate.
+ */
+class RateLimitInterceptor(
+    private val config: RateLimitConfig,
+    private val clock: () -> Long = System::currentTimeMillis,
+    private val timer: RetryTimer = RetryTimer.Default
+) : Interceptor {
+
+    private val shared = TokenBucket(config.shared)
+    private val buckets = EndpointClass.values().associateWith { endpointClass ->
+        TokenBucket(config.perClass[endpointClass] ?: config.shared)
+    }
+
+    private val _stats = MutableStateFlow(
+        buckets.mapValues { (_, bucket) -> RateLimitStats(permitsPerSecond = bucket.rate) }
+    )
+    val stats: StateFlow<Map<EndpointClass, RateLimitStats>> = _stats.asStateFlow()
+
+    override fun intercept(chain: Interceptor.Chain): Response {
+        val endpointClass = EndpointClass.of(chain.call().request())
+        val response = chain.proceed(chain.request())
+        if (response.code == TOO_MANY_REQUESTS) throttle(endpointClass) else recover(endpointClass)
+        return response
+    }
+
+    /**
+     * Wraps [delegate] so each call only reaches it once its endpoint class
+     * and the shared budget have a token for it.
+     */
+    fun callFactory(delegate: Call.Factory): Call.Factory {
+        return Call.Factory { request -> PacedCall(delegate, request) }
+    }
+
+    /**
+     * Takes a token for [endpointClass] and returns 0, or returns how long to
+     * wait before there can be one.
+     */
+    private fun tryAcquire(endpointClass: EndpointClass): Long {
+        val bucket = buckets.getValue(endpointClass)
+        // A reserve as large as the burst could never be satisfied
+        val reserve = if (endpointClass.isBackground) config.backgroundReserve.coerceAtMost(config.shared.burst - 1).toDouble() else 0.0
+        synchronized(this) {
+            val now = clock()
+            shared.refill(now)
+            bucket.refill(now)
+            val waitMs = maxOf(bucket.waitMs(needed = 1.0), shared.waitMs(needed = 1.0 + reserve))
+            if (waitMs == 0L) {
+                bucket.tokens -= 1
+                shared.tokens -= 1
+            }
+            return waitMs
+        }
+    }
+
+    private fun throttle(endpointClass: EndpointClass) {
+        synchronized(this) {
+            buckets.getValue(endpointClass).scaleRate(config.throttleFactor)
+            shared.scaleRate(config.throttleFactor)
+        }
+        publishRate(endpointClass) { it.copy(tooManyRequests = it.tooManyRequests + 1) }
+    }
+
+    private fun recover(endpointClass: EndpointClass) {
+        val bucket = buckets.getValue(endpointClass)
+        synchronized(this) {
+            if (bucket.rate >= bucket.budget.permitsPerSecond && shared.rate >= shared.budget.permitsPerSecond) return
+            bucket.recover()
+            shared.recover()
+        }
+        publishRate(endpointClass) { it }
+    }
+
+    private fun recordRequest(endpointClass: EndpointClass, waitedMs: Long) {
+        updateStats(endpointClass) { stats ->
+            stats.copy(
+                requests = stats.requests + 1,
+                delayed = stats.delayed + if (waitedMs > 0) 1 else 0,
+                totalWaitMs = stats.totalWaitMs + waitedMs
+            )
+        }
+    }
+
+    private fun publishRate(endpointClass: EndpointClass, transform: (RateLimitStats) -> RateLimitStats) {
+        val rate = synchronized(this) { buckets.getValue(endpointClass).rate }
+        updateStats(endpointClass) { transform(it).copy(permitsPerSecond = rate) }
+    }
+
+    private fun updateStats(endpointClass: EndpointClass, transform: (RateLimitStats) -> RateLimitStats) {
+        _stats.update { stats -> stats + (endpointClass to transform(stats.getValue(endpointClass))) }
+    }
+
+    private inner class PacedCall(
+        private val delegate: Call.Factory,
+        private val originalRequest: Request
+    ) : Call {
+
+        private val endpointClass = EndpointClass.of(originalRequest)
+        private val executed = AtomicBoolean()
+        @Volatile private var canceled = false
+        @Volatile private var call: Call? = null
+        @Volatile private var pendingWait: PendingWait? = null
+
+        override fun request(): Request = originalRequest
+
+        override fun execute(): Response {
+            check(executed.compareAndSet(false, true)) { "Already Executed" }
+            var waitedMs = 0L
+            while (true) {
+                if (canceled) throw IOException("Canceled")
+                val waitMs = tryAcquire(endpointClass)
+                if (waitMs == 0L) break
+                val elapsed = CountDownLatch(1)
+                schedule(waitMs, onCanceled = elapsed::countDown) { elapsed.countDown() }
+                elapsed.await()
+                waitedMs += waitMs
+            }
+            recordRequest(endpointClass, waitedMs)
+            return start().execute()
+        }
+
+        override fun enqueue(responseCallback: Callback) {
+            check(executed.compareAndSet(false, true)) { "Already Executed" }
+            enqueueWhenPermitted(waitedMs = 0L, responseCallback)
+        }
+
+        private fun enqueueWhenPermitted(waitedMs: Long, responseCallback: Callback) {
+            if (canceled) {
+                responseCallback.onFailure(this, IOException("Canceled"))
+                return
+            }
+            val waitMs = tryAcquire(endpointClass)
+            if (waitMs > 0) {
+                schedule(waitMs, onCanceled = { responseCallback.onFailure(this, IOException("Canceled")) }) {
+                    enqueueWhenPermitted(waitedMs + waitMs, responseCallback)
+                }
+                return
+            }
+            recordRequest(endpointClass, waitedMs)
+            val call = try {
+                start()
+            } catch (e: IOException) {
+                responseCallback.onFailure(this, e)
+                return
+            }
+            call.enqueue(object : Callback {
+                override fun onFailure(call: Call, e: IOException) {
+                    responseCallback.onFailure(this@PacedCall, e)
+                }
+
+                override fun onResponse(call: Call, response: Response) {
+                    responseCallback.onResponse(this@PacedCall, response)
+                }
+            })
+        }
+
+        private fun start(): Call {
+            if (canceled) throw IOException("Canceled")
+            val call = delegate.newCall(originalRequest)
+            this.call = call
+            // cancel() may have run before the call was visible to it
+            if (canceled) call.cancel()
+            return call
+        }
+
+        private fun schedule(delayMs: Long, onCanceled: () -> Unit, task: () -> Unit) {
+            pendingWait = PendingWait(timer.schedule(delayMs, task), onCanceled)
+            // Cancelled while the wait was being scheduled
+            if (canceled) cancelPendingWait()
+        }
+
+        private fun cancelPendingWait() {
+            val wait = pendingWait ?: return
+            // Whichever of cancel() and the timer gets there first decides what the caller sees
+            if (wait.future.cancel(false)) wait.onCanceled()
+        }
+
+        override fun cancel() {
+            canceled = true
+            call?.cancel()
+            cancelPendingWait()
+        }
+
+        override fun isExecuted(): Boolean = executed.get()
+
+        override fun isCanceled(): Boolean = canceled
+
+        // The wait for a permit is not part of the call's own timeouts
+        override fun timeout(): Timeout = Timeout.NONE
+
+        override fun clone(): Call = PacedCall(delegate, originalRequest)
+    }
+
+    private class PendingWait(
+        val future: Future<*>,
+        val onCanceled: () -> Unit
+    )
+
+    private inner class TokenBucket(val budget: TokenBudget) {
+        var rate = budget.permitsPerSecond
+        var tokens = budget.burst.toDouble()
+        private var lastRefill = clock()
+
+        fun refill(now: Long) {
+            tokens = (tokens + (now - lastRefill) * rate / 1_000).coerceAtMost(budget.burst.toDouble())
+            lastRefill = now
+        }
+
+        fun waitMs(needed: Double): Long {
+            if (tokens >= needed) return 0
+            return ceil((needed - tokens) * 1_000 / rate).toLong().coerceAtLeast(1)
+        }
+
+        fun scaleRate(factor: Double) {
+            rate = (rate * factor).coerceAtLeast(budget.permitsPerSecond * config.minRateFraction)
+        }
+
+        fun recover() {
+            rate = (rate + budget.permitsPerSecond * config.recoveryFraction).coerceAtMost(budget.permitsPerSecond)
+        }
+    }
+
+    companion object {
+        const val TOO_MANY_REQUESTS = 429
+    }
+}
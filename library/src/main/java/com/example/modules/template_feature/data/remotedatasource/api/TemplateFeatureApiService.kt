@@ -1,36 +1,95 @@
 package com.example.modules.template_feature.data.remotedatasource.api
 
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchRequestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchResponseDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureChangesDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureDigestsDto
+import com.example.modules.template_feature.data.dto.TemplateFeaturePageDto
 import com.example.modules.template_feature.data.dto.TemplateFeatureRequestDto
 import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import okhttp3.ResponseBody
+import retrofit2.Response
 import retrofit2.http.*
 
 interface TemplateFeatureApiService {
     
+    @RateLimited(EndpointClass.SYNC)
+    @Streaming
     @GET("template-features")
-    suspend fun getAllTemplateFeatures(): List<TemplateFeatureResponseDto>
+    suspend fun streamAllTemplateFeatures(
+        @Header(HttpHeaders.IF_NONE_MATCH) ifNoneMatch: String? = null,
+        @Header(HttpHeaders.IF_MODIFIED_SINCE) ifModifiedSince: String? = null,
+        @Query("active") active: Boolean? = null
+    ): Response<ResponseBody>
     
+    @RateLimited(EndpointClass.SYNC)
+    @GET("template-features/paged")
+    suspend fun getTemplateFeaturesPage(
+        @Query("cursor") cursor: String? = null,
+        @Query("limit") limit: Int = 500,
+        @Query("active") active: Boolean? = null,
+        @Header(HttpHeaders.IF_NONE_MATCH) ifNoneMatch: String? = null,
+        @Header(HttpHeaders.IF_MODIFIED_SINCE) ifModifiedSince: String? = null
+    ): Response<TemplateFeaturePageDto>
+    
+    @RateLimited(EndpointClass.SYNC)
+    @GET("template-features/changes")
+    suspend fun getTemplateFeatureChanges(
+        @Query("updatedSince") updatedSince: String,
+        // With active=true, rows that left the active set are reported as deleted
+        @Query("active") active: Boolean? = null
+    ): TemplateFeatureChangesDto
+    
+    @RateLimited(EndpointClass.SYNC)
+    @GET("template-features/digests")
+    suspend fun getTemplateFeatureDigests(
+        @Query("buckets") bucketCount: Int
+    ): TemplateFeatureDigestsDto
+    
+    @RateLimited(EndpointClass.SYNC)
+    @GET("template-features/buckets")
+    suspend fun getTemplateFeaturesInBuckets(
+        @Query("bucket") buckets: List<Int>
+    ): List<TemplateFeatureResponseDto>
+    
+    @RateLimited(EndpointClass.READ)
     @GET("template-features/{id}")
     suspend fun getTemplateFeatureById(@Path("id") id: String): TemplateFeatureResponseDto
     
-    @GET("template-features")
-    suspend fun getActiveTemplateFeatures(
-        @Query("active") isActive: Boolean = true
-    ): List<TemplateFeatureResponseDto>
+    @RateLimited(EndpointClass.READ)
+    @GET("template-features/{id}")
+    suspend fun getTemplateFeatureByIdIfChanged(
+        @Path("id") id: String,
+        @Header(HttpHeaders.IF_NONE_MATCH) ifNoneMatch: String? = null,
+        @Header(HttpHeaders.IF_MODIFIED_SINCE) ifModifiedSince: String? = null
+    ): Response<TemplateFeatureResponseDto>
     
+    @RateLimited(EndpointClass.WRITE)
     @POST("template-features")
     suspend fun createTemplateFeature(
-        @Body request: TemplateFeatureRequestDto
+        @Body request: TemplateFeatureRequestDto,
+        @Header(CallPolicyInterceptor.IDEMPOTENCY_KEY) idempotencyKey: String? = null
     ): TemplateFeatureResponseDto
     
+    @RateLimited(EndpointClass.WRITE)
     @PUT("template-features/{id}")
     suspend fun updateTemplateFeature(
         @Path("id") id: String,
         @Body request: TemplateFeatureRequestDto
     ): TemplateFeatureResponseDto
     
+    @RateLimited(EndpointClass.WRITE)
     @DELETE("template-features/{id}")
     suspend fun deleteTemplateFeature(@Path("id") id: String)
     
+    @RateLimited(EndpointClass.WRITE)
+    @POST("template-features/batch")
+    suspend fun batchTemplateFeatures(
+        @Body request: TemplateFeatureBatchRequestDto,
+        @Header(CallPolicyInterceptor.IDEMPOTENCY_KEY) idempotencyKey: String? = null
+    ): TemplateFeatureBatchResponseDto
+    
+    @RateLimited(EndpointClass.SEARCH)
     @GET("template-features/search")
     suspend fun searchTemplateFeatures(
         @Query("q") query: String,
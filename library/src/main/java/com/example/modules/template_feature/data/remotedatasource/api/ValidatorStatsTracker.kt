@@ -0,0 +1,29 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import com.example.modules.template_feature.domain.models.ValidatedEndpoint
+import com.example.modules.template_feature.domain.models.ValidatorStats
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+/**
+ * Counts how often conditional requests come back 304, per endpoint, for
+ * the lifetime of the process.
+ */
+class ValidatorStatsTracker {
+
+    private val _stats = MutableStateFlow<Map<ValidatedEndpoint, ValidatorStats>>(emptyMap())
+    val stats: StateFlow<Map<ValidatedEndpoint, ValidatorStats>> = _stats.asStateFlow()
+
+    fun record(endpoint: ValidatedEndpoint, sent: HttpValidators, notModified: Boolean) {
+        _stats.update { stats ->
+            val current = stats[endpoint] ?: ValidatorStats()
+            stats + (endpoint to current.copy(
+                conditionalRequests = current.conditionalRequests + 1,
+                notModified = current.notModified + if (notModified) 1 else 0,
+                bytesSaved = current.bytesSaved + if (notModified) sent.bodyBytes.coerceAtLeast(0) else 0
+            ))
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.modules.template_feature.data.remotedatasource.connectivity
+
+import kotlinx.coroutines.flow.StateFlow
+import java.io.IOException
+
+interface ConnectivityMonitor {
+    
+    /**
+     * Whether the device currently has a network that can reach the internet.
+     */
+    val isOnline: StateFlow<Boolean>
+}
+
+class NoConnectivityException : IOException("No network connection")
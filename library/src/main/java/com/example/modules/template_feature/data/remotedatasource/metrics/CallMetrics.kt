@@ -0,0 +1,20 @@
+package com.example.modules.template_feature.data.remotedatasource.metrics
+
+/**
+ * Timings of one finished call. Phases that did not happen, such as DNS and
+ * connect on a pooled connection, are null.
+ */
+data class CallMetrics(
+    // Retrofit method name, or "METHOD /path" for calls made outside Retrofit
+    val endpoint: String,
+    val dnsMs: Long?,
+    val connectMs: Long?,
+    val tlsMs: Long?,
+    // From the request being sent to the response headers arriving
+    val timeToFirstByteMs: Long?,
+    val bodyReadMs: Long?,
+    val totalMs: Long,
+    val bytesSent: Long,
+    val bytesReceived: Long,
+    val failed: Boolean
+)
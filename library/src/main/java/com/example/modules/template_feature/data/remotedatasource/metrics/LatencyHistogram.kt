@@ -0,0 +1,61 @@
+package com.example.modules.template_feature.data.remotedatasource.metrics
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
+import kotlin.math.ceil
+
+/**
+ * Fixed-bucket histogram, cheap enough to update on every call from any thread.
+ */
+class LatencyHistogram(
+    private val bucketBoundsMs: LongArray = DEFAULT_BUCKET_BOUNDS_MS
+) {
+    // The extra last bucket holds everything above the largest bound
+    private val counts = AtomicLongArray(bucketBoundsMs.size + 1)
+    private val sumMs = AtomicLong()
+
+    fun record(durationMs: Long) {
+        val index = bucketBoundsMs.indexOfFirst { durationMs <= it }.let { if (it < 0) bucketBoundsMs.size else it }
+        counts.incrementAndGet(index)
+        sumMs.addAndGet(durationMs)
+    }
+
+    fun snapshot(): HistogramSnapshot {
+        return HistogramSnapshot(
+            bucketBoundsMs = bucketBoundsMs.toList(),
+            counts = List(counts.length()) { counts.get(it) },
+            sumMs = sumMs.get()
+        )
+    }
+
+    companion object {
+        val DEFAULT_BUCKET_BOUNDS_MS = longArrayOf(5, 10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000)
+    }
+}
+
+data class HistogramSnapshot(
+    val bucketBoundsMs: List<Long>,
+    val counts: List<Long>,
+    val sumMs: Long
+) {
+    val count: Long
+        get() = counts.sum()
+
+    val meanMs: Double
+        get() = if (count == 0L) 0.0 else sumMs.toDouble() / count
+
+    /**
+     * Upper bound of the bucket holding the given percentile, or null when
+     * nothing was recorded or it falls above the largest bound.
+     */
+    fun percentileUpperBoundMs(percentile: Double): Long? {
+        if (count == 0L) return null
+        val target = ceil(count * percentile / 100).toLong().coerceAtLeast(1)
+        var seen = 0L
+        counts.forEachIndexed { index, bucketCount ->
+            seen += bucketCount
+            if (seen >= target) return bucketBoundsMs.getOrNull(index)
+        }
+        return null
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.modules.template_feature.data.remotedatasource.metrics
+
+import okhttp3.Call
+import okhttp3.EventListener
+import okhttp3.Handshake
+import okhttp3.Headers
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.Response
+import retrofit2.Invocation
+import java.io.IOException
+import java.net.InetAddress
+import java.net.InetSocketAddress
+import java.net.Proxy
+import java.util.concurrent.TimeUnit
+
+/**
+ * Times the phases of one call and hands the result to every sink when it
+ * ends. OkHttp creates one per call, so no state is shared between calls.
+ */
+class MetricsEventListener(
+    private val sinks: List<NetworkMetricsSink>
+) : EventListener() {
+
+    private var callStartNs = 0L
+    private var dnsStartNs = 0L
+    private var dnsMs: Long? = null
+    private var connectStartNs = 0L
+    private var connectMs: Long? = null
+    private var tlsStartNs = 0L
+    private var tlsMs: Long? = null
+    private var requestSentNs = 0L
+    private var timeToFirstByteMs: Long? = null
+    private var bodyStartNs = 0L
+    private var bodyReadMs: Long? = null
+    private var bytesSent = 0L
+    private var bytesReceived = 0L
+
+    override fun callStart(call: Call) {
+        callStartNs = System.nanoTime()
+    }
+
+    override fun dnsStart(call: Call, domainName: String) {
+        dnsStartNs = System.nanoTime()
+    }
+
+    override fun dnsEnd(call: Call, domainName: String, inetAddressList: List<InetAddress>) {
+        dnsMs = elapsedMs(dnsStartNs)
+    }
+
+    override fun connectStart(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy) {
+        connectStartNs = System.nanoTime()
+    }
+
+    override fun connectEnd(call: Call, inetSocketAddress: InetSocketAddress, proxy: Proxy, protocol: Protocol?) {
+        connectMs = elapsedMs(connectStartNs)
+    }
+
+    override fun secureConnectStart(call: Call) {
+        tlsStartNs = System.nanoTime()
+    }
+
+    override fun secureConnectEnd(call: Call, handshake: Handshake?) {
+        tlsMs = elapsedMs(tlsStartNs)
+    }
+
+    override fun requestHeadersEnd(call: Call, request: Request) {
+        requestSentNs = System.nanoTime()
+        bytesSent += request.headers.byteCount()
+    }
+
+    override fun requestBodyEnd(call: Call, byteCount: Long) {
+        requestSentNs = System.nanoTime()
+        bytesSent += byteCount
+    }
+
+    override fun responseHeadersStart(call: Call) {
+        if (requestSentNs != 0L) timeToFirstByteMs = elapsedMs(requestSentNs)
+    }
+
+    override fun responseHeadersEnd(call: Call, response: Response) {
+        bytesReceived += response.headers.byteCount()
+    }
+
+    override fun responseBodyStart(call: Call) {
+        bodyStartNs = System.nanoTime()
+    }
+
+    override fun responseBodyEnd(call: Call, byteCount: Long) {
+        bodyReadMs = elapsedMs(bodyStartNs)
+        bytesReceived += byteCount
+    }
+
+    override fun callEnd(call: Call) {
+        publish(call, failed = false)
+    }
+
+    override fun callFailed(call: Call, ioe: IOException) {
+        publish(call, failed = true)
+    }
+
+    private fun publish(call: Call, failed: Boolean) {
+        val metrics = CallMetrics(
+            endpoint = endpointOf(call),
+            dnsMs = dnsMs,
+            connectMs = connectMs,
+            tlsMs = tlsMs,
+            timeToFirstByteMs = timeToFirstByteMs,
+            bodyReadMs = bodyReadMs,
+            totalMs = elapsedMs(callStartNs),
+            bytesSent = bytesSent,
+            bytesReceived = bytesReceived,
+            failed = failed
+        )
+        sinks.forEach { sink ->
+            // A misbehaving host sink must not break the call
+            try {
+                sink.record(metrics)
+            } catch (e: Exception) {
+                // Ignored
+            }
+        }
+    }
+
+    private fun elapsedMs(startNs: Long): Long = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs)
+
+    // Approximates the wire size as "name: value\r\n"
+    private fun Headers.byteCount(): Long = sumOf { (name, value) -> name.length + value.length + 4L }
+
+    class Factory(
+        private val sinks: List<NetworkMetricsSink>
+    ) : EventListener.Factory {
+        override fun create(call: Call): EventListener = MetricsEventListener(sinks)
+    }
+
+    companion object {
+        /**
+         * Groups calls by Retrofit method so ids in the path do not split an
+         * endpoint into one entry per row.
+         */
+        fun endpointOf(call: Call): String {
+            val request = call.request()
+            return request.tag(Invocation::class.java)?.method()?.name
+                ?: "${request.method} ${request.url.encodedPath}"
+        }
+    }
+}
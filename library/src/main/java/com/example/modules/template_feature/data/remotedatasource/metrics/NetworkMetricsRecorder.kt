@@ -0,0 +1,66 @@
+package com.example.modules.template_feature.data.remotedatasource.metrics
+
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Built-in sink that aggregates calls into per-endpoint latency histograms
+ * for the lifetime of the process.
+ */
+class NetworkMetricsRecorder : NetworkMetricsSink {
+
+    private val endpoints = ConcurrentHashMap<String, EndpointHistograms>()
+
+    override fun record(metrics: CallMetrics) {
+        val histograms = endpoints.getOrPut(metrics.endpoint) { EndpointHistograms() }
+        metrics.dnsMs?.let(histograms.dns::record)
+        metrics.connectMs?.let(histograms.connect::record)
+        metrics.tlsMs?.let(histograms.tls::record)
+        metrics.timeToFirstByteMs?.let(histograms.timeToFirstByte::record)
+        metrics.bodyReadMs?.let(histograms.bodyRead::record)
+        histograms.total.record(metrics.totalMs)
+        histograms.bytesSent.addAndGet(metrics.bytesSent)
+        histograms.bytesReceived.addAndGet(metrics.bytesReceived)
+        if (metrics.failed) histograms.failures.incrementAndGet()
+    }
+
+    fun snapshot(): Map<String, EndpointMetrics> {
+        return endpoints.mapValues { (_, histograms) -> histograms.snapshot() }
+    }
+
+    private class EndpointHistograms {
+        val dns = LatencyHistogram()
+        val connect = LatencyHistogram()
+        val tls = LatencyHistogram()
+        val timeToFirstByte = LatencyHistogram()
+        val bodyRead = LatencyHistogram()
+        val total = LatencyHistogram()
+        val bytesSent = AtomicLong()
+        val bytesReceived = AtomicLong()
+        val failures = AtomicLong()
+
+        fun snapshot() = EndpointMetrics(
+            dns = dns.snapshot(),
+            connect = connect.snapshot(),
+            tls = tls.snapshot(),
+            timeToFirstByte = timeToFirstByte.snapshot(),
+            bodyRead = bodyRead.snapshot(),
+            total = total.snapshot(),
+            bytesSent = bytesSent.get(),
+            bytesReceived = bytesReceived.get(),
+            failures = failures.get()
+        )
+    }
+}
+
+data class EndpointMetrics(
+    val dns: HistogramSnapshot,
+    val connect: HistogramSnapshot,
+    val tls: HistogramSnapshot,
+    val timeToFirstByte: HistogramSnapshot,
+    val bodyRead: HistogramSnapshot,
+    val total: HistogramSnapshot,
+    val bytesSent: Long,
+    val bytesReceived: Long,
+    val failures: Long
+)
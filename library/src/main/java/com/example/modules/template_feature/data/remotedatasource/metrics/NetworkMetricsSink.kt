@@ -0,0 +1,16 @@
+package com.example.modules.template_feature.data.remotedatasource.metrics
+
+/**
+ * Receives the metrics of every finished call. Called on OkHttp's threads,
+ * so implementations must be thread safe and should not block.
+ *
+ * Host apps forward metrics by contributing a sink to the set:
+ *
+ * ```
+ * @Binds @IntoSet
+ * abstract fun bindSink(sink: MyAnalyticsSink): NetworkMetricsSink
+ * ```
+ */
+fun interface NetworkMetricsSink {
+    fun record(metrics: CallMetrics)
+}
@@ -0,0 +1,42 @@
+package com.example.modules.template_feature.data.remotedatasource.scheduling
+
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.ReentrantLock
+import kotlin.concurrent.withLock
+
+/**
+ * Counts interactive calls in flight so background work can step aside
+ * while there are any.
+ */
+class InteractiveTrafficGate {
+
+    private val lock = ReentrantLock()
+    private val idle = lock.newCondition()
+    private var inFlight = 0
+
+    fun enter() {
+        lock.withLock { inFlight++ }
+    }
+
+    fun exit() {
+        lock.withLock {
+            inFlight--
+            if (inFlight == 0) idle.signalAll()
+        }
+    }
+
+    /**
+     * Blocks until no interactive call is in flight or [maxWaitMs] passes.
+     * Returns how long it waited.
+     */
+    fun awaitIdle(maxWaitMs: Long): Long {
+        val startNs = System.nanoTime()
+        lock.withLock {
+            var remainingNs = TimeUnit.MILLISECONDS.toNanos(maxWaitMs)
+            while (inFlight > 0 && remainingNs > 0) {
+                remainingNs = idle.awaitNanos(remainingNs)
+            }
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNs)
+    }
+}
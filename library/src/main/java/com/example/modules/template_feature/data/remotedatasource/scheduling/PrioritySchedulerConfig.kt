@@ -0,0 +1,13 @@
+package com.example.modules.template_feature.data.remotedatasource.scheduling
+
+data class PrioritySchedulerConfig(
+    // The background lane gets its own dispatcher limits; interactive calls keep the client's
+    val backgroundMaxRequests: Int = 2,
+    val backgroundMaxRequestsPerHost: Int = 2,
+    // Longest a background call or body read waits for interactive traffic to drain before going ahead anyway
+    val maxYieldMs: Long = 2_000,
+    // A background body steps aside at most once per this many bytes read, and for no more than
+    // maxYieldPerResponseMs in total, so a large download is paced rather than stalled
+    val bodyYieldIntervalBytes: Long = 256L * 1024,
+    val maxYieldPerResponseMs: Long = 10_000
+)
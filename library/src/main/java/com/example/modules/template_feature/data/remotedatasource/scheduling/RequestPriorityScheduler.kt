@@ -0,0 +1,171 @@
+package com.example.modules.template_feature.data.remotedatasource.scheduling
+
+import com.example.modules.template_feature.data.remotedatasource.api.EndpointClass
+import com.example.modules.template_feature.data.remotedatasource.metrics.HistogramSnapshot
+import com.example.modules.template_feature.data.remotedatasource.metrics.LatencyHistogram
+import com.example.modules.template_feature.domain.models.RequestPriority
+import okhttp3.Call
+import okhttp3.Dispatcher
+import okhttp3.Interceptor
+import okhttp3.MediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.ResponseBody
+import okio.Buffer
+import okio.BufferedSource
+import okio.ForwardingSource
+import okio.buffer
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Splits traffic into an interactive and a background lane. Both lanes share
+ * the base client's connection pool and threads, but background calls go
+ * through their own, narrower dispatcher so a sync can never take every
+ * slot. While an interactive call is in flight, background calls hold off
+ * before starting, each time for at most [PrioritySchedulerConfig.maxYieldMs],
+ * and pause again at most once per
+ * [PrioritySchedulerConfig.bodyYieldIntervalBytes] of their body, up to
+ * [PrioritySchedulerConfig.maxYieldPerResponseMs] per response.
+ */
+class RequestPriorityScheduler(
+    private val config: PrioritySchedulerConfig
+) {
+
+    private val gate = InteractiveTrafficGate()
+    private val queueWaits = RequestPriority.values().associateWith { LatencyHistogram() }
+    private val yieldedMs = AtomicLong()
+
+    fun callFactory(base: OkHttpClient): Call.Factory {
+        val interactive = base.newBuilder()
+            .apply { interceptors().add(0, LaneInterceptor(RequestPriority.INTERACTIVE)) }
+            .build()
+        val backgroundDispatcher = Dispatcher(base.dispatcher.executorService).apply {
+            maxRequests = config.backgroundMaxRequests
+            maxRequestsPerHost = config.backgroundMaxRequestsPerHost
+        }
+        val background = base.newBuilder()
+            .dispatcher(backgroundDispatcher)
+            .apply { interceptors().add(0, LaneInterceptor(RequestPriority.BACKGROUND)) }
+            .build()
+
+        return Call.Factory { request ->
+            val queued = request.newBuilder().tag(QueuedAt::class.java, QueuedAt(System.nanoTime())).build()
+            when (priorityOf(request)) {
+                RequestPriority.INTERACTIVE -> interactive.newCall(queued)
+                RequestPriority.BACKGROUND -> background.newCall(queued)
+            }
+        }
+    }
+
+    /**
+     * Time from call creation until a lane started executing it, per priority.
+     */
+    fun queueWaits(): Map<RequestPriority, HistogramSnapshot> {
+        return queueWaits.mapValues { (_, histogram) -> histogram.snapshot() }
+    }
+
+    /**
+     * Total time background calls spent stepped aside for interactive ones.
+     */
+    fun backgroundYieldedMs(): Long = yieldedMs.get()
+
+    private fun priorityOf(request: Request): RequestPriority {
+        return if (EndpointClass.of(request).isBackground) RequestPriority.BACKGROUND else RequestPriority.INTERACTIVE
+    }
+
+    private fun yieldToInteractive(maxWaitMs: Long = config.maxYieldMs): Long {
+        val waitedMs = gate.awaitIdle(maxWaitMs)
+        if (waitedMs > 0) yieldedMs.addAndGet(waitedMs)
+        return waitedMs
+    }
+
+    private inner class LaneInterceptor(
+        private val priority: RequestPriority
+    ) : Interceptor {
+
+        override fun intercept(chain: Interceptor.Chain): Response {
+            val request = chain.request()
+            request.tag(QueuedAt::class.java)?.let { queuedAt ->
+                queueWaits.getValue(priority).record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queuedAt.nanoTime))
+            }
+            return when (priority) {
+                RequestPriority.INTERACTIVE -> proceedInteractive(chain)
+                RequestPriority.BACKGROUND -> proceedBackground(chain)
+            }
+        }
+
+        private fun proceedInteractive(chain: Interceptor.Chain): Response {
+            gate.enter()
+            val response = try {
+                chain.proceed(chain.request())
+            } catch (e: Exception) {
+                gate.exit()
+                throw e
+            }
+            val body = response.body ?: return response.also { gate.exit() }
+            // The call counts as in flight until its body has been read and closed
+            return response.newBuilder()
+                .body(LaneResponseBody(body, onRead = {}, onClose = gate::exit))
+                .build()
+        }
+
+        private fun proceedBackground(chain: Interceptor.Chain): Response {
+            yieldToInteractive()
+            val response = chain.proceed(chain.request())
+            val body = response.body ?: return response
+            return response.newBuilder()
+                .body(LaneResponseBody(body, onRead = BodyPacer()::onRead, onClose = {}))
+                .build()
+        }
+    }
+
+    // A body is read by one thread at a time, so the counters need no locking
+    private inner class BodyPacer {
+
+        private var bytesSinceYield = 0L
+        private var remainingMs = config.maxYieldPerResponseMs
+
+        fun onRead(byteCount: Long) {
+            bytesSinceYield += byteCount
+            if (bytesSinceYield < config.bodyYieldIntervalBytes || remainingMs <= 0) return
+            bytesSinceYield = 0
+            remainingMs -= yieldToInteractive(minOf(config.maxYieldMs, remainingMs))
+        }
+    }
+
+    private class LaneResponseBody(
+        private val delegate: ResponseBody,
+        private val onRead: (byteCount: Long) -> Unit,
+        private val onClose: () -> Unit
+    ) : ResponseBody() {
+
+        private val closed = AtomicBoolean()
+
+        private val source: BufferedSource = object : ForwardingSource(delegate.source()) {
+            override fun read(sink: Buffer, byteCount: Long): Long {
+                val read = super.read(sink, byteCount)
+                if (read > 0) onRead(read)
+                return read
+            }
+
+            override fun close() {
+                try {
+                    super.close()
+                } finally {
+                    if (closed.compareAndSet(false, true)) onClose()
+                }
+            }
+        }.buffer()
+
+        override fun contentType(): MediaType? = delegate.contentType()
+
+        override fun contentLength(): Long = delegate.contentLength()
+
+        override fun source(): BufferedSource = source
+    }
+
+    private class QueuedAt(val nanoTime: Long)
+}
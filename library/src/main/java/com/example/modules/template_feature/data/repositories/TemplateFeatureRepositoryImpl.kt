@@ -1,128 +1,734 @@
 package com.example.modules.template_feature.data.repositories
 
+import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureBuckets
 import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDatabase
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureEntity
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureFtsQuery
 import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeaturePreferences
+import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeatureValidatorStore
+import com.example.modules.template_feature.data.mappers.contentHash
 import com.example.modules.template_feature.data.mappers.toDomainModel
 import com.example.modules.template_feature.data.mappers.toDomainModelListFromEntity
 import com.example.modules.template_feature.data.mappers.toDomainModelListFromDto
 import com.example.modules.template_feature.data.mappers.toEntity
 import com.example.modules.template_feature.data.mappers.toEntityListFromDto
+import com.example.modules.template_feature.data.mappers.toHttpValidators
 import com.example.modules.template_feature.data.mappers.toRequestDto
+import com.example.modules.template_feature.data.mappers.toStagingEntityListFromDto
+import com.example.modules.template_feature.data.remotedatasource.api.HttpCachePolicyInterceptor
+import com.example.modules.template_feature.data.remotedatasource.api.HttpValidators
 import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.data.remotedatasource.api.ValidatorStatsTracker
+import com.example.modules.template_feature.data.remotedatasource.api.isNotModified
+import com.example.modules.template_feature.data.remotedatasource.api.validators
+import com.example.modules.template_feature.data.remotedatasource.connectivity.ConnectivityMonitor
+import com.example.modules.template_feature.data.remotedatasource.connectivity.NoConnectivityException
+import com.example.modules.template_feature.data.sync.FullSyncStrategy
+import com.example.modules.template_feature.data.sync.TemplateFeatureOutbox
+import com.example.modules.template_feature.data.sync.TemplateFeatureStreamIngestor
+import com.example.modules.template_feature.data.sync.TemplateFeatureSyncConfig
+import com.example.modules.template_feature.data.sync.TemplateFeatureSyncCoordinator
+import com.example.modules.template_feature.data.sync.TemplateFeatureSyncProgressTracker
+import com.example.modules.template_feature.domain.models.CacheFreshness
+import com.example.modules.template_feature.domain.models.SearchMode
+import com.example.modules.template_feature.domain.models.SyncPhase
+import com.example.modules.template_feature.domain.models.SyncProgress
+import com.example.modules.template_feature.domain.models.SyncScope
+import com.example.modules.template_feature.domain.models.SyncState
+import com.example.modules.template_feature.domain.models.SyncStatus
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
+import com.example.modules.template_feature.domain.models.ValidatedEndpoint
+import com.example.modules.template_feature.domain.models.ValidatorStats
 import com.example.modules.template_feature.domain.repositories.TemplateFeatureRepository
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.dropWhile
+import kotlinx.coroutines.flow.filterNotNull
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onStart
+import kotlinx.coroutines.launch
+import retrofit2.HttpException
 
 class TemplateFeatureRepositoryImpl(
     private val apiService: TemplateFeatureApiService,
     private val dao: TemplateFeatureDao,
-    private val preferences: TemplateFeaturePreferences
+    private val preferences: TemplateFeaturePreferences,
+    private val validatorStore: TemplateFeatureValidatorStore,
+    private val streamIngestor: TemplateFeatureStreamIngestor,
+    private val outbox: TemplateFeatureOutbox,
+    private val writeCoalescer: TemplateFeatureWriteCoalescer,
+    private val connectivityMonitor: ConnectivityMonitor,
+    private val scope: CoroutineScope,
+    private val syncConfig: TemplateFeatureSyncConfig = TemplateFeatureSyncConfig()
 ) : TemplateFeatureRepository {
 
+    private val syncCoordinator = TemplateFeatureSyncCoordinator { performSync() }
+    private val progressTracker = TemplateFeatureSyncProgressTracker()
+    private val validatorStats = ValidatorStatsTracker()
+
     override suspend fun getAllTemplateFeatures(): Flow<List<TemplateFeatureModel>> {
         return dao.getAllTemplateFeatures().map { entities ->
             entities.toDomainModelListFromEntity()
+        }.onStart {
+            if (!requestInactiveRows()) revalidateIfStale()
         }
     }
 
     override suspend fun getTemplateFeatureById(id: String): TemplateFeatureModel? {
-        return dao.getTemplateFeatureById(id)?.toDomainModel()
+        val cached = dao.getTemplateFeatureById(id)
+        if (!shouldRevalidate(id, cached)) return cached?.toDomainModel()
+        
+        if (cached != null) {
+            // A stale row is still shown straight away; the next read gets whatever the server sends back
+            scope.launch {
+                try {
+                    revalidateTemplateFeature(id, cached)
+                } catch (e: CancellationException) {
+                    throw e
+                } catch (e: Exception) {
+                    // The cached row is still the best answer we have
+                }
+            }
+            return cached.toDomainModel()
+        }
+        
+        return try {
+            revalidateTemplateFeature(id, cached = null)?.toDomainModel()
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            null
+        }
+    }
+
+    private suspend fun shouldRevalidate(id: String, cached: TemplateFeatureEntity?): Boolean {
+        if (!isOnline() || id.startsWith(TemplateFeatureOutbox.LOCAL_ID_PREFIX)) return false
+        // Rows with queued offline writes keep their local state until the outbox drains
+        if (outbox.hasPendingOperations(id)) return false
+        return cached == null || isStale(preferences.getLastSyncTime())
+    }
+
+    private suspend fun revalidateTemplateFeature(id: String, cached: TemplateFeatureEntity?): TemplateFeatureEntity? {
+        // Without a stored row there is nothing for a 304 to point back to
+        val validators = cached?.let { dao.getValidators(id)?.toHttpValidators() }
+        val response = apiService.getTemplateFeatureByIdIfChanged(
+            id = id,
+            ifNoneMatch = validators?.etag,
+            ifModifiedSince = validators?.lastModified
+        )
+        validators?.let { validatorStats.record(ValidatedEndpoint.DETAIL, it, response.isNotModified) }
+        if (response.isNotModified) return cached
+        
+        val entity = response.body()?.toEntity() ?: throw HttpException(response)
+        // A local write made while the request was in flight wins; the outbox will send it
+        if (entity.contentHash != cached?.contentHash && !dao.insertServerTemplateFeature(entity)) {
+            return dao.getTemplateFeatureById(id)
+        }
+        storeDetailValidators(id, response.validators(response.raw().body?.contentLength() ?: -1))
+        return entity
     }
 
     override suspend fun getActiveTemplateFeatures(): Flow<List<TemplateFeatureModel>> {
         return dao.getActiveTemplateFeatures().map { entities ->
             entities.toDomainModelListFromEntity()
-        }
+        }.onStart { revalidateIfStale() }
     }
 
     override suspend fun createTemplateFeature(templateFeature: TemplateFeatureModel): Result<TemplateFeatureModel> {
+        if (syncConfig.optimisticWrites) {
+            return createLocally(templateFeature)
+        }
+        
+        // No point waiting out the connect timeout when there is no network
+        if (!isOnline()) {
+            return createLocally(templateFeature)
+        }
+        
+        // One key for the request and, if it fails, for the queued create that replays it
+        val idempotencyKey = TemplateFeatureOutbox.newIdempotencyKey()
         return try {
-            val requestDto = templateFeature.toRequestDto()
-            val responseDto = apiService.createTemplateFeature(requestDto)
+            // A delete later in the same coalescing window cancels the create, so there is nothing to store
+            val responseDto = writeCoalescer.create(templateFeature, idempotencyKey)
+                ?: return Result.success(templateFeature)
             val domainModel = responseDto.toDomainModel()
             
             // Save to local database
             dao.insertTemplateFeature(responseDto.toEntity())
             
             Result.success(domainModel)
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
-            // If remote fails, try to save locally with generated ID
-            try {
-                val localEntity = templateFeature.copy(
-                    id = if (templateFeature.id.isEmpty()) generateLocalId() else templateFeature.id
-                ).toEntity()
-                dao.insertTemplateFeature(localEntity)
-                Result.success(localEntity.toDomainModel())
-            } catch (localException: Exception) {
-                Result.failure(localException)
-            }
+            // If remote fails, save locally with generated ID and queue the create for replay
+            createLocally(templateFeature, idempotencyKey)
         }
     }
 
     override suspend fun updateTemplateFeature(templateFeature: TemplateFeatureModel): Result<TemplateFeatureModel> {
+        if (syncConfig.optimisticWrites) {
+            return updateLocally(templateFeature)
+        }
+        
+        // Earlier offline writes for this feature have to reach the server first
+        if (!isOnline() || outbox.hasPendingOperations(templateFeature.id)) {
+            return updateLocally(templateFeature)
+        }
+        
+        val idempotencyKey = TemplateFeatureOutbox.newIdempotencyKey()
         return try {
             val requestDto = templateFeature.toRequestDto()
-            val responseDto = apiService.updateTemplateFeature(templateFeature.id, requestDto)
+            // A delete later in the same coalescing window supersedes the update, and removes the row itself
+            val responseDto = writeCoalescer.update(templateFeature.id, requestDto, idempotencyKey)
+                ?: return Result.success(templateFeature)
             val domainModel = responseDto.toDomainModel()
             
             // Update local database
             dao.updateTemplateFeature(responseDto.toEntity())
             
             Result.success(domainModel)
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
-            // If remote fails, try to update locally
-            try {
-                dao.updateTemplateFeature(templateFeature.toEntity())
-                Result.success(templateFeature)
-            } catch (localException: Exception) {
-                Result.failure(localException)
-            }
+            // If remote fails, update locally and queue the update for replay
+            updateLocally(templateFeature, idempotencyKey)
         }
     }
 
     override suspend fun deleteTemplateFeature(id: String): Result<Unit> {
+        if (syncConfig.optimisticWrites) {
+            return deleteLocally(id)
+        }
+        
+        if (!isOnline() || outbox.hasPendingOperations(id)) {
+            return deleteLocally(id)
+        }
+        
+        val idempotencyKey = TemplateFeatureOutbox.newIdempotencyKey()
         return try {
-            apiService.deleteTemplateFeature(id)
+            writeCoalescer.delete(id, idempotencyKey)
             dao.deleteTemplateFeatureById(id)
             Result.success(Unit)
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
-            // If remote fails, try to delete locally
-            try {
-                dao.deleteTemplateFeatureById(id)
-                Result.success(Unit)
-            } catch (localException: Exception) {
-                Result.failure(localException)
-            }
+            // If remote fails, delete locally and queue the delete for replay
+            deleteLocally(id, idempotencyKey)
+        }
+    }
+
+    // Every queued write asks for a replay; the outbox skips it while offline and replays on reconnect
+    private suspend fun createLocally(
+        templateFeature: TemplateFeatureModel,
+        idempotencyKey: String = TemplateFeatureOutbox.newIdempotencyKey()
+    ): Result<TemplateFeatureModel> {
+        return try {
+            val localEntity = templateFeature.copy(
+                id = if (templateFeature.id.isEmpty()) generateLocalId() else templateFeature.id
+            ).toEntity()
+            outbox.recordCreate(localEntity, idempotencyKey)
+            outbox.requestReplay()
+            Result.success(localEntity.toDomainModel().copy(syncStatus = SyncStatus.PENDING))
+        } catch (e: CancellationException) {
+            throw e
+        } catch (localException: Exception) {
+            Result.failure(localException)
+        }
+    }
+
+    private suspend fun updateLocally(
+        templateFeature: TemplateFeatureModel,
+        idempotencyKey: String = TemplateFeatureOutbox.newIdempotencyKey()
+    ): Result<TemplateFeatureModel> {
+        return try {
+            outbox.recordUpdate(templateFeature.toEntity(), idempotencyKey)
+            outbox.requestReplay()
+            Result.success(templateFeature.copy(syncStatus = SyncStatus.PENDING))
+        } catch (e: CancellationException) {
+            throw e
+        } catch (localException: Exception) {
+            Result.failure(localException)
         }
     }
 
-    override suspend fun syncWithRemote(): Result<Unit> {
+    private suspend fun deleteLocally(
+        id: String,
+        idempotencyKey: String = TemplateFeatureOutbox.newIdempotencyKey()
+    ): Result<Unit> {
         return try {
-            val remoteFeatures = apiService.getAllTemplateFeatures()
-            val entities = remoteFeatures.toEntityListFromDto()
+            outbox.recordDelete(id, idempotencyKey)
+            outbox.requestReplay()
+            Result.success(Unit)
+        } catch (e: CancellationException) {
+            throw e
+        } catch (localException: Exception) {
+            Result.failure(localException)
+        }
+    }
+
+    override suspend fun syncWithRemote(): Result<Int> {
+        if (!isOnline()) {
+            return Result.failure(NoConnectivityException())
+        }
+        
+        return syncCoordinator.requestSync()
+    }
+
+    override fun observeSyncState(): StateFlow<SyncState> = syncCoordinator.state
+
+    override fun syncWithProgress(): Flow<SyncProgress> = channelFlow {
+        val previous = progressTracker.progress.value
+        val progressJob = launch {
+            // Skip whatever the last finished sync left behind
+            progressTracker.progress
+                .filterNotNull()
+                .dropWhile { it.isFinished }
+                .collect { send(it) }
+        }
+        val result = syncWithRemote()
+        progressJob.cancel()
+        
+        // The collector may have missed the last update, so always finish on the final state
+        val final = progressTracker.progress.value
+        if (final != null && final !== previous && final.isFinished) {
+            send(final)
+        } else {
+            // Failed before a sync even started, e.g. while offline
+            send(
+                SyncProgress(
+                    phase = if (result.isSuccess) SyncPhase.COMPLETED else SyncPhase.FAILED,
+                    error = result.exceptionOrNull()
+                )
+            )
+        }
+    }.distinctUntilChanged()
+
+    override fun observeSyncProgress(): Flow<SyncProgress> = progressTracker.progress.filterNotNull()
+
+    override fun observeValidatorStats(): StateFlow<Map<ValidatedEndpoint, ValidatorStats>> = validatorStats.stats
+
+    override fun observeCacheFreshness(): Flow<CacheFreshness> {
+        // Every finished sync bumps completedSyncs, so the last sync time is re-read even if the busy state was missed
+        return syncCoordinator.state.map { syncState ->
+            val lastSyncTime = preferences.getLastSyncTime()
+            CacheFreshness(
+                lastSyncTime = lastSyncTime.takeIf { it > 0 },
+                isStale = isStale(lastSyncTime),
+                isRefreshing = syncState.isSyncing
+            )
+        }
+    }
+
+    /**
+     * Widens the sync scope to inactive rows the first time they are viewed.
+     * Returns true if that started a sync.
+     */
+    private fun requestInactiveRows(): Boolean {
+        preferences.setInactiveViewedAt(System.currentTimeMillis())
+        if (preferences.getMaterializedScope() == SyncScope.ALL) return false
+        
+        if (preferences.getSyncScope() != SyncScope.ALL) {
+            preferences.setSyncScope(SyncScope.ALL)
+            // The cursor only covers active rows, so the next sync has to start over
+            preferences.clearSyncCursor()
+        }
+        if (!isOnline()) return false
+        scope.launch { syncWithRemote() }
+        return true
+    }
+
+    /**
+     * Narrows back to active rows once inactive ones have gone unviewed for
+     * [TemplateFeatureSyncConfig.inactiveScopeRetentionMs].
+     */
+    private fun currentSyncScope(): SyncScope {
+        val syncScope = preferences.getSyncScope()
+        val inactiveIdle = System.currentTimeMillis() - preferences.getInactiveViewedAt() > syncConfig.inactiveScopeRetentionMs
+        if (syncScope == SyncScope.ALL && inactiveIdle) {
+            preferences.setSyncScope(SyncScope.ACTIVE)
+            preferences.clearSyncCursor()
+            return SyncScope.ACTIVE
+        }
+        return syncScope
+    }
+
+    private fun revalidateIfStale() {
+        // Cached rows are emitted either way; within the TTL the network is not touched at all
+        if (!isStale(preferences.getLastSyncTime()) || !isOnline() || syncCoordinator.state.value.isSyncing) return
+        scope.launch { syncWithRemote() }
+    }
+
+    private fun isStale(lastSyncTime: Long): Boolean {
+        return System.currentTimeMillis() - lastSyncTime > syncConfig.cacheTtlMs
+    }
+
+    /**
+     * Returns how many local rows the sync changed.
+     */
+    private suspend fun performSync(): Result<Int> {
+        progressTracker.start()
+        return try {
+            // Push queued offline writes first so the server state we pull already includes them
+            outbox.replay()
             
-            // Clear and insert all remote data
-            dao.deleteAllTemplateFeatures()
-            dao.insertTemplateFeatures(entities)
+            val syncScope = currentSyncScope()
+            val cursor = preferences.getSyncCursor()
+            val changedRows = if (cursor == null || dao.getTemplateFeatureCount() == 0) {
+                resync(syncScope)
+            } else {
+                try {
+                    deltaSync(cursor, syncScope)
+                } catch (e: HttpException) {
+                    if (e.code() !in REJECTED_CURSOR_CODES) throw e
+                    // Server no longer accepts the cursor, start over without one
+                    preferences.clearSyncCursor()
+                    resync(syncScope)
+                }
+            }
+            preferences.setMaterializedScope(syncScope)
             
             preferences.setLastSyncTime(System.currentTimeMillis())
-            Result.success(Unit)
+            progressTracker.finish(error = null)
+            Result.success(changedRows)
+        } catch (e: CancellationException) {
+            progressTracker.finish(error = e)
+            throw e
+        } catch (e: Exception) {
+            progressTracker.finish(error = e)
+            Result.failure(e)
+        }
+    }
+
+    private suspend fun resync(syncScope: SyncScope): Int {
+        // Reconciling only pays off against rows we already have, and bucket digests cover every row
+        if (syncScope == SyncScope.ALL && syncConfig.digestReconciliation && dao.getTemplateFeatureCount() > 0) {
+            reconcileBuckets()?.let { return it }
+        }
+        return fullSync(syncScope)
+    }
+
+    /**
+     * Compares per-bucket digests with the server and re-fetches only the
+     * buckets that differ. Returns null if the server cannot serve digests
+     * for our bucket layout.
+     */
+    private suspend fun reconcileBuckets(): Int? {
+        progressTracker.enterPhase(SyncPhase.FETCH)
+        val remote = try {
+            apiService.getTemplateFeatureDigests(TemplateFeatureBuckets.BUCKET_COUNT)
+        } catch (e: HttpException) {
+            if (e.code() !in UNSUPPORTED_CODES) throw e
+            return null
+        }
+        if (remote.bucketCount != TemplateFeatureBuckets.BUCKET_COUNT) return null
+        
+        val remoteBuckets = remote.buckets.associateBy { it.bucket }
+        val localBuckets = dao.getBucketDigests().associateBy { it.bucket }
+        val mismatched = (remoteBuckets.keys + localBuckets.keys).filter { bucket ->
+            // A bucket missing on either side is an empty one
+            val remoteBucket = remoteBuckets[bucket]
+            val localBucket = localBuckets[bucket]
+            (remoteBucket?.digest ?: 0L) != (localBucket?.digest ?: 0L) ||
+                (remoteBucket?.rowCount ?: 0) != (localBucket?.rowCount ?: 0)
+        }.sorted()
+        
+        var changedRows = 0
+        mismatched.chunked(syncConfig.reconcileBucketsPerRequest).forEach { buckets ->
+            progressTracker.enterPhase(SyncPhase.FETCH)
+            val features = apiService.getTemplateFeaturesInBuckets(buckets)
+            progressTracker.enterPhase(SyncPhase.WRITE)
+            
+            val remoteIds = features.mapTo(HashSet()) { it.id }
+            val deletedIds = dao.getSyncedIdsInBuckets(buckets).filter { it !in remoteIds }
+            changedRows += applyRemoteChanges(features, deletedIds)
+            progressTracker.onRowsApplied(changedRows)
+        }
+        
+        storeSyncCursor(remote.cursor)
+        return changedRows
+    }
+
+    private suspend fun fullSync(syncScope: SyncScope): Int {
+        // An empty table has nothing to reconcile against, so batches are shown as soon as they land
+        val initialLoad = dao.getTemplateFeatureCount() == 0
+        
+        dao.clearStagedTemplateFeatures()
+        // Promoting an active-only snapshot also drops inactive rows nobody views anymore
+        val staged = when (syncConfig.fullSyncStrategy) {
+            FullSyncStrategy.PAGED -> stagePages(syncScope, initialLoad)
+            FullSyncStrategy.STREAMING -> stageStream(syncScope, initialLoad)
+        }
+        
+        progressTracker.enterPhase(SyncPhase.WRITE)
+        val changedRows = if (staged.notModified) {
+            // The list is unchanged since it was last downloaded, so nothing was staged
+            0
+        } else if (initialLoad) {
+            staged.rows
+        } else {
+            // Reconcile against the stored rows, skipping the write entirely when nothing changed
+            val changed = dao.countChangedStagedTemplateFeatures() + dao.countRemovedStagedTemplateFeatures()
+            if (changed > 0) {
+                dao.promoteStagedTemplateFeatures()
+            } else {
+                dao.clearStagedTemplateFeatures()
+            }
+            changed
+        }
+        // Only kept once the rows they describe are stored
+        if (!staged.notModified) {
+            storeValidators(TemplateFeatureValidatorStore.listKey(syncScope), staged.validators)
+        }
+        
+        storeSyncCursor(staged.cursor)
+        return changedRows
+    }
+
+    /**
+     * Stages nothing when the server answered 304 to the first page, whose
+     * validators stand for the whole listing.
+     */
+    private suspend fun stagePages(syncScope: SyncScope, initialLoad: Boolean): StagedList {
+        // An empty table cannot be revalidated, it needs every page
+        val validators = if (initialLoad) null else validatorStore.getValidators(TemplateFeatureValidatorStore.listKey(syncScope))
+        var listValidators: HttpValidators? = null
+        var bodyBytes = 0L
+        
+        // Stage page by page so only one page is held in memory at a time
+        var pageCursor: String? = null
+        var syncCursor: String? = null
+        var stagedRows = 0
+        do {
+            progressTracker.enterPhase(SyncPhase.FETCH)
+            val firstPage = pageCursor == null
+            val pageValidators = validators.takeIf { firstPage }
+            val response = apiService.getTemplateFeaturesPage(
+                cursor = pageCursor,
+                limit = syncConfig.pageSize,
+                active = syncScope.activeFilter,
+                ifNoneMatch = pageValidators?.etag,
+                ifModifiedSince = pageValidators?.lastModified
+            )
+            pageValidators?.let { validatorStats.record(ValidatedEndpoint.LIST, it, response.isNotModified) }
+            if (response.isNotModified) {
+                response.errorBody()?.close()
+                return StagedList(rows = 0, cursor = response.headers()[HttpHeaders.SYNC_CURSOR], notModified = true)
+            }
+            
+            val page = response.body() ?: throw HttpException(response)
+            val pageBytes = response.raw().body?.contentLength() ?: -1
+            bodyBytes = if (bodyBytes < 0 || pageBytes < 0) -1 else bodyBytes + pageBytes
+            if (firstPage) {
+                listValidators = response.validators(pageBytes)
+            }
+            progressTracker.enterPhase(SyncPhase.WRITE)
+            if (page.items.isNotEmpty()) {
+                dao.insertStagedTemplateFeatures(page.items.toStagingEntityListFromDto())
+                if (initialLoad) {
+                    dao.publishStagedTemplateFeatures()
+                }
+                stagedRows += page.items.size
+            }
+            progressTracker.onRowsApplied(stagedRows, estimatedTotalRows = page.totalCount)
+            pageCursor = page.nextCursor
+            syncCursor = page.cursor ?: syncCursor
+        } while (pageCursor != null)
+        // Saved bytes on a later 304 cover every page, not just the first
+        return StagedList(
+            rows = stagedRows,
+            validators = listValidators?.copy(bodyBytes = bodyBytes),
+            cursor = syncCursor
+        )
+    }
+
+    /**
+     * Stages nothing when the server answered 304, before anything is decoded.
+     */
+    private suspend fun stageStream(syncScope: SyncScope, initialLoad: Boolean): StagedList {
+        // An empty table cannot be revalidated, it needs the full body
+        val validators = if (initialLoad) null else validatorStore.getValidators(TemplateFeatureValidatorStore.listKey(syncScope))
+        val response = apiService.streamAllTemplateFeatures(
+            ifNoneMatch = validators?.etag,
+            ifModifiedSince = validators?.lastModified,
+            active = syncScope.activeFilter
+        )
+        validators?.let { validatorStats.record(ValidatedEndpoint.LIST, it, response.isNotModified) }
+        val syncCursor = response.headers()[HttpHeaders.SYNC_CURSOR]
+        if (response.isNotModified) {
+            response.errorBody()?.close()
+            return StagedList(rows = 0, cursor = syncCursor, notModified = true)
+        }
+        
+        val body = response.body() ?: throw HttpException(response)
+        val contentLength = body.contentLength()
+        var bodyBytes = contentLength
+        
+        progressTracker.enterPhase(SyncPhase.DECODE)
+        val stagedRows = streamIngestor.ingest(body, syncConfig.streamBatchSize) { rowsStaged, bytesRead ->
+            bodyBytes = bytesRead
+            if (initialLoad) {
+                dao.publishStagedTemplateFeatures()
+            }
+            // Extrapolate the row count from the average row size seen so far
+            val estimatedTotalRows = if (contentLength > 0 && bytesRead > 0) {
+                (rowsStaged * contentLength / bytesRead).toInt()
+            } else {
+                null
+            }
+            progressTracker.onRowsApplied(rowsStaged, bytesRead, estimatedTotalRows)
+        }
+        return StagedList(rows = stagedRows, validators = response.validators(bodyBytes), cursor = syncCursor)
+    }
+
+    private fun storeValidators(key: String, validators: HttpValidators?) {
+        // A response without validators makes any stored ones meaningless
+        if (validators != null) {
+            validatorStore.setValidators(key, validators)
+        } else {
+            validatorStore.clearValidators(key)
+        }
+    }
+
+    private suspend fun storeDetailValidators(id: String, validators: HttpValidators?) {
+        if (validators != null) {
+            dao.insertValidators(validators.toEntity(id))
+        } else {
+            dao.deleteValidators(id)
+        }
+    }
+
+    private fun storeSyncCursor(cursor: String?) {
+        // Without a server cursor the next sync starts from a snapshot again rather than guessing one
+        if (cursor != null) {
+            preferences.setSyncCursor(cursor)
+        } else {
+            preferences.clearSyncCursor()
+        }
+    }
+
+    private suspend fun deltaSync(cursor: String, syncScope: SyncScope): Int {
+        progressTracker.enterPhase(SyncPhase.FETCH)
+        val changes = apiService.getTemplateFeatureChanges(
+            updatedSince = cursor,
+            active = syncScope.activeFilter
+        )
+        progressTracker.enterPhase(SyncPhase.WRITE)
+        
+        val appliedRows = applyRemoteChanges(changes.features, changes.deletedIds)
+        progressTracker.onRowsApplied(rowsApplied = appliedRows, estimatedTotalRows = appliedRows)
+        
+        preferences.setSyncCursor(changes.cursor)
+        return appliedRows
+    }
+
+    /**
+     * Applies changed rows and server deletions only, returning how many rows
+     * were written or removed.
+     */
+    private suspend fun applyRemoteChanges(features: List<TemplateFeatureResponseDto>, deletedIds: List<String>): Int {
+        val changedFeatures = features.chunked(TemplateFeatureDatabase.MAX_QUERY_ARGUMENTS).flatMap { chunk ->
+            val storedHashes = dao.getContentHashes(chunk.map { it.id })
+                .associate { it.id to it.contentHash }
+            chunk.filter { storedHashes[it.id] != it.contentHash() }
+        }
+        
+        // Rows with queued offline writes keep their local state until the outbox drains
+        val pendingIds = outbox.pendingFeatureIds()
+        val upserts = changedFeatures.filter { it.id !in pendingIds }
+        val deletions = deletedIds.filter { it !in pendingIds }
+        if (upserts.isNotEmpty() || deletions.isNotEmpty()) {
+            dao.applyTemplateFeatureChanges(
+                upserts = upserts.toEntityListFromDto(),
+                deletedIds = deletions
+            )
+        }
+        return upserts.size + deletions.size
+    }
+
+    override suspend fun searchTemplateFeatures(
+        query: String,
+        mode: SearchMode
+    ): Result<List<TemplateFeatureModel>> {
+        return when (mode) {
+            SearchMode.LOCAL -> searchLocally(query)
+            SearchMode.REMOTE -> searchRemotely(query)
+            // Room only answers for every feature once inactive ones are materialized too
+            SearchMode.AUTO -> if (!isOnline() || preferences.getMaterializedScope() == SyncScope.ALL) {
+                searchLocally(query)
+            } else {
+                searchRemotely(query)
+            }
+        }
+    }
+
+    override fun searchTemplateFeaturesLocally(query: String): Flow<List<TemplateFeatureModel>> {
+        val match = TemplateFeatureFtsQuery.of(query) ?: return flowOf(emptyList())
+        return dao.searchTemplateFeatures(match, LOCAL_SEARCH_LIMIT).map { entities ->
+            entities.toDomainModelListFromEntity()
+        }
+    }
+
+    private suspend fun searchLocally(query: String): Result<List<TemplateFeatureModel>> {
+        return try {
+            Result.success(searchTemplateFeaturesLocally(query).first())
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
             Result.failure(e)
         }
     }
 
-    override suspend fun searchTemplateFeatures(query: String): Result<List<TemplateFeatureModel>> {
+    private suspend fun searchRemotely(query: String): Result<List<TemplateFeatureModel>> {
+        // Offline, the HTTP cache answers repeated searches without touching the network
         return try {
             val remoteResults = apiService.searchTemplateFeatures(query)
             Result.success(remoteResults.toDomainModelListFromDto())
+        } catch (e: HttpException) {
+            if (!isOnline() && e.code() == HttpCachePolicyInterceptor.UNSATISFIABLE_REQUEST) {
+                Result.failure(NoConnectivityException())
+            } else {
+                Result.failure(e)
+            }
+        } catch (e: CancellationException) {
+            throw e
         } catch (e: Exception) {
             Result.failure(e)
         }
     }
 
+    private fun isOnline(): Boolean = connectivityMonitor.isOnline.value
+
     private fun generateLocalId(): String {
-        return "local_${System.currentTimeMillis()}_${(1000..9999).random()}"
+        return "${TemplateFeatureOutbox.LOCAL_ID_PREFIX}${System.currentTimeMillis()}_${(1000..9999).random()}"
+    }
+
+    // Left off entirely for the ALL scope so the server's default listing is used
+    private val SyncScope.activeFilter: Boolean?
+        get() = if (this == SyncScope.ACTIVE) true else null
+
+    private class StagedList(
+        val rows: Int,
+        val validators: HttpValidators? = null,
+        val cursor: String? = null,
+        // Answered 304, so nothing was staged
+        val notModified: Boolean = false
+    )
+
+    companion object {
+        // 400 for a malformed cursor, 410 once the server has expired the change log behind it
+        private val REJECTED_CURSOR_CODES = setOf(400, 410)
+        
+        // Servers without the digests endpoint
+        private val UNSUPPORTED_CODES = setOf(404, 501)
+        
+        // Matches the remote search endpoint's default page size
+        private const val LOCAL_SEARCH_LIMIT = 20
     }
 }
\ No newline at end of file
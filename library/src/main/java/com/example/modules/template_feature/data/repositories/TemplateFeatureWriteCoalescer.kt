@@ -0,0 +1,229 @@
+package com.example.modules.template_feature.data.repositories
+
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchOperationDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchRequestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureRequestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.mappers.toRequestDto
+import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.domain.models.TemplateFeatureModel
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import java.util.UUID
+
+/**
+ * Collects writes made within a short window and sends them as one batch
+ * request. Repeated updates to the same id collapse into the last write, an
+ * update followed by a delete becomes just the delete, and a create followed by
+ * a delete of the same id is never sent at all. Every caller still gets its own
+ * result back.
+ *
+ * With a window of 0 each write goes straight to its single-item endpoint.
+ *
+ * Every write brings its own idempotency key, which the caller also stores on
+ * the outbox operation if the write has to be queued instead, so a replay of a
+ * write the server already applied is recognized rather than applied twice.
+ */
+class TemplateFeatureWriteCoalescer(
+    private val apiService: TemplateFeatureApiService,
+    private val scope: CoroutineScope,
+    private val windowMs: Long
+) {
+
+    private val mutex = Mutex()
+    private var pending = mutableListOf<CoalescedWrite>()
+    private var flushJob: Job? = null
+
+    /**
+     * Returns null when a delete in the same window cancelled the create, in
+     * which case nothing was sent.
+     */
+    suspend fun create(templateFeature: TemplateFeatureModel, idempotencyKey: String): TemplateFeatureResponseDto? {
+        val request = templateFeature.toRequestDto()
+        if (windowMs <= 0) {
+            return apiService.createTemplateFeature(request, idempotencyKey = idempotencyKey)
+        }
+        // Features without a client id can never be targeted by a later write in the window
+        val key = templateFeature.id.ifEmpty { "$CREATE_KEY_PREFIX${UUID.randomUUID()}" }
+        return submit(WriteType.CREATE, key, request, idempotencyKey)
+    }
+
+    /**
+     * Returns null when a delete in the same window superseded the update, in
+     * which case only the delete was sent.
+     *
+     * The single-item endpoint is a PUT and needs no key; [idempotencyKey] is
+     * only sent as part of a batch.
+     */
+    suspend fun update(id: String, request: TemplateFeatureRequestDto, idempotencyKey: String): TemplateFeatureResponseDto? {
+        if (windowMs <= 0) {
+            return apiService.updateTemplateFeature(id, request)
+        }
+        return submit(WriteType.UPDATE, id, request, idempotencyKey)
+    }
+
+    suspend fun delete(id: String, idempotencyKey: String) {
+        if (windowMs <= 0) {
+            apiService.deleteTemplateFeature(id)
+            return
+        }
+        submit(WriteType.DELETE, id, null, idempotencyKey)
+    }
+
+    private suspend fun submit(
+        type: WriteType,
+        key: String,
+        request: TemplateFeatureRequestDto?,
+        idempotencyKey: String
+    ): TemplateFeatureResponseDto? {
+        val waiter = Waiter(type, key, request, idempotencyKey)
+        
+        mutex.withLock {
+            merge(waiter)
+            if (flushJob == null) {
+                flushJob = scope.launch {
+                    delay(windowMs)
+                    flush()
+                }
+            }
+        }
+        
+        return waiter.result.await()
+    }
+
+    private fun merge(waiter: Waiter) {
+        val existing = pending.lastOrNull { it.key == waiter.key }
+        when {
+            existing == null -> pending.add(waiter.toCoalescedWrite())
+            
+            waiter.type == WriteType.UPDATE && existing.type != WriteType.DELETE -> {
+                // Last write wins; a pending create simply goes out with the newer content. The
+                // earlier write's key stays, so if this batch fails, replaying the queued earlier
+                // write is recognized and this write's own key still applies the newer content
+                existing.request = waiter.request
+                existing.waiters.add(waiter)
+            }
+            
+            waiter.type == WriteType.DELETE && existing.type == WriteType.CREATE -> {
+                // Created and deleted within the window: the server never needs to hear about it
+                pending.remove(existing)
+                existing.waiters.forEach { it.complete(null) }
+                waiter.complete(null)
+            }
+            
+            waiter.type == WriteType.DELETE -> {
+                // The operation is now the delete, so it goes out under the delete's key
+                existing.type = WriteType.DELETE
+                existing.request = null
+                existing.idempotencyKey = waiter.idempotencyKey
+                existing.waiters.add(waiter)
+            }
+            
+            else -> pending.add(waiter.toCoalescedWrite())
+        }
+    }
+
+    private suspend fun flush() {
+        val writes = mutex.withLock {
+            flushJob = null
+            pending.also { pending = mutableListOf() }
+        }
+        if (writes.isEmpty()) return
+        
+        try {
+            val operations = writes.map { it.toOperationDto() }
+            val response = apiService.batchTemplateFeatures(
+                TemplateFeatureBatchRequestDto(operations),
+                // Derived from the writes' own keys, the same way the outbox names a batch
+                idempotencyKey = UUID.nameUUIDFromBytes(
+                    operations.joinToString(",") { it.idempotencyKey.orEmpty() }.toByteArray()
+                ).toString()
+            )
+            writes.forEachIndexed { index, write ->
+                val result = response.results.getOrNull(index)
+                when {
+                    result == null -> write.fail(BatchWriteException(0, "Missing batch result"))
+                    
+                    write.type == WriteType.DELETE && (result.status in 200..299 || result.status == 404) ->
+                        write.waiters.forEach { it.complete(null) }
+                    
+                    result.status in 200..299 && result.feature != null ->
+                        write.waiters.forEach { it.complete(result.feature) }
+                    
+                    else -> write.fail(BatchWriteException(result.status, result.error))
+                }
+            }
+        } catch (e: Exception) {
+            writes.forEach { it.fail(e) }
+        }
+    }
+
+    private fun CoalescedWrite.toOperationDto(): TemplateFeatureBatchOperationDto {
+        return when (type) {
+            WriteType.CREATE -> TemplateFeatureBatchOperationDto(
+                type = TemplateFeatureBatchOperationDto.TYPE_CREATE,
+                id = key.takeUnless { it.startsWith(CREATE_KEY_PREFIX) },
+                feature = request,
+                idempotencyKey = idempotencyKey
+            )
+            WriteType.UPDATE -> TemplateFeatureBatchOperationDto(
+                type = TemplateFeatureBatchOperationDto.TYPE_UPDATE,
+                id = key,
+                feature = request,
+                idempotencyKey = idempotencyKey
+            )
+            WriteType.DELETE -> TemplateFeatureBatchOperationDto(
+                type = TemplateFeatureBatchOperationDto.TYPE_DELETE,
+                id = key,
+                idempotencyKey = idempotencyKey
+            )
+        }
+    }
+
+    private enum class WriteType {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    private class Waiter(
+        val type: WriteType,
+        val key: String,
+        val request: TemplateFeatureRequestDto?,
+        val idempotencyKey: String
+    ) {
+        val result = CompletableDeferred<TemplateFeatureResponseDto?>()
+
+        fun complete(feature: TemplateFeatureResponseDto?) {
+            result.complete(feature)
+        }
+
+        fun toCoalescedWrite() = CoalescedWrite(key, type, request, idempotencyKey, mutableListOf(this))
+    }
+
+    private class CoalescedWrite(
+        val key: String,
+        var type: WriteType,
+        var request: TemplateFeatureRequestDto?,
+        var idempotencyKey: String,
+        val waiters: MutableList<Waiter>
+    ) {
+        fun fail(exception: Exception) {
+            waiters.forEach { it.result.completeExceptionally(exception) }
+        }
+    }
+
+    companion object {
+        private const val CREATE_KEY_PREFIX = "create_"
+    }
+}
+
+class BatchWriteException(
+    val status: Int,
+    message: String?
+) : Exception(message ?: "Batch write failed with status $status")
@@ -0,0 +1,191 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.data.dto.TemplateFeatureChangeEventDto
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
+import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeaturePreferences
+import com.example.modules.template_feature.data.mappers.toEntity
+import com.example.modules.template_feature.data.remotedatasource.connectivity.ConnectivityMonitor
+import com.example.modules.template_feature.domain.models.SyncScope
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.channels.Channel
+import kotlinx.coroutines.currentCoroutineContext
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.first
+import kotlinx.coroutines.isActive
+import kotlinx.coroutines.launch
+import kotlinx.serialization.SerializationException
+import kotlinx.serialization.json.Json
+import okhttp3.HttpUrl
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.WebSocket
+import okhttp3.WebSocketListener
+
+/**
+ * Optional push channel that applies server change events to Room as they
+ * arrive. Reconnects, including the first one after a cold start, resume after
+ * the last applied sequence number, which is kept in [TemplateFeaturePreferences]
+ * next to the sync cursor. When
+ * events were missed, or the server can no longer replay them, [catchUp]
+ * runs a delta sync to fill the gap instead.
+ */
+class TemplateFeatureChangeStream(
+    private val client: OkHttpClient,
+    private val json: Json,
+    private val streamUrl: HttpUrl,
+    private val dao: TemplateFeatureDao,
+    private val outbox: TemplateFeatureOutbox,
+    private val preferences: TemplateFeaturePreferences,
+    private val connectivityMonitor: ConnectivityMonitor,
+    private val scope: CoroutineScope,
+    private val syncConfig: TemplateFeatureSyncConfig,
+    private val catchUp: suspend () -> Result<Unit>
+) {
+
+    private val _isConnected = MutableStateFlow(false)
+    val isConnected: StateFlow<Boolean> = _isConnected.asStateFlow()
+
+    // Only read and written by the coroutine consuming the stream, loaded from preferences when it starts
+    private var lastSequence: Long? = null
+    private var job: Job? = null
+
+    @Synchronized
+    fun start() {
+        if (job?.isActive == true) return
+        job = scope.launch { run() }
+    }
+
+    @Synchronized
+    fun stop() {
+        job?.cancel()
+        job = null
+        _isConnected.value = false
+    }
+
+    private suspend fun run() {
+        if (lastSequence == null) lastSequence = preferences.getStreamSequence()
+        var backoffMs = syncConfig.changeStreamReconnectMs
+        while (currentCoroutineContext().isActive) {
+            connectivityMonitor.isOnline.first { it }
+            val receivedEvents = try {
+                consume()
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                false
+            }
+            _isConnected.value = false
+            
+            // A connection that delivered something was healthy, so start the backoff over
+            if (receivedEvents) backoffMs = syncConfig.changeStreamReconnectMs
+            delay(backoffMs)
+            backoffMs = (backoffMs * 2).coerceAtMost(syncConfig.changeStreamMaxReconnectMs)
+        }
+    }
+
+    /**
+     * Holds one connection open until the server closes it or it fails, and
+     * returns whether any event arrived on it.
+     */
+    private suspend fun consume(): Boolean {
+        val messages = Channel<String>(Channel.UNLIMITED)
+        val socket = client.newWebSocket(buildRequest(), object : WebSocketListener() {
+            override fun onOpen(webSocket: WebSocket, response: Response) {
+                _isConnected.value = true
+            }
+            
+            override fun onMessage(webSocket: WebSocket, text: String) {
+                messages.trySend(text)
+            }
+            
+            override fun onClosing(webSocket: WebSocket, code: Int, reason: String) {
+                webSocket.close(code, null)
+                messages.close()
+            }
+            
+            override fun onFailure(webSocket: WebSocket, t: Throwable, response: Response?) {
+                messages.close()
+            }
+        })
+        
+        var receivedEvents = false
+        try {
+            // Messages already received are still applied after the socket closes
+            for (message in messages) {
+                handle(message)
+                receivedEvents = true
+            }
+        } finally {
+            socket.cancel()
+        }
+        return receivedEvents
+    }
+
+    private fun buildRequest(): Request {
+        val url = streamUrl.newBuilder().apply {
+            lastSequence?.let { addQueryParameter("since", it.toString()) }
+        }.build()
+        return Request.Builder().url(url).build()
+    }
+
+    private suspend fun handle(message: String) {
+        val event = try {
+            json.decodeFromString<TemplateFeatureChangeEventDto>(message)
+        } catch (e: SerializationException) {
+            // Reconnecting would only replay the same event, so a delta sync covers whatever it changed
+            // and it counts as applied; events arrive in order, so it was the one after the last
+            catchUp().getOrThrow()
+            lastSequence?.let { advanceTo(it + 1) }
+            return
+        }
+        if (event.type == TemplateFeatureChangeEventDto.TYPE_RESYNC) {
+            catchUp().getOrThrow()
+            advanceTo(event.sequence)
+            return
+        }
+        
+        val last = lastSequence
+        // Already applied before a reconnect
+        if (last != null && event.sequence <= last) return
+        if (last == null || event.sequence > last + 1) {
+            // Events before this one were missed and cannot be replayed one by one
+            catchUp().getOrThrow()
+        }
+        apply(event)
+        advanceTo(event.sequence)
+    }
+
+    // Saved only once the event is in Room, so a crash can at worst apply it a second time
+    private fun advanceTo(sequence: Long) {
+        lastSequence = sequence
+        preferences.setStreamSequence(sequence)
+    }
+
+    private suspend fun apply(event: TemplateFeatureChangeEventDto) {
+        val feature = event.feature
+        val id = feature?.id ?: event.id ?: return
+        // Rows with queued offline writes keep their local state until the outbox drains
+        if (outbox.hasPendingOperations(id)) return
+        
+        val removed = event.type == TemplateFeatureChangeEventDto.TYPE_DELETE ||
+            // Active-only syncs do not keep inactive rows
+            (feature != null && !feature.isActive && preferences.getSyncScope() == SyncScope.ACTIVE)
+        if (removed) {
+            dao.deleteTemplateFeatureById(id)
+            return
+        }
+        if (event.type != TemplateFeatureChangeEventDto.TYPE_UPSERT || feature == null) return
+        
+        val entity = feature.toEntity()
+        val storedHash = dao.getContentHashes(listOf(id)).firstOrNull()?.contentHash
+        if (storedHash != entity.contentHash) {
+            dao.insertTemplateFeature(entity)
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchOperationDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchRequestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchResultDto
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationDao
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationEntity
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationType
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureEntity
+import com.example.modules.template_feature.data.mappers.toEntity
+import com.example.modules.template_feature.data.mappers.toRequestDto
+import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.data.remotedatasource.connectivity.ConnectivityMonitor
+import com.example.modules.template_feature.domain.models.SyncStatus
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.drop
+import kotlinx.coroutines.flow.filter
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import retrofit2.HttpException
+import java.util.UUID
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Room-backed queue of writes that could not reach the server. Operations are
+ * replayed in the order they were made, as many per batch request as can go
+ * together; a transient failure parks the operation behind an exponential
+ * backoff instead of letting later writes to the same feature overtake it.
+ *
+ * The batch endpoint needs server support, so like the write coalescer the
+ * outbox only uses it when [TemplateFeatureSyncConfig.writeCoalescingWindowMs]
+ * is set, and otherwise replays one operation at a time through the
+ * single-item endpoints.
+ */
+class TemplateFeatureOutbox(
+    private val apiService: TemplateFeatureApiService,
+    private val pendingOperationDao: PendingOperationDao,
+    private val syncConfig: TemplateFeatureSyncConfig,
+    private val connectivityMonitor: ConnectivityMonitor,
+    private val scope: CoroutineScope
+) {
+
+    private val batchWrites = syncConfig.writeCoalescingWindowMs > 0
+    private val replayMutex = Mutex()
+    private val replayRequested = AtomicBoolean(false)
+    private var retryJob: Job? = null
+    private var retryAt = Long.MAX_VALUE
+
+    init {
+        // Writes queued while offline go out as soon as the network comes back
+        scope.launch {
+            connectivityMonitor.isOnline
+                .drop(1)
+                .filter { it }
+                .collect { requestReplay() }
+        }
+    }
+
+    /**
+     * Saves a locally created feature and queues its create in one transaction.
+     * A write that already went out under [idempotencyKey] keeps that key, so
+     * the server recognizes the replay if the first attempt reached it.
+     */
+    suspend fun recordCreate(templateFeature: TemplateFeatureEntity, idempotencyKey: String = newIdempotencyKey()) {
+        pendingOperationDao.insertLocalChange(
+            templateFeature.copy(syncStatus = SyncStatus.PENDING),
+            templateFeature.toPendingOperation(PendingOperationType.CREATE, idempotencyKey)
+        )
+    }
+
+    suspend fun recordUpdate(templateFeature: TemplateFeatureEntity, idempotencyKey: String = newIdempotencyKey()) {
+        // Editing a local row whose create was rejected gives the create another go
+        val type = if (isLocalId(templateFeature.id) && !hasPendingOperations(templateFeature.id)) {
+            PendingOperationType.CREATE
+        } else {
+            PendingOperationType.UPDATE
+        }
+        pendingOperationDao.insertLocalChange(
+            templateFeature.copy(syncStatus = SyncStatus.PENDING),
+            templateFeature.toPendingOperation(type, idempotencyKey)
+        )
+    }
+
+    suspend fun recordDelete(featureId: String, idempotencyKey: String = newIdempotencyKey()) {
+        // A feature that never reached the server has nothing to delete remotely, just drop its queued writes
+        val operation = if (isLocalId(featureId)) {
+            null
+        } else {
+            PendingOperationEntity(featureId = featureId, type = PendingOperationType.DELETE, idempotencyKey = idempotencyKey)
+        }
+        pendingOperationDao.deleteLocally(featureId, operation)
+    }
+
+    suspend fun hasPendingOperations(featureId: String): Boolean {
+        return pendingOperationDao.countPendingOperations(featureId) > 0
+    }
+
+    suspend fun pendingFeatureIds(): Set<String> {
+        return pendingOperationDao.getPendingFeatureIds().toSet()
+    }
+
+    suspend fun replay(): OutboxReplayResult = replayMutex.withLock { drain() }
+
+    /**
+     * Starts a replay without waiting for it, so local writes can return as soon
+     * as they are committed. Writes made within the coalescing window share the
+     * replay, and with it one batch request.
+     */
+    fun requestReplay() {
+        if (!connectivityMonitor.isOnline.value) return
+        // A replay already waiting out the window will pick this write up too
+        if (!replayRequested.compareAndSet(false, true)) return
+        scope.launch {
+            delay(syncConfig.writeCoalescingWindowMs)
+            replayRequested.set(false)
+            try {
+                replay()
+            } catch (e: Exception) {
+                // Queued operations stay put and are retried on the next replay
+            }
+        }
+    }
+
+    private suspend fun drain(): OutboxReplayResult {
+        var replayed = 0
+        var rejected = 0
+        
+        while (true) {
+            val pending = pendingOperationDao.getPendingOperations(syncConfig.outboxBatchSize)
+            if (pending.isEmpty()) {
+                return OutboxReplayResult(replayed, rejected, hasRemaining = false)
+            }
+            
+            val batch = readyBatch(pending)
+            if (batch.isEmpty()) {
+                // Everything left is backing off; come back when the first of it is due
+                scheduleReplay(pending.minOf { it.nextAttemptAt })
+                return OutboxReplayResult(replayed, rejected, hasRemaining = true)
+            }
+            
+            val results = try {
+                if (batchWrites) send(batch) else listOf(sendSingle(batch.single()))
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                // Nothing in the batch can be told apart, so the head waits and the rest stay queued behind it
+                backOff(batch.first())
+                return OutboxReplayResult(replayed, rejected, hasRemaining = true)
+            }
+            
+            // Every result is applied even after a transient failure, since the server already ran the rest
+            var blocked = false
+            batch.forEachIndexed { index, operation ->
+                val result = results.getOrNull(index)
+                when {
+                    result != null && complete(operation, result) -> replayed++
+                    isTransient(result) -> {
+                        backOff(operation)
+                        blocked = true
+                    }
+                    else -> {
+                        // The server refused the write outright; retrying would only block the queue
+                        reconcileRejected(operation)
+                        rejected++
+                    }
+                }
+            }
+            if (blocked) {
+                return OutboxReplayResult(replayed, rejected, hasRemaining = true)
+            }
+        }
+    }
+
+    /**
+     * The oldest due operation of each feature. A later write to the same
+     * feature depends on how the earlier one turned out, and a create only
+     * gets its server id from the response, so it waits even while the
+     * earlier one is backing off; other features are not held up.
+     */
+    private fun readyBatch(pending: List<PendingOperationEntity>): List<PendingOperationEntity> {
+        val now = System.currentTimeMillis()
+        val featureIds = HashSet<String>()
+        // add() also claims features whose oldest operation is not due yet
+        val ready = pending.filter { operation ->
+            featureIds.add(operation.featureId) && operation.nextAttemptAt <= now
+        }
+        return if (batchWrites) ready else ready.take(1)
+    }
+
+    private suspend fun send(batch: List<PendingOperationEntity>): List<TemplateFeatureBatchResultDto> {
+        val operations = batch.map { it.toBatchOperation() }
+        return apiService.batchTemplateFeatures(
+            TemplateFeatureBatchRequestDto(operations),
+            // Resending the same operations repeats the same key, so a batch that timed out can be retried
+            idempotencyKey = UUID.nameUUIDFromBytes(
+                operations.joinToString(",") { it.idempotencyKey.orEmpty() }.toByteArray()
+            ).toString()
+        ).results
+    }
+
+    /**
+     * Sends one operation to its single-item endpoint and reports the outcome
+     * the way a batch response would, so both paths settle it the same way.
+     */
+    private suspend fun sendSingle(operation: PendingOperationEntity): TemplateFeatureBatchResultDto {
+        return try {
+            when (operation.type) {
+                PendingOperationType.CREATE -> TemplateFeatureBatchResultDto(
+                    status = 201,
+                    feature = apiService.createTemplateFeature(operation.toRequestDto(), idempotencyKey = operation.idempotencyKey)
+                )
+                PendingOperationType.UPDATE -> TemplateFeatureBatchResultDto(
+                    status = 200,
+                    feature = apiService.updateTemplateFeature(operation.featureId, operation.toRequestDto())
+                )
+                PendingOperationType.DELETE -> {
+                    apiService.deleteTemplateFeature(operation.featureId)
+                    TemplateFeatureBatchResultDto(status = 204)
+                }
+            }
+        } catch (e: HttpException) {
+            TemplateFeatureBatchResultDto(status = e.code(), error = e.message())
+        }
+    }
+
+    // A missing result, or a success without the feature it should carry, is worth another try too
+    private fun isTransient(result: TemplateFeatureBatchResultDto?): Boolean {
+        if (result == null) return true
+        return result.status in 200..299 || result.status in RETRYABLE_HTTP_CODES || result.status >= 500
+    }
+
+    private fun PendingOperationEntity.toBatchOperation(): TemplateFeatureBatchOperationDto {
+        return when (type) {
+            // The server assigns the id; the local one is remapped once it answers
+            PendingOperationType.CREATE -> TemplateFeatureBatchOperationDto(
+                type = TemplateFeatureBatchOperationDto.TYPE_CREATE,
+                feature = toRequestDto(),
+                idempotencyKey = idempotencyKey
+            )
+            PendingOperationType.UPDATE -> TemplateFeatureBatchOperationDto(
+                type = TemplateFeatureBatchOperationDto.TYPE_UPDATE,
+                id = featureId,
+                feature = toRequestDto(),
+                idempotencyKey = idempotencyKey
+            )
+            PendingOperationType.DELETE -> TemplateFeatureBatchOperationDto(
+                type = TemplateFeatureBatchOperationDto.TYPE_DELETE,
+                id = featureId,
+                idempotencyKey = idempotencyKey
+            )
+        }
+    }
+
+    /**
+     * Applies a successful result, returning false if the operation did not succeed.
+     */
+    private suspend fun complete(operation: PendingOperationEntity, result: TemplateFeatureBatchResultDto): Boolean {
+        val succeeded = result.status in 200..299
+        when (operation.type) {
+            PendingOperationType.CREATE -> {
+                val feature = result.feature?.takeIf { succeeded } ?: return false
+                pendingOperationDao.completeCreate(operation.sequence, operation.featureId, feature.toEntity())
+            }
+            PendingOperationType.UPDATE -> {
+                val feature = result.feature?.takeIf { succeeded } ?: return false
+                pendingOperationDao.completeUpdate(operation.sequence, feature.toEntity())
+            }
+            PendingOperationType.DELETE -> {
+                // Already gone on the server is as good as deleted
+                if (!succeeded && result.status != 404) return false
+                pendingOperationDao.deletePendingOperation(operation.sequence)
+            }
+        }
+        return true
+    }
+
+    private suspend fun reconcileRejected(operation: PendingOperationEntity) {
+        if (operation.type == PendingOperationType.CREATE) {
+            pendingOperationDao.rejectCreate(operation.featureId)
+            return
+        }
+        
+        // Roll the local row back to whatever the server actually holds
+        val serverFeature = try {
+            apiService.getTemplateFeatureById(operation.featureId).toEntity()
+        } catch (e: CancellationException) {
+            throw e
+        } catch (e: Exception) {
+            if (e !is HttpException || e.code() != 404) {
+                pendingOperationDao.deletePendingOperation(operation.sequence)
+                pendingOperationDao.updateSyncStatus(operation.featureId, SyncStatus.REJECTED)
+                return
+            }
+            null
+        }
+        pendingOperationDao.rollBack(operation.sequence, operation.featureId, serverFeature)
+    }
+
+    private fun TemplateFeatureEntity.toPendingOperation(type: PendingOperationType, idempotencyKey: String): PendingOperationEntity {
+        return PendingOperationEntity(
+            featureId = id,
+            type = type,
+            title = title,
+            description = description,
+            isActive = isActive,
+            idempotencyKey = idempotencyKey
+        )
+    }
+
+    private suspend fun backOff(operation: PendingOperationEntity) {
+        val delay = (syncConfig.outboxInitialBackoffMs shl operation.attempts.coerceAtMost(MAX_BACKOFF_SHIFT))
+            .coerceAtMost(syncConfig.outboxMaxBackoffMs)
+        val nextAttemptAt = System.currentTimeMillis() + delay
+        pendingOperationDao.markAttemptFailed(operation.sequence, nextAttemptAt)
+        scheduleReplay(nextAttemptAt)
+    }
+
+    /**
+     * Requests a replay once [attemptAt] has passed, unless one is already
+     * scheduled to run no later than that.
+     */
+    private fun scheduleReplay(attemptAt: Long) {
+        synchronized(this) {
+            if (retryJob?.isActive == true && retryAt <= attemptAt) return
+            retryJob?.cancel()
+            retryAt = attemptAt
+            retryJob = scope.launch {
+                delay(attemptAt - System.currentTimeMillis())
+                requestReplay()
+            }
+        }
+    }
+
+    companion object {
+        const val LOCAL_ID_PREFIX = "local_"
+        
+        private val RETRYABLE_HTTP_CODES = setOf(408, 429)
+        
+        private const val MAX_BACKOFF_SHIFT = 20
+        
+        fun isLocalId(id: String): Boolean = id.startsWith(LOCAL_ID_PREFIX)
+        
+        fun newIdempotencyKey(): String = UUID.randomUUID().toString()
+    }
+}
+
+data class OutboxReplayResult(
+    val replayed: Int,
+    val rejected: Int,
+    val hasRemaining: Boolean
+)
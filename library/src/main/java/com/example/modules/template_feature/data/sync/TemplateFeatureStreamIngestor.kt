@@ -0,0 +1,94 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureStagingEntity
+import com.example.modules.template_feature.data.mappers.toStagingEntity
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.flow.buffer
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOn
+import kotlinx.serialization.ExperimentalSerializationApi
+import kotlinx.serialization.json.DecodeSequenceMode
+import kotlinx.serialization.json.Json
+import kotlinx.serialization.json.decodeToSequence
+import okhttp3.ResponseBody
+import okio.Buffer
+import okio.ForwardingSource
+import okio.Source
+import okio.buffer
+
+/**
+ * Decodes a JSON array of features straight off the response source and writes
+ * them to the staging table in fixed-size batches. Decoding runs on IO while the
+ * previous batch is being written, so memory stays at a couple of batches no
+ * matter how large the response is.
+ */
+class TemplateFeatureStreamIngestor(
+    private val json: Json,
+    private val dao: TemplateFeatureDao
+) {
+
+    /**
+     * [onBatchStaged] runs after each batch is written, with the running row
+     * count and the number of response bytes decoded so far.
+     */
+    @OptIn(ExperimentalSerializationApi::class)
+    suspend fun ingest(
+        body: ResponseBody,
+        batchSize: Int,
+        onBatchStaged: suspend (rowsStaged: Int, bytesRead: Long) -> Unit = { _, _ -> }
+    ): Int {
+        var ingested = 0
+        
+        flow {
+            body.use { responseBody ->
+                val source = CountingSource(responseBody.source())
+                val batch = ArrayList<TemplateFeatureStagingEntity>(batchSize)
+                json.decodeToSequence<TemplateFeatureResponseDto>(
+                    source.buffer().inputStream(),
+                    DecodeSequenceMode.ARRAY_WRAPPED
+                ).forEach { dto ->
+                    batch.add(dto.toStagingEntity())
+                    if (batch.size == batchSize) {
+                        emit(StagedBatch(batch.toList(), source.bytesRead))
+                        batch.clear()
+                    }
+                }
+                if (batch.isNotEmpty()) {
+                    emit(StagedBatch(batch.toList(), source.bytesRead))
+                }
+            }
+        }
+            .flowOn(Dispatchers.IO)
+            .buffer(BATCHES_IN_FLIGHT)
+            .collect { batch ->
+                dao.insertStagedTemplateFeatures(batch.rows)
+                ingested += batch.rows.size
+                onBatchStaged(ingested, batch.bytesRead)
+            }
+        
+        return ingested
+    }
+
+    private class StagedBatch(
+        val rows: List<TemplateFeatureStagingEntity>,
+        val bytesRead: Long
+    )
+
+    private class CountingSource(delegate: Source) : ForwardingSource(delegate) {
+        var bytesRead = 0L
+            private set
+
+        override fun read(sink: Buffer, byteCount: Long): Long {
+            val read = super.read(sink, byteCount)
+            if (read > 0) bytesRead += read
+            return read
+        }
+    }
+
+    companion object {
+        // One batch being written while the next one is decoded
+        private const val BATCHES_IN_FLIGHT = 1
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.modules.template_feature.data.sync
+
+data class TemplateFeatureSyncConfig(
+    val fullSyncStrategy: FullSyncStrategy = FullSyncStrategy.PAGED,
+    val pageSize: Int = 500,
+    val streamBatchSize: Int = 200,
+    val outboxBatchSize: Int = 50,
+    val outboxInitialBackoffMs: Long = 5_000,
+    val outboxMaxBackoffMs: Long = 15 * 60_000,
+    // 0 sends every write as soon as it is made, to its single-item endpoint; anything above batches
+    // writes made within the window through template-features/batch, which the server has to support
+    val writeCoalescingWindowMs: Long = 0,
+    // Commit writes to Room and confirm them with the server in the background, through the outbox
+    val optimisticWrites: Boolean = true,
+    // Lists older than this are shown from Room straight away and refreshed in the background
+    val cacheTtlMs: Long = 15 * 60_000,
+    // Without a usable cursor, compare bucket digests with the server instead of downloading everything
+    val digestReconciliation: Boolean = true,
+    val reconcileBucketsPerRequest: Int = 32,
+    // Inactive rows are dropped again once nobody has looked at them for this long
+    val inactiveScopeRetentionMs: Long = 7 * 24 * 60 * 60_000L,
+    // Reconnect delay for the change stream, doubling up to the maximum while connections keep failing
+    val changeStreamReconnectMs: Long = 1_000,
+    val changeStreamMaxReconnectMs: Long = 60_000
+)
+
+enum class FullSyncStrategy {
+    // Walks template-features/paged one page at a time
+    PAGED,
+    
+    // Decodes the plain template-features list element by element as it downloads
+    STREAMING
+}
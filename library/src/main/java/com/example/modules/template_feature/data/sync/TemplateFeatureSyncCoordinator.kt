@@ -0,0 +1,99 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.domain.models.SyncState
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.NonCancellable
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.withContext
+
+/**
+ * Runs at most one sync at a time. Callers that arrive while nothing is
+ * running share a single run; callers that arrive mid-sync share one queued
+ * follow-up, since the running sync may already have missed their changes.
+ *
+ * Each run reports how many local rows it changed.
+ *
+ * The first caller of each run executes it and the rest await its result. If
+ * that caller is cancelled, the callers waiting on the same run get a failure
+ * rather than hanging.
+ */
+class TemplateFeatureSyncCoordinator(
+    private val sync: suspend () -> Result<Int>
+) {
+
+    private val mutex = Mutex()
+    private var current: CompletableDeferred<Result<Int>>? = null
+    private var queued: CompletableDeferred<Result<Int>>? = null
+
+    private val _state = MutableStateFlow(SyncState())
+    val state: StateFlow<SyncState> = _state.asStateFlow()
+
+    suspend fun requestSync(): Result<Int> {
+        var isRunner = true
+        var runAfter: CompletableDeferred<Result<Int>>? = null
+        val run = mutex.withLock {
+            val running = current
+            val followUp = queued
+            when {
+                running == null -> CompletableDeferred<Result<Int>>().also {
+                    current = it
+                    _state.update { state -> state.copy(isSyncing = true) }
+                }
+                followUp != null -> followUp.also { isRunner = false }
+                else -> CompletableDeferred<Result<Int>>().also {
+                    queued = it
+                    runAfter = running
+                    _state.update { state -> state.copy(hasQueuedSync = true) }
+                }
+            }
+        }
+        
+        if (!isRunner) {
+            return run.await()
+        }
+        
+        return try {
+            runAfter?.await()
+            val result = try {
+                sync()
+            } catch (e: CancellationException) {
+                throw e
+            } catch (e: Exception) {
+                Result.failure(e)
+            }
+            finish(run, result)
+            result
+        } catch (e: CancellationException) {
+            withContext(NonCancellable) { finish(run, Result.failure(e)) }
+            throw e
+        }
+    }
+
+    private suspend fun finish(run: CompletableDeferred<Result<Int>>, result: Result<Int>) {
+        mutex.withLock {
+            if (current === run) {
+                // The queued follow-up, if any, becomes the running sync
+                current = queued
+                queued = null
+            } else if (queued === run) {
+                queued = null
+            }
+            _state.update {
+                SyncState(
+                    isSyncing = current != null,
+                    hasQueuedSync = queued != null,
+                    lastError = result.exceptionOrNull(),
+                    lastChangeCount = result.getOrNull() ?: it.lastChangeCount,
+                    completedSyncs = it.completedSyncs + 1
+                )
+            }
+        }
+        run.complete(result)
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.domain.models.SyncPhase
+import com.example.modules.template_feature.domain.models.SyncProgress
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.StateFlow
+import kotlinx.coroutines.flow.asStateFlow
+import kotlinx.coroutines.flow.update
+
+/**
+ * Progress of the sync currently running, or of the last one once it has
+ * finished. Only one sync runs at a time, so a single tracker is enough.
+ */
+class TemplateFeatureSyncProgressTracker {
+
+    private val _progress = MutableStateFlow<SyncProgress?>(null)
+    val progress: StateFlow<SyncProgress?> = _progress.asStateFlow()
+
+    private var phaseStartedAt = 0L
+
+    fun start() {
+        phaseStartedAt = System.currentTimeMillis()
+        _progress.value = SyncProgress(phase = SyncPhase.FETCH)
+    }
+
+    fun enterPhase(phase: SyncPhase) {
+        _progress.update { progress ->
+            progress?.takeIf { it.phase != phase }?.closePhase()?.copy(phase = phase) ?: progress
+        }
+    }
+
+    fun onRowsApplied(rowsApplied: Int, bytesReceived: Long? = null, estimatedTotalRows: Int? = null) {
+        _progress.update { progress ->
+            progress?.copy(
+                rowsApplied = rowsApplied,
+                bytesReceived = bytesReceived ?: progress.bytesReceived,
+                estimatedTotalRows = estimatedTotalRows ?: progress.estimatedTotalRows
+            )
+        }
+    }
+
+    fun finish(error: Throwable?) {
+        _progress.update { progress ->
+            progress?.closePhase()?.copy(
+                phase = if (error == null) SyncPhase.COMPLETED else SyncPhase.FAILED,
+                error = error
+            )
+        }
+    }
+
+    private fun SyncProgress.closePhase(): SyncProgress {
+        val now = System.currentTimeMillis()
+        val elapsed = now - phaseStartedAt
+        phaseStartedAt = now
+        return copy(phaseDurationsMs = phaseDurationsMs + (phase to (phaseDurationsMs[phase] ?: 0L) + elapsed))
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.modules.template_feature.di
+
+import androidx.work.Data
+import androidx.work.workDataOf
+
+/**
+ * Settings for the periodic background sync.
+ *
+ * The interval starts at [minIntervalMinutes], backs off towards
+ * [maxIntervalMinutes] while syncs keep finding nothing new, and snaps back
+ * down as soon as one finds changes.
+ */
+data class BackgroundSyncConfig(
+    // WorkManager does not run periodic work more often than every 15 minutes
+    val minIntervalMinutes: Long = 15,
+    val maxIntervalMinutes: Long = 6 * 60,
+    val requiresUnmeteredNetwork: Boolean = false,
+    val requiresBatteryNotLow: Boolean = true,
+    val requiresCharging: Boolean = false,
+    // WorkManager does not allow backoff on idle-only work, so retries fall back to the next period
+    val requiresDeviceIdle: Boolean = false,
+    val initialBackoffSeconds: Long = 30
+) {
+
+    internal fun toInputData(intervalMinutes: Long): Data {
+        return workDataOf(
+            KEY_MIN_INTERVAL to minIntervalMinutes,
+            KEY_MAX_INTERVAL to maxIntervalMinutes,
+            KEY_UNMETERED to requiresUnmeteredNetwork,
+            KEY_BATTERY_NOT_LOW to requiresBatteryNotLow,
+            KEY_CHARGING to requiresCharging,
+            KEY_DEVICE_IDLE to requiresDeviceIdle,
+            KEY_INITIAL_BACKOFF to initialBackoffSeconds,
+            KEY_INTERVAL to intervalMinutes
+        )
+    }
+
+    internal companion object {
+        private const val KEY_MIN_INTERVAL = "min_interval_minutes"
+        private const val KEY_MAX_INTERVAL = "max_interval_minutes"
+        private const val KEY_UNMETERED = "requires_unmetered_network"
+        private const val KEY_BATTERY_NOT_LOW = "requires_battery_not_low"
+        private const val KEY_CHARGING = "requires_charging"
+        private const val KEY_DEVICE_IDLE = "requires_device_idle"
+        private const val KEY_INITIAL_BACKOFF = "initial_backoff_seconds"
+        private const val KEY_INTERVAL = "interval_minutes"
+
+        fun fromInputData(data: Data): BackgroundSyncConfig {
+            val defaults = BackgroundSyncConfig()
+            return BackgroundSyncConfig(
+                minIntervalMinutes = data.getLong(KEY_MIN_INTERVAL, defaults.minIntervalMinutes),
+                maxIntervalMinutes = data.getLong(KEY_MAX_INTERVAL, defaults.maxIntervalMinutes),
+                requiresUnmeteredNetwork = data.getBoolean(KEY_UNMETERED, defaults.requiresUnmeteredNetwork),
+                requiresBatteryNotLow = data.getBoolean(KEY_BATTERY_NOT_LOW, defaults.requiresBatteryNotLow),
+                requiresCharging = data.getBoolean(KEY_CHARGING, defaults.requiresCharging),
+                requiresDeviceIdle = data.getBoolean(KEY_DEVICE_IDLE, defaults.requiresDeviceIdle),
+                initialBackoffSeconds = data.getLong(KEY_INITIAL_BACKOFF, defaults.initialBackoffSeconds)
+            )
+        }
+
+        fun intervalFromInputData(data: Data, config: BackgroundSyncConfig): Long {
+            return data.getLong(KEY_INTERVAL, config.minIntervalMinutes)
+        }
+    }
+}
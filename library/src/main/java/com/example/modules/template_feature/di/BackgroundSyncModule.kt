@@ -0,0 +1,22 @@
+package com.example.modules.template_feature.di
+
+import android.content.Context
+import androidx.work.WorkManager
+import dagger.Module
+import dagger.Provides
+import dagger.hilt.InstallIn
+import dagger.hilt.android.qualifiers.ApplicationContext
+import dagger.hilt.components.SingletonComponent
+import javax.inject.Singleton
+
+@Module
+@InstallIn(SingletonComponent::class)
+object BackgroundSyncModule {
+    
+    // WorkManager is looked up here rather than bound, so a host app that binds its own never clashes with it
+    @Provides
+    @Singleton
+    fun provideSyncScheduler(@ApplicationContext context: Context): TemplateFeatureSyncScheduler {
+        return TemplateFeatureSyncScheduler(WorkManager.getInstance(context))
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.modules.template_feature.di
+
+import dagger.Module
+import dagger.Provides
+import dagger.hilt.InstallIn
+import dagger.hilt.components.SingletonComponent
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import javax.inject.Qualifier
+import javax.inject.Singleton
+
+@Qualifier
+@Retention(AnnotationRetention.BINARY)
+annotation class TemplateFeatureScope
+
+@Module
+@InstallIn(SingletonComponent::class)
+object CoroutinesModule {
+    
+    @Provides
+    @Singleton
+    @TemplateFeatureScope
+    fun provideTemplateFeatureScope(): CoroutineScope {
+        return CoroutineScope(SupervisorJob() + Dispatchers.IO)
+    }
+}
@@ -2,9 +2,13 @@ package com.example.modules.template_feature.di
 
 import android.content.Context
 import androidx.room.Room
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureBucketTriggers
 import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDatabase
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureFtsTriggers
 import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationDao
 import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeaturePreferences
+import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeatureValidatorStore
 import dagger.Module
 import dagger.Provides
 import dagger.hilt.InstallIn
@@ -25,6 +29,8 @@ object DatabaseModule {
             TemplateFeatureDatabase.DATABASE_NAME
         )
         .fallbackToDestructiveMigration()
+        .addCallback(TemplateFeatureBucketTriggers.callback)
+        .addCallback(TemplateFeatureFtsTriggers.callback)
         .build()
     }
     
@@ -33,9 +39,20 @@ object DatabaseModule {
         return database.templateFeatureDao()
     }
     
+    @Provides
+    fun providePendingOperationDao(database: TemplateFeatureDatabase): PendingOperationDao {
+        return database.pendingOperationDao()
+    }
+    
     @Provides
     @Singleton
     fun providePreferences(@ApplicationContext context: Context): TemplateFeaturePreferences {
         return TemplateFeaturePreferences(context)
     }
+    
+    @Provides
+    @Singleton
+    fun provideValidatorStore(@ApplicationContext context: Context): TemplateFeatureValidatorStore {
+        return TemplateFeatureValidatorStore(context)
+    }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.example.modules.template_feature.di
+
+import com.example.modules.template_feature.data.remotedatasource.api.CallPolicyConfig
+import com.example.modules.template_feature.data.remotedatasource.api.HttpCacheConfig
+import com.example.modules.template_feature.data.remotedatasource.api.RateLimitConfig
+import com.example.modules.template_feature.data.remotedatasource.scheduling.PrioritySchedulerConfig
+import com.example.modules.template_feature.data.sync.TemplateFeatureSyncConfig
+import dagger.BindsOptionalOf
+import dagger.Module
+import dagger.hilt.InstallIn
+import dagger.hilt.components.SingletonComponent
+import javax.inject.Qualifier
+
+/**
+ * Marks a configuration object the host app provides to override the
+ * module's defaults. Each one is optional; anything left unbound keeps its
+ * default values.
+ */
+@Qualifier
+@Retention(AnnotationRetention.BINARY)
+annotation class HostConfig
+
+@Module
+@InstallIn(SingletonComponent::class)
+abstract class HostConfigModule {
+    
+    @BindsOptionalOf
+    @HostConfig
+    abstract fun hostSyncConfig(): TemplateFeatureSyncConfig
+    
+    @BindsOptionalOf
+    @HostConfig
+    abstract fun hostHttpCacheConfig(): HttpCacheConfig
+    
+    @BindsOptionalOf
+    @HostConfig
+    abstract fun hostCallPolicyConfig(): CallPolicyConfig
+    
+    @BindsOptionalOf
+    @HostConfig
+    abstract fun hostRateLimitConfig(): RateLimitConfig
+    
+    @BindsOptionalOf
+    @HostConfig
+    abstract fun hostPrioritySchedulerConfig(): PrioritySchedulerConfig
+}
@@ -0,0 +1,26 @@
+package com.example.modules.template_feature.di
+
+import dagger.BindsOptionalOf
+import dagger.Module
+import dagger.hilt.InstallIn
+import dagger.hilt.components.SingletonComponent
+import okhttp3.OkHttpClient
+import javax.inject.Qualifier
+
+/**
+ * Marks the host app's own [OkHttpClient]. When bound, the module derives its
+ * client from it so connection pool, dispatcher and TLS sessions are shared.
+ * The host's interceptors are not carried over.
+ */
+@Qualifier
+@Retention(AnnotationRetention.BINARY)
+annotation class HostOkHttpClient
+
+@Module
+@InstallIn(SingletonComponent::class)
+abstract class HostNetworkModule {
+    
+    @BindsOptionalOf
+    @HostOkHttpClient
+    abstract fun hostOkHttpClient(): OkHttpClient
+}
@@ -0,0 +1,19 @@
+package com.example.modules.template_feature.di
+
+import com.example.modules.template_feature.data.remotedatasource.metrics.NetworkMetricsSink
+import dagger.Module
+import dagger.hilt.InstallIn
+import dagger.hilt.components.SingletonComponent
+import dagger.multibindings.Multibinds
+
+/**
+ * Declares the set of [NetworkMetricsSink]s so it exists even when the host
+ * app contributes none.
+ */
+@Module
+@InstallIn(SingletonComponent::class)
+abstract class NetworkMetricsModule {
+    
+    @Multibinds
+    abstract fun networkMetricsSinks(): Set<NetworkMetricsSink>
+}
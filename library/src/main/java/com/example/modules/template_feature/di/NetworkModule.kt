@@ -1,19 +1,49 @@
 package com.example.modules.template_feature.di
 
+import android.content.Context
+import android.content.pm.ApplicationInfo
+import com.example.modules.template_feature.data.remotedatasource.api.CallPolicyConfig
+import com.example.modules.template_feature.data.remotedatasource.api.CallPolicyInterceptor
+import com.example.modules.template_feature.data.remotedatasource.api.HttpCacheConfig
+import com.example.modules.template_feature.data.remotedatasource.api.HttpCachePolicyInterceptor
+import com.example.modules.template_feature.data.remotedatasource.api.RateLimitConfig
+import com.example.modules.template_feature.data.remotedatasource.api.RateLimitInterceptor
 import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.data.remotedatasource.connectivity.AndroidConnectivityMonitor
+import com.example.modules.template_feature.data.remotedatasource.metrics.CompositeEventListener
+import com.example.modules.template_feature.data.remotedatasource.metrics.MetricsEventListener
+import com.example.modules.template_feature.data.remotedatasource.metrics.NetworkMetricsRecorder
+import com.example.modules.template_feature.data.remotedatasource.metrics.NetworkMetricsSink
+import com.example.modules.template_feature.data.remotedatasource.scheduling.PrioritySchedulerConfig
+import com.example.modules.template_feature.data.remotedatasource.scheduling.RequestPriorityScheduler
+import com.example.modules.template_feature.data.remotedatasource.connectivity.ConnectivityMonitor
 import dagger.Module
 import dagger.Provides
 import dagger.hilt.InstallIn
+import dagger.hilt.android.qualifiers.ApplicationContext
 import dagger.hilt.components.SingletonComponent
 import kotlinx.serialization.json.Json
+import okhttp3.Cache
+import okhttp3.EventListener
 import okhttp3.MediaType.Companion.toMediaType
 import okhttp3.OkHttpClient
 import okhttp3.logging.HttpLoggingInterceptor
 import retrofit2.Retrofit
 import retrofit2.converter.kotlinx.serialization.asConverterFactory
+import java.io.File
+import java.util.Optional
 import java.util.concurrent.TimeUnit
+import javax.inject.Qualifier
 import javax.inject.Singleton
 
+/**
+ * Marks the module's own [OkHttpClient], [Retrofit] and [Cache], so they never
+ * clash with the unqualified ones a host app provides for itself.
+ */
+@Qualifier
+@Retention(AnnotationRetention.BINARY)
+internal annotation class TemplateFeatureNetwork
+
 @Module
 @InstallIn(SingletonComponent::class)
 object NetworkModule {
@@ -29,17 +59,114 @@ object NetworkModule {
     
     @Provides
     @Singleton
-    fun provideHttpLoggingInterceptor(): HttpLoggingInterceptor {
+    fun provideHttpLoggingInterceptor(@ApplicationContext context: Context): HttpLoggingInterceptor {
+        // The library's own BuildConfig says nothing about the host app, so ask the app
+        val debuggable = context.applicationInfo.flags and ApplicationInfo.FLAG_DEBUGGABLE != 0
         return HttpLoggingInterceptor().apply {
-            level = HttpLoggingInterceptor.Level.BODY
+            // BODY buffers every response in memory and puts payloads in logcat, so never in release
+            level = if (debuggable) HttpLoggingInterceptor.Level.BODY else HttpLoggingInterceptor.Level.NONE
+            redactHeader("Authorization")
+            redactHeader("Cookie")
         }
     }
     
     @Provides
     @Singleton
-    fun provideOkHttpClient(loggingInterceptor: HttpLoggingInterceptor): OkHttpClient {
-        return OkHttpClient.Builder()
+    fun provideNetworkMetricsRecorder(): NetworkMetricsRecorder {
+        return NetworkMetricsRecorder()
+    }
+    
+    @Provides
+    @Singleton
+    fun provideMetricsEventListenerFactory(
+        recorder: NetworkMetricsRecorder,
+        hostSinks: Set<@JvmSuppressWildcards NetworkMetricsSink>
+    ): MetricsEventListener.Factory {
+        return MetricsEventListener.Factory(listOf(recorder) + hostSinks)
+    }
+    
+    @Provides
+    @Singleton
+    fun provideHttpCacheConfig(@HostConfig hostConfig: Optional<HttpCacheConfig>): HttpCacheConfig {
+        return hostConfig.orElseGet { HttpCacheConfig() }
+    }
+    
+    @Provides
+    @Singleton
+    @TemplateFeatureNetwork
+    fun provideHttpCache(@ApplicationContext context: Context, config: HttpCacheConfig): Cache {
+        return Cache(File(context.cacheDir, HTTP_CACHE_DIRECTORY), config.maxSizeBytes)
+    }
+    
+    @Provides
+    @Singleton
+    fun provideHttpCachePolicyInterceptor(
+        connectivityMonitor: ConnectivityMonitor,
+        config: HttpCacheConfig
+    ): HttpCachePolicyInterceptor {
+        return HttpCachePolicyInterceptor(connectivityMonitor, config)
+    }
+    
+    @Provides
+    @Singleton
+    fun provideCallPolicyConfig(@HostConfig hostConfig: Optional<CallPolicyConfig>): CallPolicyConfig {
+        return hostConfig.orElseGet { CallPolicyConfig() }
+    }
+    
+    @Provides
+    @Singleton
+    fun provideCallPolicyInterceptor(config: CallPolicyConfig): CallPolicyInterceptor {
+        return CallPolicyInterceptor(config)
+    }
+    
+    @Provides
+    @Singleton
+    fun provideRateLimitConfig(@HostConfig hostConfig: Optional<RateLimitConfig>): RateLimitConfig {
+        return hostConfig.orElseGet { RateLimitConfig() }
+    }
+    
+    @Provides
+    @Singleton
+    fun provideRateLimitInterceptor(config: RateLimitConfig): RateLimitInterceptor {
+        return RateLimitInterceptor(config)
+    }
+    
+    @Provides
+    @Singleton
+    @TemplateFeatureNetwork
+    fun provideOkHttpClient(
+        @HostOkHttpClient hostClient: Optional<OkHttpClient>,
+        loggingInterceptor: HttpLoggingInterceptor,
+        @TemplateFeatureNetwork cache: Cache,
+        cachePolicyInterceptor: HttpCachePolicyInterceptor,
+        callPolicyInterceptor: CallPolicyInterceptor,
+        rateLimitInterceptor: RateLimitInterceptor,
+        metricsEventListenerFactory: MetricsEventListener.Factory
+    ): OkHttpClient {
+        // newBuilder() keeps the host's pool and dispatcher; everything set below only applies to this module.
+        // The host's interceptors are dropped, so its auth or body logging never sees the module's traffic
+        val builder = hostClient
+            .map { client ->
+                client.newBuilder().apply {
+                    interceptors().clear()
+                    networkInterceptors().clear()
+                }
+            }
+            .orElseGet { OkHttpClient.Builder() }
+        // The host's own listener keeps seeing these calls next to the module's metrics
+        val eventListenerFactory = hostClient
+            .map<EventListener.Factory> { CompositeEventListener.Factory(listOf(it.eventListenerFactory, metricsEventListenerFactory)) }
+            .orElse(metricsEventListenerFactory)
+        return builder
+            .cache(cache)
+            .eventListenerFactory(eventListenerFactory)
+            // Added first so it sees requests before, and responses after, everything else
+            .addInterceptor(cachePolicyInterceptor)
+            // Below the cache policy so cache-only requests never count toward the breaker
+            .addInterceptor(callPolicyInterceptor)
             .addInterceptor(loggingInterceptor)
+            // Pacing happens in provideRetrofit's call factory; this only feeds 429s back into the rate
+            .addNetworkInterceptor(rateLimitInterceptor)
             .connectTimeout(30, TimeUnit.SECONDS)
             .readTimeout(30, TimeUnit.SECONDS)
             .writeTimeout(30, TimeUnit.SECONDS)
@@ -48,17 +175,48 @@ object NetworkModule {
     
     @Provides
     @Singleton
-    fun provideRetrofit(okHttpClient: OkHttpClient, json: Json): Retrofit {
+    fun providePrioritySchedulerConfig(@HostConfig hostConfig: Optional<PrioritySchedulerConfig>): PrioritySchedulerConfig {
+        return hostConfig.orElseGet { PrioritySchedulerConfig() }
+    }
+    
+    @Provides
+    @Singleton
+    fun provideRequestPriorityScheduler(config: PrioritySchedulerConfig): RequestPriorityScheduler {
+        return RequestPriorityScheduler(config)
+    }
+    
+    @Provides
+    @Singleton
+    @TemplateFeatureNetwork
+    fun provideRetrofit(
+        @TemplateFeatureNetwork okHttpClient: OkHttpClient,
+        scheduler: RequestPriorityScheduler,
+        callPolicyInterceptor: CallPolicyInterceptor,
+        rateLimitInterceptor: RateLimitInterceptor,
+        json: Json
+    ): Retrofit {
+        val laneCallFactory = scheduler.callFactory(okHttpClient)
         return Retrofit.Builder()
             .baseUrl("https://api.example.com/")
-            .client(okHttpClient)
+            // Routes each call to the interactive or background lane of the same client,
+            // and sends every retry back through the rate limit and that lane instead of
+            // waiting inside it
+            .callFactory(callPolicyInterceptor.callFactory(rateLimitInterceptor.callFactory(laneCallFactory)))
             .addConverterFactory(json.asConverterFactory("application/json".toMediaType()))
             .build()
     }
     
     @Provides
     @Singleton
-    fun provideApiService(retrofit: Retrofit): TemplateFeatureApiService {
+    fun provideApiService(@TemplateFeatureNetwork retrofit: Retrofit): TemplateFeatureApiService {
         return retrofit.create(TemplateFeatureApiService::class.java)
     }
-}
\ No newline at end of file
+    
+    @Provides
+    @Singleton
+    fun provideConnectivityMonitor(@ApplicationContext context: Context): ConnectivityMonitor {
+        return AndroidConnectivityMonitor(context)
+    }
+    
+    private const val HTTP_CACHE_DIRECTORY = "template_feature_http_cache"
+}
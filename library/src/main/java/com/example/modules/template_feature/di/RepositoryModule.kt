@@ -1,31 +1,122 @@
 package com.example.modules.template_feature.di
 
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationDao
 import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
 import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeaturePreferences
+import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeatureValidatorStore
 import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.data.remotedatasource.connectivity.ConnectivityMonitor
 import com.example.modules.template_feature.data.repositories.TemplateFeatureRepositoryImpl
+import com.example.modules.template_feature.data.repositories.TemplateFeatureWriteCoalescer
+import com.example.modules.template_feature.data.sync.TemplateFeatureChangeStream
+import com.example.modules.template_feature.data.sync.TemplateFeatureOutbox
+import com.example.modules.template_feature.data.sync.TemplateFeatureStreamIngestor
+import com.example.modules.template_feature.data.sync.TemplateFeatureSyncConfig
 import com.example.modules.template_feature.domain.repositories.TemplateFeatureRepository
 import dagger.Module
 import dagger.Provides
 import dagger.hilt.InstallIn
 import dagger.hilt.components.SingletonComponent
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.serialization.json.Json
+import okhttp3.OkHttpClient
+import retrofit2.Retrofit
+import java.util.Optional
+import java.util.concurrent.TimeUnit
 import javax.inject.Singleton
 
 @Module
 @InstallIn(SingletonComponent::class)
 object RepositoryModule {
     
+    @Provides
+    @Singleton
+    fun provideSyncConfig(@HostConfig hostConfig: Optional<TemplateFeatureSyncConfig>): TemplateFeatureSyncConfig {
+        return hostConfig.orElseGet { TemplateFeatureSyncConfig() }
+    }
+    
+    @Provides
+    @Singleton
+    fun provideStreamIngestor(json: Json, dao: TemplateFeatureDao): TemplateFeatureStreamIngestor {
+        return TemplateFeatureStreamIngestor(json, dao)
+    }
+    
+    @Provides
+    @Singleton
+    fun provideOutbox(
+        apiService: TemplateFeatureApiService,
+        pendingOperationDao: PendingOperationDao,
+        syncConfig: TemplateFeatureSyncConfig,
+        connectivityMonitor: ConnectivityMonitor,
+        @TemplateFeatureScope scope: CoroutineScope
+    ): TemplateFeatureOutbox {
+        return TemplateFeatureOutbox(apiService, pendingOperationDao, syncConfig, connectivityMonitor, scope)
+    }
+    
+    @Provides
+    @Singleton
+    fun provideWriteCoalescer(
+        apiService: TemplateFeatureApiService,
+        @TemplateFeatureScope scope: CoroutineScope,
+        syncConfig: TemplateFeatureSyncConfig
+    ): TemplateFeatureWriteCoalescer {
+        return TemplateFeatureWriteCoalescer(apiService, scope, syncConfig.writeCoalescingWindowMs)
+    }
+    
+    @Provides
+    @Singleton
+    fun provideChangeStream(
+        @TemplateFeatureNetwork okHttpClient: OkHttpClient,
+        json: Json,
+        @TemplateFeatureNetwork retrofit: Retrofit,
+        dao: TemplateFeatureDao,
+        outbox: TemplateFeatureOutbox,
+        preferences: TemplateFeaturePreferences,
+        connectivityMonitor: ConnectivityMonitor,
+        @TemplateFeatureScope scope: CoroutineScope,
+        syncConfig: TemplateFeatureSyncConfig,
+        repository: TemplateFeatureRepository
+    ): TemplateFeatureChangeStream {
+        return TemplateFeatureChangeStream(
+            // Pings notice a dead connection that would otherwise look idle
+            client = okHttpClient.newBuilder().pingInterval(30, TimeUnit.SECONDS).build(),
+            json = json,
+            streamUrl = retrofit.baseUrl().resolve("template-features/stream")!!,
+            dao = dao,
+            outbox = outbox,
+            preferences = preferences,
+            connectivityMonitor = connectivityMonitor,
+            scope = scope,
+            syncConfig = syncConfig,
+            catchUp = { repository.syncWithRemote().map { } }
+        )
+    }
+    
     @Provides
     @Singleton
     fun provideTemplateFeatureRepository(
         apiService: TemplateFeatureApiService,
         dao: TemplateFeatureDao,
-        preferences: TemplateFeaturePreferences
+        preferences: TemplateFeaturePreferences,
+        validatorStore: TemplateFeatureValidatorStore,
+        streamIngestor: TemplateFeatureStreamIngestor,
+        outbox: TemplateFeatureOutbox,
+        writeCoalescer: TemplateFeatureWriteCoalescer,
+        connectivityMonitor: ConnectivityMonitor,
+        @TemplateFeatureScope scope: CoroutineScope,
+        syncConfig: TemplateFeatureSyncConfig
     ): TemplateFeatureRepository {
         return TemplateFeatureRepositoryImpl(
             apiService = apiService,
             dao = dao,
-            preferences = preferences
+            preferences = preferences,
+            validatorStore = validatorStore,
+            streamIngestor = streamIngestor,
+            outbox = outbox,
+            writeCoalescer = writeCoalescer,
+            connectivityMonitor = connectivityMonitor,
+            scope = scope,
+            syncConfig = syncConfig
         )
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.example.modules.template_feature.di
+
+/**
+ * Picks the next background sync interval from what the last sync found:
+ * data that keeps changing is checked at the minimum interval, quiet data
+ * gets checked half as often each time up to the maximum.
+ */
+internal object SyncIntervalPolicy {
+
+    fun nextIntervalMinutes(
+        currentIntervalMinutes: Long,
+        lastChangeCount: Int,
+        config: BackgroundSyncConfig
+    ): Long {
+        val next = if (lastChangeCount > 0) {
+            config.minIntervalMinutes
+        } else {
+            currentIntervalMinutes * 2
+        }
+        return next.coerceIn(config.minIntervalMinutes, config.maxIntervalMinutes.coerceAtLeast(config.minIntervalMinutes))
+    }
+}
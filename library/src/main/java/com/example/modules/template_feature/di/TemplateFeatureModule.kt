@@ -6,7 +6,11 @@ import dagger.hilt.components.SingletonComponent
 
 @Module(
     includes = [
+        BackgroundSyncModule::class,
+        CoroutinesModule::class,
         DatabaseModule::class,
+        HostNetworkModule::class,
+        NetworkMetricsModule::class,
         NetworkModule::class,
         RepositoryModule::class
     ]
@@ -0,0 +1,65 @@
+package com.example.modules.template_feature.di
+
+import androidx.work.BackoffPolicy
+import androidx.work.Constraints
+import androidx.work.ExistingPeriodicWorkPolicy
+import androidx.work.NetworkType
+import androidx.work.PeriodicWorkRequestBuilder
+import androidx.work.WorkManager
+import java.util.concurrent.TimeUnit
+
+/**
+ * Schedules [TemplateFeatureSyncWorker] as unique periodic work, so repeated
+ * schedule calls and interval changes replace the existing request instead of
+ * stacking new ones.
+ */
+class TemplateFeatureSyncScheduler(
+    private val workManager: WorkManager
+) {
+
+    fun schedule(config: BackgroundSyncConfig = BackgroundSyncConfig()) {
+        enqueue(config, config.minIntervalMinutes)
+    }
+
+    fun cancel() {
+        workManager.cancelUniqueWork(WORK_NAME)
+    }
+
+    /**
+     * Re-enqueues the periodic work with an interval adapted to how much the
+     * last sync changed. Leaves the schedule alone when the interval stays the same.
+     */
+    internal fun adapt(config: BackgroundSyncConfig, currentIntervalMinutes: Long, lastChangeCount: Int) {
+        val nextInterval = SyncIntervalPolicy.nextIntervalMinutes(currentIntervalMinutes, lastChangeCount, config)
+        if (nextInterval != currentIntervalMinutes) {
+            enqueue(config, nextInterval)
+        }
+    }
+
+    private fun enqueue(config: BackgroundSyncConfig, intervalMinutes: Long) {
+        val constraints = Constraints.Builder()
+            .setRequiredNetworkType(
+                if (config.requiresUnmeteredNetwork) NetworkType.UNMETERED else NetworkType.CONNECTED
+            )
+            .setRequiresBatteryNotLow(config.requiresBatteryNotLow)
+            .setRequiresCharging(config.requiresCharging)
+            .setRequiresDeviceIdle(config.requiresDeviceIdle)
+            .build()
+        
+        val request = PeriodicWorkRequestBuilder<TemplateFeatureSyncWorker>(intervalMinutes, TimeUnit.MINUTES)
+            .setConstraints(constraints)
+            .setInputData(config.toInputData(intervalMinutes))
+            .apply {
+                if (!config.requiresDeviceIdle) {
+                    setBackoffCriteria(BackoffPolicy.EXPONENTIAL, config.initialBackoffSeconds, TimeUnit.SECONDS)
+                }
+            }
+            .build()
+        
+        workManager.enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.UPDATE, request)
+    }
+
+    companion object {
+        const val WORK_NAME = "template_feature_periodic_sync"
+    }
+}
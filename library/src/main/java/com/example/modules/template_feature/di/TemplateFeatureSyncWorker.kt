@@ -0,0 +1,52 @@
+package com.example.modules.template_feature.di
+
+import android.content.Context
+import androidx.work.CoroutineWorker
+import androidx.work.WorkerParameters
+import com.example.modules.template_feature.domain.usecases.SyncTemplateFeatureUseCase
+import dagger.hilt.EntryPoint
+import dagger.hilt.InstallIn
+import dagger.hilt.android.EntryPointAccessors
+import dagger.hilt.components.SingletonComponent
+
+/**
+ * Runs one sync per period. Dependencies come from a Hilt entry point so the
+ * host app does not have to install a custom WorkerFactory.
+ */
+class TemplateFeatureSyncWorker(
+    context: Context,
+    params: WorkerParameters
+) : CoroutineWorker(context, params) {
+
+    @EntryPoint
+    @InstallIn(SingletonComponent::class)
+    interface SyncWorkerEntryPoint {
+        fun syncTemplateFeatureUseCase(): SyncTemplateFeatureUseCase
+        fun templateFeatureSyncScheduler(): TemplateFeatureSyncScheduler
+    }
+
+    override suspend fun doWork(): Result {
+        val entryPoint = EntryPointAccessors.fromApplication(applicationContext, SyncWorkerEntryPoint::class.java)
+        val syncUseCase = entryPoint.syncTemplateFeatureUseCase()
+        
+        return syncUseCase.syncWithRemote().fold(
+            onSuccess = { changeCount ->
+                val config = BackgroundSyncConfig.fromInputData(inputData)
+                // This run's own count; the shared sync state may already belong to another sync
+                entryPoint.templateFeatureSyncScheduler().adapt(
+                    config = config,
+                    currentIntervalMinutes = BackgroundSyncConfig.intervalFromInputData(inputData, config),
+                    lastChangeCount = changeCount
+                )
+                Result.success()
+            },
+            onFailure = {
+                if (runAttemptCount < MAX_RETRIES) Result.retry() else Result.failure()
+            }
+        )
+    }
+
+    companion object {
+        private const val MAX_RETRIES = 5
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.modules.template_feature.domain.models
+
+data class CacheFreshness(
+    // Null until the first successful sync
+    val lastSyncTime: Long?,
+    val isStale: Boolean,
+    val isRefreshing: Boolean
+)
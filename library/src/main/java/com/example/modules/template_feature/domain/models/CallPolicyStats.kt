@@ -0,0 +1,20 @@
+package com.example.modules.template_feature.domain.models
+
+enum class CircuitState {
+    CLOSED,
+    
+    // Calls fail fast without touching the network
+    OPEN,
+    
+    // The cool-down has passed and a single probe call decides whether to close again
+    HALF_OPEN
+}
+
+data class EndpointCallStats(
+    val state: CircuitState = CircuitState.CLOSED,
+    val consecutiveFailures: Int = 0,
+    val attempts: Int = 0,
+    val retries: Int = 0,
+    // Calls rejected while the circuit was open
+    val shortCircuited: Int = 0
+)
@@ -0,0 +1,13 @@
+package com.example.modules.template_feature.domain.models
+
+data class HttpCacheStats(
+    // Served from disk without touching the network
+    val hits: Int = 0,
+    // Revalidated with the server, which answered 304
+    val conditionalHits: Int = 0,
+    // Had to download the body, or nothing usable was cached while offline
+    val misses: Int = 0
+) {
+    val requests: Int
+        get() = hits + conditionalHits + misses
+}
@@ -0,0 +1,10 @@
+package com.example.modules.template_feature.domain.models
+
+data class RateLimitStats(
+    val permitsPerSecond: Double = 0.0,
+    val requests: Int = 0,
+    // Requests that had to wait for a token
+    val delayed: Int = 0,
+    val totalWaitMs: Long = 0,
+    val tooManyRequests: Int = 0
+)
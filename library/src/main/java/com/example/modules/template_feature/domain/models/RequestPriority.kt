@@ -0,0 +1,9 @@
+package com.example.modules.template_feature.domain.models
+
+enum class RequestPriority {
+    // Something the user is waiting on: detail loads, search, writes
+    INTERACTIVE,
+    
+    // Sync downloads that can wait or pause
+    BACKGROUND
+}
@@ -0,0 +1,12 @@
+package com.example.modules.template_feature.domain.models
+
+enum class SearchMode {
+    // Full-text search over the rows already in Room; works offline
+    LOCAL,
+    
+    // The server's search endpoint
+    REMOTE,
+    
+    // Local whenever Room holds every feature or the device is offline, remote otherwise
+    AUTO
+}
@@ -0,0 +1,34 @@
+package com.example.modules.template_feature.domain.models
+
+data class SyncProgress(
+    val phase: SyncPhase,
+    val bytesReceived: Long = 0,
+    val rowsApplied: Int = 0,
+    // Null until the server or the response size gives something to estimate from
+    val estimatedTotalRows: Int? = null,
+    // Time spent in each phase so far; a phase entered more than once accumulates
+    val phaseDurationsMs: Map<SyncPhase, Long> = emptyMap(),
+    val error: Throwable? = null
+) {
+    val fraction: Float?
+        get() = estimatedTotalRows?.takeIf { it > 0 }?.let { total ->
+            (rowsApplied.toFloat() / total).coerceIn(0f, 1f)
+        }
+    
+    val isFinished: Boolean
+        get() = phase == SyncPhase.COMPLETED || phase == SyncPhase.FAILED
+}
+
+enum class SyncPhase {
+    // Waiting on the server
+    FETCH,
+    
+    // Decoding a streamed response
+    DECODE,
+    
+    // Writing rows to Room
+    WRITE,
+    
+    COMPLETED,
+    FAILED
+}
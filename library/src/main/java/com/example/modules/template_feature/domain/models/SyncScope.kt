@@ -0,0 +1,9 @@
+package com.example.modules.template_feature.domain.models
+
+enum class SyncScope {
+    // Only active features, which is all the default list shows
+    ACTIVE,
+    
+    // Active and inactive features, once someone has asked to see inactive ones
+    ALL
+}
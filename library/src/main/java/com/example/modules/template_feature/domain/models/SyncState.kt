@@ -0,0 +1,11 @@
+package com.example.modules.template_feature.domain.models
+
+data class SyncState(
+    val isSyncing: Boolean = false,
+    // A request arrived mid-sync and another run will start once this one ends
+    val hasQueuedSync: Boolean = false,
+    val lastError: Throwable? = null,
+    // Rows the last successful sync added, changed or removed
+    val lastChangeCount: Int = 0,
+    val completedSyncs: Int = 0
+)
@@ -0,0 +1,12 @@
+package com.example.modules.template_feature.domain.models
+
+enum class SyncStatus {
+    // Matches the server copy
+    SYNCED,
+    
+    // Changed locally, waiting for the server to confirm
+    PENDING,
+    
+    // The server refused the local change and no server copy could replace it
+    REJECTED
+}
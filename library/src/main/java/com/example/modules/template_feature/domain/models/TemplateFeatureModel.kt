@@ -5,7 +5,8 @@ data class TemplateFeatureModel(
     val title: String,
     val description: String,
     val isActive: Boolean,
-    val createdAt: String
+    val createdAt: String,
+    val syncStatus: SyncStatus = SyncStatus.SYNCED
 ) {
     companion object {
         fun empty() = TemplateFeatureModel(
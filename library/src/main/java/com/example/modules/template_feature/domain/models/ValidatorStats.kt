@@ -0,0 +1,20 @@
+package com.example.modules.template_feature.domain.models
+
+data class ValidatorStats(
+    // Requests sent with If-None-Match or If-Modified-Since
+    val conditionalRequests: Int = 0,
+    val notModified: Int = 0,
+    // Size of the bodies a 304 let us skip, as recorded from the last full response
+    val bytesSaved: Long = 0
+) {
+    val hitRate: Float
+        get() = if (conditionalRequests == 0) 0f else notModified.toFloat() / conditionalRequests
+}
+
+enum class ValidatedEndpoint {
+    // The full template-features list, streamed or paged by a full sync
+    LIST,
+    
+    // template-features/{id}
+    DETAIL
+}
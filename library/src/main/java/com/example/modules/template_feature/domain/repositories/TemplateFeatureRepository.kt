@@ -1,7 +1,14 @@
 package com.example.modules.template_feature.domain.repositories
 
+import com.example.modules.template_feature.domain.models.CacheFreshness
+import com.example.modules.template_feature.domain.models.SearchMode
+import com.example.modules.template_feature.domain.models.SyncProgress
+import com.example.modules.template_feature.domain.models.SyncState
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
+import com.example.modules.template_feature.domain.models.ValidatedEndpoint
+import com.example.modules.template_feature.domain.models.ValidatorStats
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.StateFlow
 
 interface TemplateFeatureRepository {
     
@@ -17,7 +24,35 @@ interface TemplateFeatureRepository {
     
     suspend fun deleteTemplateFeature(id: String): Result<Unit>
     
-    suspend fun syncWithRemote(): Result<Unit>
+    /**
+     * Returns how many local rows the sync changed.
+     */
+    suspend fun syncWithRemote(): Result<Int>
     
-    suspend fun searchTemplateFeatures(query: String): Result<List<TemplateFeatureModel>>
+    fun observeSyncState(): StateFlow<SyncState>
+    
+    /**
+     * Runs a sync like [syncWithRemote] and emits its progress, ending with a
+     * COMPLETED or FAILED update.
+     */
+    fun syncWithProgress(): Flow<SyncProgress>
+    
+    fun observeSyncProgress(): Flow<SyncProgress>
+    
+    fun observeCacheFreshness(): Flow<CacheFreshness>
+    
+    /**
+     * How often conditional requests were answered with 304, per endpoint.
+     */
+    fun observeValidatorStats(): StateFlow<Map<ValidatedEndpoint, ValidatorStats>>
+    
+    suspend fun searchTemplateFeatures(
+        query: String,
+        mode: SearchMode = SearchMode.REMOTE
+    ): Result<List<TemplateFeatureModel>>
+    
+    /**
+     * Ranked prefix search over the features stored locally. Re-emits as rows change.
+     */
+    fun searchTemplateFeaturesLocally(query: String): Flow<List<TemplateFeatureModel>>
 }
\ No newline at end of file
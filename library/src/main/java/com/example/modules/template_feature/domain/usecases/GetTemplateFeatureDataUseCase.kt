@@ -1,5 +1,6 @@
 package com.example.modules.template_feature.domain.usecases
 
+import com.example.modules.template_feature.domain.models.SearchMode
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
 import com.example.modules.template_feature.domain.repositories.TemplateFeatureRepository
 import kotlinx.coroutines.flow.Flow
@@ -23,7 +24,7 @@ class GetTemplateFeatureDataUseCase(
         return if (query.isBlank()) {
             Result.failure(IllegalArgumentException("Search query cannot be empty"))
         } else {
-            repository.searchTemplateFeatures(query.trim())
+            repository.searchTemplateFeatures(query.trim(), SearchMode.AUTO)
         }
     }
 }
\ No newline at end of file
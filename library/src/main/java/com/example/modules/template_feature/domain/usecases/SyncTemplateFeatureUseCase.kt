@@ -1,11 +1,38 @@
 package com.example.modules.template_feature.domain.usecases
 
+import com.example.modules.template_feature.domain.models.CacheFreshness
+import com.example.modules.template_feature.domain.models.SyncProgress
+import com.example.modules.template_feature.domain.models.SyncState
+import com.example.modules.template_feature.domain.models.ValidatedEndpoint
+import com.example.modules.template_feature.domain.models.ValidatorStats
 import com.example.modules.template_feature.domain.repositories.TemplateFeatureRepository
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.StateFlow
 
 class SyncTemplateFeatureUseCase(
     private val repository: TemplateFeatureRepository
 ) {
-    suspend fun syncWithRemote(): Result<Unit> {
+    suspend fun syncWithRemote(): Result<Int> {
         return repository.syncWithRemote()
     }
+    
+    fun syncWithProgress(): Flow<SyncProgress> {
+        return repository.syncWithProgress()
+    }
+    
+    fun observeSyncProgress(): Flow<SyncProgress> {
+        return repository.observeSyncProgress()
+    }
+    
+    fun observeSyncState(): StateFlow<SyncState> {
+        return repository.observeSyncState()
+    }
+    
+    fun observeCacheFreshness(): Flow<CacheFreshness> {
+        return repository.observeCacheFreshness()
+    }
+    
+    fun observeValidatorStats(): StateFlow<Map<ValidatedEndpoint, ValidatorStats>> {
+        return repository.observeValidatorStats()
+    }
 }
\ No newline at end of file
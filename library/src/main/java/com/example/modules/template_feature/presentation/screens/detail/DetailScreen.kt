@@ -13,6 +13,7 @@ import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.unit.dp
 import androidx.hilt.navigation.compose.hiltViewModel
 import androidx.compose.runtime.collectAsState
+import com.example.modules.template_feature.presentation.sharedcomponents.labels.SyncStatusLabel
 
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
@@ -253,6 +254,8 @@ fun DetailContent(
                 )
             }
             
+            SyncStatusLabel(syncStatus = feature.syncStatus)
+            
             if (feature.createdAt.isNotEmpty()) {
                 Text(
                     text = "Created: ${feature.createdAt}",
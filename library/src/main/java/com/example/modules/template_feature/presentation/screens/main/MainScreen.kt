@@ -47,6 +47,8 @@ fun MainScreen(
         MainHeader(
             searchQuery = state.searchQuery,
             showOnlyActive = state.showOnlyActive,
+            cacheFreshness = state.cacheFreshness,
+            syncProgress = state.syncProgress,
             onSearchQueryChanged = viewModel::searchFeatures,
             onToggleActiveFilter = viewModel::toggleShowOnlyActive,
             onRefresh = viewModel::refreshData,
@@ -98,6 +100,8 @@ fun MainScreenPreview(
         MainHeader(
             searchQuery = state.searchQuery,
             showOnlyActive = state.showOnlyActive,
+            cacheFreshness = state.cacheFreshness,
+            syncProgress = state.syncProgress,
             onSearchQueryChanged = onSearchQueryChanged,
             onToggleActiveFilter = onToggleActiveFilter,
             onRefresh = onRefresh,
@@ -1,5 +1,7 @@
 package com.example.modules.template_feature.presentation.screens.main
 
+import com.example.modules.template_feature.domain.models.CacheFreshness
+import com.example.modules.template_feature.domain.models.SyncProgress
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
 
 data class MainState(
@@ -8,9 +10,19 @@ data class MainState(
     val error: String? = null,
     val isRefreshing: Boolean = false,
     val searchQuery: String = "",
-    val showOnlyActive: Boolean = true
+    val showOnlyActive: Boolean = true,
+    val cacheFreshness: CacheFreshness? = null,
+    val syncProgress: SyncProgress? = null,
+    val searchStats: SearchRequestStats = SearchRequestStats()
 ) {
     val hasData: Boolean get() = templateFeatures.isNotEmpty()
     val hasError: Boolean get() = error != null
     val isEmpty: Boolean get() = !isLoading && !hasError && templateFeatures.isEmpty()
-}
\ No newline at end of file
+}
+
+data class SearchRequestStats(
+    // Queries that reached the search use case
+    val sent: Int = 0,
+    // Keystrokes absorbed by debouncing, deduplication or the minimum length
+    val suppressed: Int = 0
+)
\ No newline at end of file
@@ -2,15 +2,30 @@ package com.example.modules.template_feature.presentation.screens.main
 
 import androidx.lifecycle.ViewModel
 import androidx.lifecycle.viewModelScope
+import com.example.modules.template_feature.domain.models.SyncPhase
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
 import com.example.modules.template_feature.domain.usecases.GetTemplateFeatureDataUseCase
 import com.example.modules.template_feature.domain.usecases.SaveTemplateFeatureDataUseCase
 import com.example.modules.template_feature.domain.usecases.SyncTemplateFeatureUseCase
 import dagger.hilt.android.lifecycle.HiltViewModel
+import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.FlowPreview
+import kotlinx.coroutines.channels.BufferOverflow
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableSharedFlow
 import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.StateFlow
 import kotlinx.coroutines.flow.asStateFlow
 import kotlinx.coroutines.flow.catch
+import kotlinx.coroutines.flow.collect
+import kotlinx.coroutines.flow.combine
+import kotlinx.coroutines.flow.debounce
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.emitAll
+import kotlinx.coroutines.flow.flatMapLatest
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onStart
 import kotlinx.coroutines.launch
 import javax.inject.Inject
 
@@ -24,39 +39,55 @@ class MainViewModel @Inject constructor(
     private val _state = MutableStateFlow(MainState())
     val state: StateFlow<MainState> = _state.asStateFlow()
 
+    // Only the latest keystroke matters, and it must survive until the pipeline subscribes
+    private val searchQueries = MutableSharedFlow<String>(replay = 1, onBufferOverflow = BufferOverflow.DROP_OLDEST)
+    // Bumped to reload whatever is on screen; the pipeline below is the only thing that collects features
+    private val reloads = MutableStateFlow(0)
+    private var searchQueriesReceived = 0
+    private var searchRequestsSent = 0
+
     init {
-        loadTemplateFeatures()
+        observeCacheFreshness()
+        observeFeatures()
     }
 
+    /**
+     * Reloads the list, or re-runs the current search while one is shown.
+     */
     fun loadTemplateFeatures() {
-        viewModelScope.launch {
+        reloads.value++
+    }
+
+    private fun featureUpdates(): Flow<Unit> {
+        return flow {
             _state.value = _state.value.copy(isLoading = true, error = null)
-            
-            try {
-                val featuresFlow = if (_state.value.showOnlyActive) {
-                    getTemplateFeatureDataUseCase.getActiveFeatures()
-                } else {
-                    getTemplateFeatureDataUseCase.getAllFeatures()
-                }
-                
-                featuresFlow.catch { exception ->
-                    _state.value = _state.value.copy(
-                        isLoading = false,
-                        error = exception.message ?: "Unknown error occurred"
-                    )
-                }.collect { features ->
-                    _state.value = _state.value.copy(
-                        isLoading = false,
-                        templateFeatures = features,
-                        error = null
-                    )
-                }
-            } catch (exception: Exception) {
-                _state.value = _state.value.copy(
-                    isLoading = false,
-                    error = exception.message ?: "Unknown error occurred"
-                )
+            val featuresFlow = if (_state.value.showOnlyActive) {
+                getTemplateFeatureDataUseCase.getActiveFeatures()
+            } else {
+                getTemplateFeatureDataUseCase.getAllFeatures()
             }
+            emitAll(featuresFlow)
+        }.map { features ->
+            _state.value = _state.value.copy(
+                isLoading = false,
+                templateFeatures = features,
+                error = null
+            )
+        }.catch { exception ->
+            _state.value = _state.value.copy(
+                isLoading = false,
+                error = exception.message ?: "Unknown error occurred"
+            )
+        }
+    }
+
+    private fun observeCacheFreshness() {
+        viewModelScope.launch {
+            syncTemplateFeatureUseCase.observeCacheFreshness()
+                .catch { /* Freshness is informational only */ }
+                .collect { freshness ->
+                    _state.value = _state.value.copy(cacheFreshness = freshness)
+                }
         }
     }
 
@@ -64,16 +95,20 @@ class MainViewModel @Inject constructor(
         viewModelScope.launch {
             _state.value = _state.value.copy(isRefreshing = true)
             
-            syncTemplateFeatureUseCase.syncWithRemote()
-                .onSuccess {
-                    loadTemplateFeatures()
-                }
-                .onFailure { exception ->
-                    _state.value = _state.value.copy(
-                        isRefreshing = false,
-                        error = exception.message ?: "Sync failed"
+            // Rows land in Room batch by batch, so the list keeps updating while this runs
+            syncTemplateFeatureUseCase.syncWithProgress().collect { progress ->
+                _state.value = _state.value.copy(
+                    isRefreshing = !progress.isFinished,
+                    syncProgress = progress
+                )
+                when (progress.phase) {
+                    SyncPhase.COMPLETED -> loadTemplateFeatures()
+                    SyncPhase.FAILED -> _state.value = _state.value.copy(
+                        error = progress.error?.message ?: "Sync failed"
                     )
+                    else -> Unit
                 }
+            }
             
             _state.value = _state.value.copy(isRefreshing = false)
         }
@@ -81,32 +116,66 @@ class MainViewModel @Inject constructor(
 
     fun searchFeatures(query: String) {
         _state.value = _state.value.copy(searchQuery = query)
-        
-        if (query.isBlank()) {
-            loadTemplateFeatures()
-            return
-        }
-        
+        searchQueriesReceived++
+        publishSearchStats()
+        searchQueries.tryEmit(query)
+    }
+
+    @OptIn(FlowPreview::class, ExperimentalCoroutinesApi::class)
+    private fun observeFeatures() {
+        val queries = searchQueries
+            // Clearing the field should restore the list at once; typing waits for a pause
+            .debounce { query -> if (query.isBlank()) 0L else SEARCH_DEBOUNCE_MS }
+            .map { query -> query.trim().takeIf { it.length >= MIN_SEARCH_QUERY_LENGTH }.orEmpty() }
+            // The list is already showing, so a first keystroke too short to search changes nothing
+            .onStart { emit("") }
+            .distinctUntilChanged()
         viewModelScope.launch {
-            _state.value = _state.value.copy(isLoading = true, error = null)
-            
-            getTemplateFeatureDataUseCase.searchFeatures(query)
-                .onSuccess { features ->
-                    _state.value = _state.value.copy(
-                        isLoading = false,
-                        templateFeatures = features,
-                        error = null
-                    )
-                }
-                .onFailure { exception ->
-                    _state.value = _state.value.copy(
-                        isLoading = false,
-                        error = exception.message ?: "Search failed"
-                    )
+            combine(queries, reloads) { query, _ -> query }
+                // Only one of the list and the search is collected at a time, so a table change
+                // never overwrites search results and a newer query cancels the search in flight
+                .flatMapLatest { query ->
+                    if (query.isEmpty()) {
+                        featureUpdates()
+                    } else {
+                        flow {
+                            searchRequestsSent++
+                            publishSearchStats()
+                            _state.value = _state.value.copy(isLoading = true, error = null)
+                            emit(getTemplateFeatureDataUseCase.searchFeatures(query))
+                        }.map { result -> showSearchResult(result) }
+                    }
                 }
+                .collect()
         }
     }
 
+    private fun showSearchResult(result: Result<List<TemplateFeatureModel>>) {
+        result
+            .onSuccess { features ->
+                _state.value = _state.value.copy(
+                    isLoading = false,
+                    templateFeatures = features,
+                    error = null
+                )
+            }
+            .onFailure { exception ->
+                _state.value = _state.value.copy(
+                    isLoading = false,
+                    error = exception.message ?: "Search failed"
+                )
+            }
+    }
+
+    private fun publishSearchStats() {
+        _state.value = _state.value.copy(
+            searchStats = SearchRequestStats(
+                sent = searchRequestsSent,
+                suppressed = searchQueriesReceived - searchRequestsSent
+            )
+        )
+    }
+
     fun toggleShowOnlyActive() {
         _state.value = _state.value.copy(
             showOnlyActive = !_state.value.showOnlyActive
@@ -132,4 +201,9 @@ class MainViewModel @Inject constructor(
     fun clearError() {
         _state.value = _state.value.copy(error = null)
     }
+
+    companion object {
+        const val SEARCH_DEBOUNCE_MS = 300L
+        const val MIN_SEARCH_QUERY_LENGTH = 2
+    }
 }
\ No newline at end of file
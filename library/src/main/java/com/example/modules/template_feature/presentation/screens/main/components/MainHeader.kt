@@ -1,5 +1,6 @@
 package com.example.modules.template_feature.presentation.screens.main.components
 
+import android.text.format.DateUtils
 import androidx.compose.foundation.layout.*
 import androidx.compose.material.icons.Icons
 import androidx.compose.material.icons.filled.Check
@@ -10,6 +11,8 @@ import androidx.compose.runtime.*
 import androidx.compose.ui.Alignment
 import androidx.compose.ui.Modifier
 import androidx.compose.ui.unit.dp
+import com.example.modules.template_feature.domain.models.CacheFreshness
+import com.example.modules.template_feature.domain.models.SyncProgress
 
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
@@ -19,7 +22,9 @@ fun MainHeader(
     onSearchQueryChanged: (String) -> Unit,
     onToggleActiveFilter: () -> Unit,
     onRefresh: () -> Unit,
-    modifier: Modifier = Modifier
+    modifier: Modifier = Modifier,
+    cacheFreshness: CacheFreshness? = null,
+    syncProgress: SyncProgress? = null
 ) {
     Column(modifier = modifier) {
         // Title and refresh button
@@ -41,6 +46,38 @@ fun MainHeader(
             }
         }
         
+        // Cache age
+        if (cacheFreshness != null) {
+            val lastSyncTime = cacheFreshness.lastSyncTime
+            Text(
+                text = when {
+                    cacheFreshness.isRefreshing -> "Refreshing..."
+                    lastSyncTime == null -> "Not synced yet"
+                    else -> "Updated ${DateUtils.getRelativeTimeSpanString(lastSyncTime)}"
+                },
+                style = MaterialTheme.typography.labelSmall,
+                color = if (cacheFreshness.isStale && !cacheFreshness.isRefreshing) {
+                    MaterialTheme.colorScheme.error
+                } else {
+                    MaterialTheme.colorScheme.outline
+                }
+            )
+        }
+        
+        // Sync progress
+        if (syncProgress != null && !syncProgress.isFinished) {
+            Spacer(modifier = Modifier.height(4.dp))
+            val fraction = syncProgress.fraction
+            if (fraction != null) {
+                LinearProgressIndicator(
+                    progress = { fraction },
+                    modifier = Modifier.fillMaxWidth()
+                )
+            } else {
+                LinearProgressIndicator(modifier = Modifier.fillMaxWidth())
+            }
+        }
+        
         Spacer(modifier = Modifier.height(16.dp))
         
         // Search bar
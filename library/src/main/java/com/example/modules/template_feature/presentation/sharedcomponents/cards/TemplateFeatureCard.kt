@@ -13,6 +13,7 @@ import androidx.compose.ui.text.font.FontWeight
 import androidx.compose.ui.text.style.TextOverflow
 import androidx.compose.ui.unit.dp
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
+import com.example.modules.template_feature.presentation.sharedcomponents.labels.SyncStatusLabel
 
 @OptIn(ExperimentalMaterial3Api::class)
 @Composable
@@ -118,6 +119,8 @@ fun TemplateFeatureCard(
                     )
                 )
                 
+                SyncStatusLabel(syncStatus = templateFeature.syncStatus)
+                
                 // Created date
                 if (templateFeature.createdAt.isNotEmpty()) {
                     Text(
@@ -0,0 +1,30 @@
+package com.example.modules.template_feature.presentation.sharedcomponents.labels
+
+import androidx.compose.material3.MaterialTheme
+import androidx.compose.material3.Text
+import androidx.compose.runtime.Composable
+import androidx.compose.ui.Modifier
+import com.example.modules.template_feature.domain.models.SyncStatus
+
+@Composable
+fun SyncStatusLabel(
+    syncStatus: SyncStatus,
+    modifier: Modifier = Modifier
+) {
+    // Synced rows are the normal case and need no label
+    when (syncStatus) {
+        SyncStatus.SYNCED -> Unit
+        SyncStatus.PENDING -> Text(
+            text = "Waiting to sync",
+            style = MaterialTheme.typography.labelSmall,
+            color = MaterialTheme.colorScheme.outline,
+            modifier = modifier
+        )
+        SyncStatus.REJECTED -> Text(
+            text = "Not saved on server",
+            style = MaterialTheme.typography.labelSmall,
+            color = MaterialTheme.colorScheme.error,
+            modifier = modifier
+        )
+    }
+}
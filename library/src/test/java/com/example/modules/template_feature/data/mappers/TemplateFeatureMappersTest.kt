@@ -149,6 +149,28 @@ class TemplateFeatureMappersTest {
         assertThat(entity.createdAt).isEqualTo("2023-01-01T00:00:00Z")
     }
 
+    @Test
+    fun `TemplateFeatureResponseDto toEntity should keep server timestamp and match model content hash`() {
+        // Arrange
+        val dto = TemplateFeatureResponseDto(
+            id = "1",
+            title = "Test Feature",
+            description = "Test Description",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z",
+            updatedAt = 1_672_531_200_000L
+        )
+
+        // Act
+        val entity = dto.toEntity()
+        val changedEntity = dto.copy(description = "Changed Description").toEntity()
+
+        // Assert
+        assertThat(entity.lastUpdated).isEqualTo(1_672_531_200_000L)
+        assertThat(entity.contentHash).isEqualTo(dto.toDomainModel().toEntity().contentHash)
+        assertThat(changedEntity.contentHash).isNotEqualTo(entity.contentHash)
+    }
+
     @Test
     fun `List mappers should handle empty lists correctly`() {
         // Arrange
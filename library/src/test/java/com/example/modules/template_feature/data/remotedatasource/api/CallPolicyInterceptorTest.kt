@@ -0,0 +1,208 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import com.example.modules.template_feature.domain.models.CircuitState
+import com.google.common.truth.Truth.assertThat
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.MediaType.Companion.toMediaType
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.RequestBody.Companion.toRequestBody
+import okhttp3.Response
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.io.IOException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class CallPolicyInterceptorTest {
+
+    private lateinit var server: MockWebServer
+    private lateinit var interceptor: CallPolicyInterceptor
+    private lateinit var client: OkHttpClient
+    private lateinit var callFactory: Call.Factory
+    private val sleeps = mutableListOf<Long>()
+    private val retryScheduled = CountDownLatch(1)
+    private var runRetries = true
+    private var now = 0L
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        interceptor = CallPolicyInterceptor(
+            config = CallPolicyConfig(maxRetries = 2, failureThreshold = 3, openDurationMs = 1_000),
+            clock = { now },
+            timer = { delayMs, task ->
+                sleeps += delayMs
+                retryScheduled.countDown()
+                if (runRetries) {
+                    task()
+                    CompletableFuture.completedFuture(Unit)
+                } else {
+                    CompletableFuture<Unit>()
+                }
+            }
+        )
+        client = OkHttpClient.Builder().addInterceptor(interceptor).build()
+        callFactory = interceptor.callFactory(client)
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `intercept should retry transient failures with bounded backoff`() {
+        // Arrange
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setResponseCode(502))
+        server.enqueue(MockResponse().setBody("[]"))
+
+        // Act
+        val code = execute(get("/template-features"))
+
+        // Assert
+        assertThat(code).isEqualTo(200)
+        assertThat(server.requestCount).isEqualTo(3)
+        assertThat(sleeps).hasSize(2)
+        assertThat(sleeps[0]).isAtMost(250)
+        assertThat(sleeps[1]).isAtMost(500)
+        val stats = interceptor.stats.value.getValue("GET /template-features")
+        assertThat(stats.retries).isEqualTo(2)
+        assertThat(stats.state).isEqualTo(CircuitState.CLOSED)
+        assertThat(stats.consecutiveFailures).isEqualTo(0)
+    }
+
+    @Test
+    fun `intercept should wait for Retry-After and give up when it is too long`() {
+        // Arrange
+        server.enqueue(MockResponse().setResponseCode(429).addHeader("Retry-After", "2"))
+        server.enqueue(MockResponse().setResponseCode(429).addHeader("Retry-After", "3600"))
+
+        // Act
+        val code = execute(get("/template-features"))
+
+        // Assert
+        assertThat(code).isEqualTo(429)
+        assertThat(server.requestCount).isEqualTo(2)
+        assertThat(sleeps).containsExactly(2_000L)
+    }
+
+    @Test
+    fun `intercept should not retry non-idempotent requests`() {
+        // Arrange
+        server.enqueue(MockResponse().setResponseCode(503))
+        val create = Request.Builder()
+            .url(server.url("/template-features"))
+            .post("{}".toRequestBody("application/json".toMediaType()))
+            .build()
+
+        // Act
+        val code = execute(create)
+
+        // Assert
+        assertThat(code).isEqualTo(503)
+        assertThat(server.requestCount).isEqualTo(1)
+        assertThat(sleeps).isEmpty()
+    }
+
+    @Test
+    fun `intercept should retry requests that carry an idempotency key`() {
+        // Arrange
+        server.enqueue(MockResponse().setResponseCode(503))
+        server.enqueue(MockResponse().setResponseCode(201).setBody("{}"))
+        val create = Request.Builder()
+            .url(server.url("/template-features"))
+            .header(CallPolicyInterceptor.IDEMPOTENCY_KEY, "key-1")
+            .post("{}".toRequestBody("application/json".toMediaType()))
+            .build()
+
+        // Act
+        val code = execute(create)
+
+        // Assert
+        assertThat(code).isEqualTo(201)
+        assertThat(server.requestCount).isEqualTo(2)
+        assertThat(server.takeRequest().getHeader(CallPolicyInterceptor.IDEMPOTENCY_KEY)).isEqualTo("key-1")
+        assertThat(server.takeRequest().getHeader(CallPolicyInterceptor.IDEMPOTENCY_KEY)).isEqualTo("key-1")
+    }
+
+    @Test
+    fun `intercept should not count cancelled calls toward the breaker`() {
+        // Arrange
+        server.enqueue(MockResponse().setBody("[]"))
+
+        // Act
+        repeat(5) {
+            val call = client.newCall(get("/template-features"))
+            call.cancel()
+            runCatching { call.execute() }
+        }
+        val code = execute(get("/template-features"))
+
+        // Assert
+        assertThat(code).isEqualTo(200)
+        val stats = interceptor.stats.value.getValue("GET /template-features")
+        assertThat(stats.state).isEqualTo(CircuitState.CLOSED)
+        assertThat(stats.shortCircuited).isEqualTo(0)
+    }
+
+    @Test
+    fun `cancel should end a call that is waiting to retry`() {
+        // Arrange
+        runRetries = false
+        server.enqueue(MockResponse().setResponseCode(503))
+        val result = CompletableFuture<Result<Int>>()
+        val call = callFactory.newCall(get("/template-features"))
+
+        // Act
+        call.enqueue(object : Callback {
+            override fun onFailure(call: Call, e: IOException) {
+                result.complete(Result.failure(e))
+            }
+
+            override fun onResponse(call: Call, response: Response) {
+                result.complete(Result.success(response.use { it.code }))
+            }
+        })
+        assertThat(retryScheduled.await(5, TimeUnit.SECONDS)).isTrue()
+        call.cancel()
+
+        // Assert
+        val outcome = result.get(5, TimeUnit.SECONDS)
+        assertThat(outcome.exceptionOrNull()).isInstanceOf(IOException::class.java)
+        assertThat(call.isCanceled()).isTrue()
+        assertThat(server.requestCount).isEqualTo(1)
+    }
+
+    @Test
+    fun `intercept should open the circuit after consecutive failures and probe after the cool-down`() {
+        // Arrange
+        repeat(3) { server.enqueue(MockResponse().setResponseCode(500)) }
+        server.enqueue(MockResponse().setBody("[]"))
+
+        // Act
+        repeat(3) { execute(get("/template-features")) }
+        val rejected = runCatching { execute(get("/template-features")) }
+        now += 1_000
+        val probe = execute(get("/template-features"))
+
+        // Assert
+        assertThat(rejected.exceptionOrNull()).isInstanceOf(CircuitOpenException::class.java)
+        assertThat(probe).isEqualTo(200)
+        assertThat(server.requestCount).isEqualTo(4)
+        val stats = interceptor.stats.value.getValue("GET /template-features")
+        assertThat(stats.shortCircuited).isEqualTo(1)
+        assertThat(stats.state).isEqualTo(CircuitState.CLOSED)
+    }
+
+    private fun get(path: String): Request = Request.Builder().url(server.url(path)).build()
+
+    private fun execute(request: Request): Int = callFactory.newCall(request).execute().use { it.code }
+}
@@ -0,0 +1,100 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import com.example.modules.template_feature.data.remotedatasource.connectivity.FakeConnectivityMonitor
+import com.google.common.truth.Truth.assertThat
+import okhttp3.Cache
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.rules.TemporaryFolder
+
+class HttpCachePolicyInterceptorTest {
+
+    @get:Rule
+    val cacheDirectory = TemporaryFolder()
+
+    private lateinit var server: MockWebServer
+    private lateinit var connectivityMonitor: FakeConnectivityMonitor
+    private lateinit var interceptor: HttpCachePolicyInterceptor
+    private lateinit var client: OkHttpClient
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        connectivityMonitor = FakeConnectivityMonitor(online = true)
+        interceptor = HttpCachePolicyInterceptor(connectivityMonitor, HttpCacheConfig())
+        client = OkHttpClient.Builder()
+            .cache(Cache(cacheDirectory.root, 1024 * 1024))
+            .addInterceptor(interceptor)
+            .build()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `intercept should serve fresh responses from the cache`() {
+        // Arrange
+        server.enqueue(MockResponse().setBody("[]").addHeader("Cache-Control", "max-age=60"))
+
+        // Act
+        get("/template-features/search?q=a")
+        val cached = get("/template-features/search?q=a")
+
+        // Assert
+        assertThat(cached).isEqualTo(200)
+        assertThat(server.requestCount).isEqualTo(1)
+        assertThat(interceptor.stats.value.hits).isEqualTo(1)
+        assertThat(interceptor.stats.value.misses).isEqualTo(1)
+    }
+
+    @Test
+    fun `intercept should count a 304 revalidation as a conditional hit`() {
+        // Arrange
+        server.enqueue(MockResponse().setBody("[]").addHeader("Cache-Control", "no-cache").addHeader("ETag", "\"v1\""))
+        server.enqueue(MockResponse().setResponseCode(304))
+
+        // Act
+        get("/template-features/search?q=a")
+        val revalidated = get("/template-features/search?q=a")
+
+        // Assert
+        assertThat(revalidated).isEqualTo(200)
+        server.takeRequest()
+        assertThat(server.takeRequest().getHeader("If-None-Match")).isEqualTo("\"v1\"")
+        assertThat(interceptor.stats.value.conditionalHits).isEqualTo(1)
+    }
+
+    @Test
+    fun `intercept should answer from the cache only while offline`() {
+        // Arrange
+        server.enqueue(MockResponse().setBody("[]").addHeader("Cache-Control", "max-age=0"))
+        get("/template-features/search?q=a")
+        connectivityMonitor.setOnline(false)
+
+        // Act
+        val stale = get("/template-features/search?q=a")
+        val neverCached = get("/template-features/search?q=b")
+
+        // Assert
+        assertThat(stale).isEqualTo(200)
+        assertThat(neverCached).isEqualTo(HttpCachePolicyInterceptor.UNSATISFIABLE_REQUEST)
+        assertThat(server.requestCount).isEqualTo(1)
+        assertThat(interceptor.stats.value.hits).isEqualTo(1)
+    }
+
+    private fun get(path: String): Int {
+        return client.newCall(Request.Builder().url(server.url(path)).build()).execute().use { response ->
+            response.body?.string()
+            response.code
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.modules.template_feature.data.remotedatasource.api
+
+import com.google.common.truth.Truth.assertThat
+import okhttp3.Call
+import okhttp3.Callback
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.Response
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import retrofit2.Invocation
+import java.io.IOException
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.TimeUnit
+
+class RateLimitInterceptorTest {
+
+    private interface Endpoints {
+        @RateLimited(EndpointClass.SYNC)
+        fun sync()
+
+        @RateLimited(EndpointClass.SEARCH)
+        fun search()
+    }
+
+    private lateinit var server: MockWebServer
+    private var now = 0L
+    private var runWaits = true
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `callFactory should keep the shared reserve for user-initiated calls`() {
+        // Arrange
+        val interceptor = interceptor(
+            RateLimitConfig(
+                shared = TokenBudget(permitsPerSecond = 1.0, burst = 3),
+                perClass = emptyMap(),
+                backgroundReserve = 2
+            )
+        )
+        val callFactory = interceptor.callFactory(client(interceptor))
+        repeat(3) { server.enqueue(MockResponse()) }
+
+        // Act
+        execute(callFactory, "sync")
+        execute(callFactory, "sync")
+        val waitedBeforeRead = now
+        execute(callFactory, null)
+
+        // Assert
+        assertThat(waitedBeforeRead).isEqualTo(1_000)
+        assertThat(now).isEqualTo(1_000)
+        val stats = interceptor.stats.value
+        assertThat(stats.getValue(EndpointClass.SYNC).delayed).isEqualTo(1)
+        assertThat(stats.getValue(EndpointClass.SYNC).totalWaitMs).isEqualTo(1_000)
+        assertThat(stats.getValue(EndpointClass.READ).delayed).isEqualTo(0)
+    }
+
+    @Test
+    fun `callFactory should shrink the budget on 429 and recover on success`() {
+        // Arrange
+        val interceptor = interceptor(
+            RateLimitConfig(perClass = mapOf(EndpointClass.SEARCH to TokenBudget(permitsPerSecond = 4.0, burst = 4)))
+        )
+        val callFactory = interceptor.callFactory(client(interceptor))
+        server.enqueue(MockResponse().setResponseCode(429))
+        server.enqueue(MockResponse())
+
+        // Act
+        execute(callFactory, "search")
+        val throttledRate = interceptor.stats.value.getValue(EndpointClass.SEARCH).permitsPerSecond
+        execute(callFactory, "search")
+
+        // Assert
+        assertThat(throttledRate).isWithin(0.001).of(2.0)
+        val stats = interceptor.stats.value.getValue(EndpointClass.SEARCH)
+        assertThat(stats.tooManyRequests).isEqualTo(1)
+        assertThat(stats.permitsPerSecond).isWithin(0.001).of(2.2)
+        assertThat(stats.requests).isEqualTo(2)
+    }
+
+    @Test
+    fun `cancel should end a call that is waiting for a token without sending it`() {
+        // Arrange
+        val interceptor = interceptor(RateLimitConfig(shared = TokenBudget(permitsPerSecond = 1.0, burst = 1), perClass = emptyMap()))
+        val callFactory = interceptor.callFactory(client(interceptor))
+        server.enqueue(MockResponse())
+        execute(callFactory, null)
+        runWaits = false
+        val failure = CompletableFuture<IOException>()
+
+        // Act
+        val call = callFactory.newCall(request(null))
+        call.enqueue(object : Callback {
+            override fun onFailure(call: Call, e: IOException) {
+                failure.complete(e)
+            }
+
+            override fun onResponse(call: Call, response: Response) {
+                response.close()
+                failure.completeExceptionally(AssertionError("Call should not have been sent"))
+            }
+        })
+        call.cancel()
+
+        // Assert
+        assertThat(failure.get(5, TimeUnit.SECONDS)).hasMessageThat().isEqualTo("Canceled")
+        assertThat(server.requestCount).isEqualTo(1)
+    }
+
+    private fun interceptor(config: RateLimitConfig) = RateLimitInterceptor(
+        config = config,
+        clock = { now },
+        timer = { delayMs, task ->
+            if (runWaits) {
+                now += delayMs
+                task()
+                CompletableFuture.completedFuture(Unit)
+            } else {
+                CompletableFuture<Unit>()
+            }
+        }
+    )
+
+    private fun client(interceptor: RateLimitInterceptor): OkHttpClient {
+        return OkHttpClient.Builder().addNetworkInterceptor(interceptor).build()
+    }
+
+    private fun request(method: String?): Request {
+        val builder = Request.Builder().url(server.url("/template-features"))
+        if (method != null) {
+            builder.tag(Invocation::class.java, Invocation.of(Endpoints::class.java.getDeclaredMethod(method), emptyList<Any>()))
+        }
+        return builder.build()
+    }
+
+    private fun execute(callFactory: Call.Factory, method: String?) {
+        callFactory.newCall(request(method)).execute().close()
+    }
+}
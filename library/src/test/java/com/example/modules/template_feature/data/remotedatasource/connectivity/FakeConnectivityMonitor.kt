@@ -0,0 +1,12 @@
+package com.example.modules.template_feature.data.remotedatasource.connectivity
+
+import kotlinx.coroutines.flow.MutableStateFlow
+
+class FakeConnectivityMonitor(online: Boolean = true) : ConnectivityMonitor {
+
+    override val isOnline = MutableStateFlow(online)
+
+    fun setOnline(online: Boolean) {
+        isOnline.value = online
+    }
+}
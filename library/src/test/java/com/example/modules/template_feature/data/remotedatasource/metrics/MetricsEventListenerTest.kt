@@ -0,0 +1,125 @@
+package com.example.modules.template_feature.data.remotedatasource.metrics
+
+import com.google.common.truth.Truth.assertThat
+import okhttp3.Call
+import okhttp3.EventListener
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import okhttp3.mockwebserver.SocketPolicy
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.io.IOException
+
+class MetricsEventListenerTest {
+
+    private lateinit var server: MockWebServer
+    private lateinit var recorder: NetworkMetricsRecorder
+    private lateinit var forwarded: MutableList<CallMetrics>
+    private lateinit var client: OkHttpClient
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        recorder = NetworkMetricsRecorder()
+        forwarded = mutableListOf()
+        val failingSink = NetworkMetricsSink { throw IllegalStateException("broken sink") }
+        client = OkHttpClient.Builder()
+            .eventListenerFactory(MetricsEventListener.Factory(listOf(failingSink, recorder, NetworkMetricsSink { forwarded += it })))
+            .build()
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `listener should record timings and bytes per endpoint`() {
+        // Arrange
+        server.enqueue(MockResponse().setBody("[{\"id\":\"1\"}]"))
+        server.enqueue(MockResponse().setBody("[]"))
+
+        // Act
+        get("/template-features")
+        get("/template-features")
+
+        // Assert
+        val metrics = recorder.snapshot().getValue("GET /template-features")
+        assertThat(metrics.total.count).isEqualTo(2)
+        assertThat(metrics.timeToFirstByte.count).isEqualTo(2)
+        assertThat(metrics.connect.count).isEqualTo(1)
+        assertThat(metrics.bytesReceived).isAtLeast(14L)
+        assertThat(metrics.failures).isEqualTo(0)
+        assertThat(forwarded).hasSize(2)
+    }
+
+    @Test
+    fun `listener should count failed calls`() {
+        // Arrange
+        server.enqueue(MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AT_START))
+
+        // Act
+        val result = runCatching { get("/template-features") }
+
+        // Assert
+        assertThat(result.exceptionOrNull()).isInstanceOf(IOException::class.java)
+        assertThat(recorder.snapshot().getValue("GET /template-features").failures).isEqualTo(1)
+        assertThat(forwarded.single().failed).isTrue()
+    }
+
+    @Test
+    fun `composite listener should keep a host listener receiving events next to the metrics`() {
+        // Arrange
+        val hostEvents = mutableListOf<String>()
+        val hostListener = object : EventListener() {
+            override fun callStart(call: Call) {
+                hostEvents += "callStart"
+            }
+
+            override fun callEnd(call: Call) {
+                hostEvents += "callEnd"
+            }
+        }
+        client = OkHttpClient.Builder()
+            .eventListenerFactory(
+                CompositeEventListener.Factory(listOf(EventListener.Factory { hostListener }, MetricsEventListener.Factory(listOf(recorder))))
+            )
+            .build()
+        server.enqueue(MockResponse().setBody("[]"))
+
+        // Act
+        get("/template-features")
+
+        // Assert
+        assertThat(hostEvents).containsExactly("callStart", "callEnd").inOrder()
+        assertThat(recorder.snapshot().getValue("GET /template-features").total.count).isEqualTo(1)
+    }
+
+    @Test
+    fun `histogram should report the bucket holding each percentile`() {
+        // Arrange
+        val histogram = LatencyHistogram(longArrayOf(10, 100, 1_000))
+
+        // Act
+        repeat(90) { histogram.record(5) }
+        repeat(9) { histogram.record(50) }
+        histogram.record(5_000)
+        val snapshot = histogram.snapshot()
+
+        // Assert
+        assertThat(snapshot.count).isEqualTo(100)
+        assertThat(snapshot.percentileUpperBoundMs(50.0)).isEqualTo(10)
+        assertThat(snapshot.percentileUpperBoundMs(95.0)).isEqualTo(100)
+        assertThat(snapshot.percentileUpperBoundMs(100.0)).isNull()
+    }
+
+    private fun get(path: String): String {
+        return client.newCall(Request.Builder().url(server.url(path)).build()).execute().use { response ->
+            response.body!!.string()
+        }
+    }
+}
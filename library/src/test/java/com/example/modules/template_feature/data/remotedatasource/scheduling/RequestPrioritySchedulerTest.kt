@@ -0,0 +1,103 @@
+package com.example.modules.template_feature.data.remotedatasource.scheduling
+
+import com.example.modules.template_feature.data.remotedatasource.api.EndpointClass
+import com.example.modules.template_feature.data.remotedatasource.api.RateLimited
+import com.example.modules.template_feature.domain.models.RequestPriority
+import com.google.common.truth.Truth.assertThat
+import okhttp3.Call
+import okhttp3.OkHttpClient
+import okhttp3.Request
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import retrofit2.Invocation
+
+class RequestPrioritySchedulerTest {
+
+    private interface Endpoints {
+        @RateLimited(EndpointClass.SYNC)
+        fun sync()
+    }
+
+    private lateinit var server: MockWebServer
+    private lateinit var scheduler: RequestPriorityScheduler
+    private lateinit var callFactory: Call.Factory
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        scheduler = RequestPriorityScheduler(PrioritySchedulerConfig(maxYieldMs = 200))
+        callFactory = scheduler.callFactory(OkHttpClient())
+    }
+
+    @After
+    fun tearDown() {
+        server.shutdown()
+    }
+
+    @Test
+    fun `callFactory should record queue waits per priority`() {
+        // Arrange
+        repeat(3) { server.enqueue(MockResponse().setBody("[]")) }
+
+        // Act
+        callFactory.newCall(interactive()).execute().close()
+        callFactory.newCall(interactive()).execute().close()
+        callFactory.newCall(background()).execute().close()
+
+        // Assert
+        val waits = scheduler.queueWaits()
+        assertThat(waits.getValue(RequestPriority.INTERACTIVE).count).isEqualTo(2)
+        assertThat(waits.getValue(RequestPriority.BACKGROUND).count).isEqualTo(1)
+    }
+
+    @Test
+    fun `background calls should yield while an interactive body is open`() {
+        // Arrange
+        repeat(3) { server.enqueue(MockResponse().setBody("[]")) }
+        val open = callFactory.newCall(interactive()).execute()
+
+        // Act
+        val yieldingStartNs = System.nanoTime()
+        callFactory.newCall(background()).execute().use { it.body!!.string() }
+        val yieldingMs = (System.nanoTime() - yieldingStartNs) / 1_000_000
+        open.close()
+        callFactory.newCall(background()).execute().use { it.body!!.string() }
+
+        // Assert
+        assertThat(yieldingMs).isAtLeast(200)
+        assertThat(scheduler.backgroundYieldedMs()).isAtLeast(200)
+        assertThat(server.requestCount).isEqualTo(3)
+    }
+
+    @Test
+    fun `background bodies should yield once per interval and within a per-response cap`() {
+        // Arrange
+        val pacedScheduler = RequestPriorityScheduler(
+            PrioritySchedulerConfig(maxYieldMs = 200, bodyYieldIntervalBytes = 64L * 1024, maxYieldPerResponseMs = 300)
+        )
+        val pacedCallFactory = pacedScheduler.callFactory(OkHttpClient())
+        server.enqueue(MockResponse().setBody("[]"))
+        server.enqueue(MockResponse().setBody("x".repeat(1024 * 1024)))
+        val open = pacedCallFactory.newCall(interactive()).execute()
+
+        // Act
+        pacedCallFactory.newCall(background()).execute().use { it.body!!.string() }
+        open.close()
+
+        // Assert
+        // 200 ms before the call starts, then 16 intervals of body capped at 300 ms instead of 128 reads of 200 ms
+        assertThat(pacedScheduler.backgroundYieldedMs()).isAtLeast(500)
+        assertThat(pacedScheduler.backgroundYieldedMs()).isLessThan(1_000)
+    }
+
+    private fun interactive(): Request = Request.Builder().url(server.url("/template-features/1")).build()
+
+    private fun background(): Request = Request.Builder()
+        .url(server.url("/template-features/changes"))
+        .tag(Invocation::class.java, Invocation.of(Endpoints::class.java.getDeclaredMethod("sync"), emptyList<Any>()))
+        .build()
+}
@@ -1,28 +1,73 @@
 package com.example.modules.template_feature.data.repositories
 
 import app.cash.turbine.test
+import com.example.modules.template_feature.data.dto.TemplateFeatureBucketDigestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureChangesDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureDigestsDto
+import com.example.modules.template_feature.data.dto.TemplateFeaturePageDto
 import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureBucketEntity
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureBuckets
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureContentHash
 import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
 import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureEntity
 import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeaturePreferences
+import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeatureValidatorStore
+import com.example.modules.template_feature.data.mappers.contentHash
+import com.example.modules.template_feature.data.mappers.toEntity
+import com.example.modules.template_feature.data.remotedatasource.api.HttpCachePolicyInterceptor
+import com.example.modules.template_feature.data.remotedatasource.api.HttpHeaders
+import com.example.modules.template_feature.data.remotedatasource.api.HttpValidators
 import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.data.remotedatasource.connectivity.FakeConnectivityMonitor
+import com.example.modules.template_feature.data.remotedatasource.connectivity.NoConnectivityException
+import com.example.modules.template_feature.data.sync.FullSyncStrategy
+import com.example.modules.template_feature.data.sync.OutboxReplayResult
+import com.example.modules.template_feature.data.sync.TemplateFeatureOutbox
+import com.example.modules.template_feature.data.sync.TemplateFeatureStreamIngestor
+import com.example.modules.template_feature.data.sync.TemplateFeatureSyncConfig
+import com.example.modules.template_feature.domain.models.SyncPhase
+import com.example.modules.template_feature.domain.models.SearchMode
+import com.example.modules.template_feature.domain.models.SyncScope
+import com.example.modules.template_feature.domain.models.SyncStatus
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
+import com.example.modules.template_feature.domain.models.ValidatedEndpoint
 import com.google.common.truth.Truth.assertThat
 import io.mockk.coEvery
 import io.mockk.coVerify
+import io.mockk.coVerifyOrder
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.slot
 import io.mockk.verify
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.first
 import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.test.TestScope
+import kotlinx.coroutines.test.advanceUntilIdle
 import kotlinx.coroutines.test.runTest
+import okhttp3.Headers
+import okhttp3.Headers.Companion.headersOf
+import okhttp3.Protocol
+import okhttp3.Request
+import okhttp3.ResponseBody.Companion.toResponseBody
 import org.junit.Before
 import org.junit.Test
+import retrofit2.HttpException
+import retrofit2.Response
 
 class TemplateFeatureRepositoryImplTest {
 
     private lateinit var apiService: TemplateFeatureApiService
     private lateinit var dao: TemplateFeatureDao
     private lateinit var preferences: TemplateFeaturePreferences
+    private lateinit var validatorStore: TemplateFeatureValidatorStore
+    private lateinit var streamIngestor: TemplateFeatureStreamIngestor
+    private lateinit var outbox: TemplateFeatureOutbox
+    private lateinit var connectivityMonitor: FakeConnectivityMonitor
     private lateinit var repository: TemplateFeatureRepositoryImpl
 
     @Before
@@ -30,7 +75,52 @@ class TemplateFeatureRepositoryImplTest {
         apiService = mockk()
         dao = mockk()
         preferences = mockk()
-        repository = TemplateFeatureRepositoryImpl(apiService, dao, preferences)
+        validatorStore = mockk(relaxUnitFun = true)
+        streamIngestor = mockk()
+        outbox = mockk()
+        connectivityMonitor = FakeConnectivityMonitor(online = true)
+        every { validatorStore.getValidators(any()) } returns null
+        coEvery { dao.getValidators(any()) } returns null
+        coEvery { dao.insertValidators(any()) } returns Unit
+        coEvery { dao.deleteValidators(any()) } returns Unit
+        // Inactive rows are synced and recently viewed unless a test narrows the scope
+        every { preferences.getSyncScope() } returns SyncScope.ALL
+        every { preferences.getMaterializedScope() } returns SyncScope.ALL
+        every { preferences.getInactiveViewedAt() } returns System.currentTimeMillis()
+        every { preferences.setInactiveViewedAt(any()) } returns Unit
+        every { preferences.setMaterializedScope(any()) } returns Unit
+        every { preferences.clearSyncCursor() } returns Unit
+        coEvery { outbox.hasPendingOperations(any()) } returns false
+        coEvery { outbox.pendingFeatureIds() } returns emptySet()
+        coEvery { outbox.replay() } returns OutboxReplayResult(replayed = 0, rejected = 0, hasRemaining = false)
+        every { outbox.requestReplay() } returns Unit
+        // Synced just now, so list reads stay within the cache TTL unless a test says otherwise
+        every { preferences.getLastSyncTime() } returns System.currentTimeMillis()
+        // Local rows exist, so full syncs reconcile through staging unless a test says otherwise
+        coEvery { dao.getTemplateFeatureCount() } returns 1
+        repository = createRepository()
+    }
+
+    private fun createRepository(
+        scope: CoroutineScope = TestScope(),
+        syncConfig: TemplateFeatureSyncConfig = TemplateFeatureSyncConfig(
+            optimisticWrites = false,
+            digestReconciliation = false
+        )
+    ): TemplateFeatureRepositoryImpl {
+        return TemplateFeatureRepositoryImpl(
+            apiService,
+            dao,
+            preferences,
+            validatorStore,
+            streamIngestor,
+            outbox,
+            // A zero window passes every write straight through to the single-item endpoints
+            TemplateFeatureWriteCoalescer(apiService, scope, windowMs = 0),
+            connectivityMonitor,
+            scope,
+            syncConfig
+        )
     }
 
     @Test
@@ -70,6 +160,140 @@ class TemplateFeatureRepositoryImplTest {
         verify { dao.getAllTemplateFeatures() }
     }
 
+    @Test
+    fun `getActiveTemplateFeatures should emit cached rows and revalidate in the background when stale`() = runTest {
+        // Arrange
+        val staleRepository = createRepository(scope = backgroundScope)
+        val entity = TemplateFeatureEntity(
+            id = "1",
+            title = "Cached",
+            description = "Description",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        every { preferences.getLastSyncTime() } returns 0L
+        every { dao.getActiveTemplateFeatures() } returns flowOf(listOf(entity))
+        coEvery { outbox.replay() } coAnswers {
+            delay(1_000)
+            OutboxReplayResult(replayed = 0, rejected = 0, hasRemaining = false)
+        }
+        every { preferences.getSyncCursor() } returns "cursor"
+        coEvery { dao.getTemplateFeatureCount() } returns 1
+        coEvery { apiService.getTemplateFeatureChanges(any()) } returns TemplateFeatureChangesDto(cursor = "next")
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+
+        // Act
+        val emission = staleRepository.getActiveTemplateFeatures().first()
+
+        // Assert
+        assertThat(emission.single().title).isEqualTo("Cached")
+        assertThat(testScheduler.currentTime).isEqualTo(0)
+        advanceUntilIdle()
+        coVerify { apiService.getTemplateFeatureChanges("cursor") }
+        verify { preferences.setLastSyncTime(any()) }
+    }
+
+    @Test
+    fun `getAllTemplateFeatures should start syncing inactive rows the first time they are viewed`() = runTest {
+        // Arrange
+        val scopedRepository = createRepository(scope = backgroundScope)
+        every { preferences.getSyncScope() } returns SyncScope.ACTIVE andThen SyncScope.ALL
+        every { preferences.getMaterializedScope() } returns SyncScope.ACTIVE
+        every { preferences.setSyncScope(any()) } returns Unit
+        every { preferences.clearSyncCursor() } returns Unit
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        every { dao.getAllTemplateFeatures() } returns flowOf(emptyList())
+        coEvery { apiService.getTemplateFeaturesPage(any(), any()) } returns Response.success(TemplateFeaturePageDto())
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 0
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 0
+
+        // Act
+        scopedRepository.getAllTemplateFeatures().first()
+        advanceUntilIdle()
+
+        // Assert
+        verify { preferences.setSyncScope(SyncScope.ALL) }
+        verify { preferences.clearSyncCursor() }
+        coVerify { apiService.getTemplateFeaturesPage(null, any()) }
+        verify { preferences.setMaterializedScope(SyncScope.ALL) }
+    }
+
+    @Test
+    fun `syncWithRemote should fetch only active rows in the active scope`() = runTest {
+        // Arrange
+        every { preferences.getSyncScope() } returns SyncScope.ACTIVE
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { apiService.getTemplateFeaturesPage(null, any(), true) } returns Response.success(
+            TemplateFeaturePageDto(
+                items = listOf(
+                    TemplateFeatureResponseDto(
+                        id = "1",
+                        title = "Feature 1",
+                        description = "Description 1",
+                        isActive = true,
+                        createdAt = "2023-01-01T00:00:00Z"
+                    )
+                )
+            )
+        )
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.insertStagedTemplateFeatures(any()) } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 0
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 3
+        coEvery { dao.promoteStagedTemplateFeatures() } returns Unit
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify(exactly = 0) { apiService.getTemplateFeaturesPage(any(), any(), null) }
+        coVerify { dao.promoteStagedTemplateFeatures() }
+        verify { preferences.setMaterializedScope(SyncScope.ACTIVE) }
+    }
+
+    @Test
+    fun `syncWithRemote should narrow back to active rows once inactive ones go unviewed`() = runTest {
+        // Arrange
+        every { preferences.getInactiveViewedAt() } returns 0L
+        every { preferences.setSyncScope(any()) } returns Unit
+        every { preferences.clearSyncCursor() } returns Unit
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { apiService.getTemplateFeaturesPage(any(), any(), true) } returns Response.success(TemplateFeaturePageDto())
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 0
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 0
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        verify { preferences.setSyncScope(SyncScope.ACTIVE) }
+        coVerify { apiService.getTemplateFeaturesPage(null, any(), true) }
+        verify { preferences.setMaterializedScope(SyncScope.ACTIVE) }
+    }
+
+    @Test
+    fun `getActiveTemplateFeatures should skip the network within the cache TTL`() = runTest {
+        // Arrange
+        every { dao.getActiveTemplateFeatures() } returns flowOf(emptyList())
+
+        // Act
+        repository.getActiveTemplateFeatures().first()
+
+        // Assert
+        coVerify(exactly = 0) { outbox.replay() }
+    }
+
     @Test
     fun `getTemplateFeatureById should return domain model when entity exists`() = runTest {
         // Arrange
@@ -96,6 +320,8 @@ class TemplateFeatureRepositoryImplTest {
     fun `getTemplateFeatureById should return null when entity does not exist`() = runTest {
         // Arrange
         coEvery { dao.getTemplateFeatureById("nonexistent") } returns null
+        coEvery { apiService.getTemplateFeatureByIdIfChanged("nonexistent", null, null) } returns
+            Response.error(404, "".toResponseBody(null))
 
         // Act
         val result = repository.getTemplateFeatureById("nonexistent")
@@ -105,6 +331,187 @@ class TemplateFeatureRepositoryImplTest {
         coVerify { dao.getTemplateFeatureById("nonexistent") }
     }
 
+    @Test
+    fun `getTemplateFeatureById should keep the cached row without decoding on 304`() = runTest {
+        // Arrange
+        repository = createRepository(scope = backgroundScope)
+        val entity = TemplateFeatureEntity(
+            id = "1",
+            title = "Feature 1",
+            description = "Description 1",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        every { preferences.getLastSyncTime() } returns 0L
+        coEvery { dao.getValidators("1") } returns HttpValidators(etag = "\"v1\"", bodyBytes = 120).toEntity("1")
+        coEvery { dao.getTemplateFeatureById("1") } returns entity
+        coEvery { apiService.getTemplateFeatureByIdIfChanged("1", "\"v1\"", null) } returns notModified()
+
+        // Act
+        val result = repository.getTemplateFeatureById("1")
+        advanceUntilIdle()
+
+        // Assert
+        assertThat(result?.title).isEqualTo("Feature 1")
+        coVerify(exactly = 0) { dao.insertServerTemplateFeature(any()) }
+        val stats = repository.observeValidatorStats().value.getValue(ValidatedEndpoint.DETAIL)
+        assertThat(stats.hitRate).isEqualTo(1f)
+        assertThat(stats.bytesSaved).isEqualTo(120)
+    }
+
+    @Test
+    fun `getTemplateFeatureById should return the stale row at once and store the new one on 200`() = runTest {
+        // Arrange
+        repository = createRepository(scope = backgroundScope)
+        val entity = TemplateFeatureEntity(
+            id = "1",
+            title = "Feature 1",
+            description = "Description 1",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        val updated = TemplateFeatureResponseDto(
+            id = "1",
+            title = "Renamed",
+            description = "Description 1",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        every { preferences.getLastSyncTime() } returns 0L
+        coEvery { dao.getValidators("1") } returns HttpValidators(etag = "\"v1\"").toEntity("1")
+        coEvery { dao.getTemplateFeatureById("1") } returns entity
+        coEvery { dao.insertServerTemplateFeature(any()) } returns true
+        coEvery { apiService.getTemplateFeatureByIdIfChanged("1", "\"v1\"", null) } returns
+            Response.success(updated, headersOf(HttpHeaders.ETAG, "\"v2\""))
+
+        // Act
+        val result = repository.getTemplateFeatureById("1")
+
+        // Assert
+        assertThat(result?.title).isEqualTo("Feature 1")
+        coVerify(exactly = 0) { apiService.getTemplateFeatureByIdIfChanged(any(), any(), any()) }
+        advanceUntilIdle()
+        coVerify { dao.insertServerTemplateFeature(match { it.title == "Renamed" }) }
+        coVerify { dao.insertValidators(match { it.featureId == "1" && it.etag == "\"v2\"" }) }
+        assertThat(repository.observeValidatorStats().value.getValue(ValidatedEndpoint.DETAIL).hitRate).isEqualTo(0f)
+    }
+
+    @Test
+    fun `getTemplateFeatureById should not overwrite a local write queued while revalidating`() = runTest {
+        // Arrange
+        val localEdit = TemplateFeatureEntity(
+            id = "1",
+            title = "Edited locally",
+            description = "Description 1",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z",
+            syncStatus = SyncStatus.PENDING
+        )
+        val serverCopy = TemplateFeatureResponseDto(
+            id = "1",
+            title = "Feature 1",
+            description = "Description 1",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        coEvery { dao.getTemplateFeatureById("1") } returnsMany listOf(null, localEdit)
+        coEvery { dao.insertServerTemplateFeature(any()) } returns false
+        coEvery { apiService.getTemplateFeatureByIdIfChanged("1", null, null) } returns
+            Response.success(serverCopy, headersOf(HttpHeaders.ETAG, "\"v1\""))
+
+        // Act
+        val result = repository.getTemplateFeatureById("1")
+
+        // Assert
+        assertThat(result?.title).isEqualTo("Edited locally")
+        coVerify(exactly = 0) { dao.insertValidators(any()) }
+    }
+
+    @Test
+    fun `syncWithRemote should skip staging when the streamed list is not modified`() = runTest {
+        // Arrange
+        repository = createRepository(
+            syncConfig = TemplateFeatureSyncConfig(
+                fullSyncStrategy = FullSyncStrategy.STREAMING,
+                optimisticWrites = false,
+                digestReconciliation = false
+            )
+        )
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        every { validatorStore.getValidators("list") } returns HttpValidators(lastModified = "Wed, 01 Jan 2025 00:00:00 GMT")
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery {
+            apiService.streamAllTemplateFeatures(null, "Wed, 01 Jan 2025 00:00:00 GMT")
+        } returns notModified(headersOf(HttpHeaders.SYNC_CURSOR, "cursor-7"))
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify(exactly = 0) { streamIngestor.ingest(any(), any(), any()) }
+        coVerify(exactly = 0) { dao.promoteStagedTemplateFeatures() }
+        verify(exactly = 0) { validatorStore.clearValidators("list") }
+        verify { preferences.setSyncCursor("cursor-7") }
+        assertThat(repository.observeValidatorStats().value.getValue(ValidatedEndpoint.LIST).notModified).isEqualTo(1)
+    }
+
+    @Test
+    fun `syncWithRemote should revalidate the first page and skip staging when the list is not modified`() = runTest {
+        // Arrange
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        every { validatorStore.getValidators("list") } returns HttpValidators(etag = "\"v1\"", bodyBytes = 4_096)
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery {
+            apiService.getTemplateFeaturesPage(null, any(), null, "\"v1\"", null)
+        } returns notModified(headersOf(HttpHeaders.SYNC_CURSOR, "cursor-3"))
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify(exactly = 0) { dao.insertStagedTemplateFeatures(any()) }
+        coVerify(exactly = 0) { dao.promoteStagedTemplateFeatures() }
+        verify { preferences.setSyncCursor("cursor-3") }
+        val stats = repository.observeValidatorStats().value.getValue(ValidatedEndpoint.LIST)
+        assertThat(stats.notModified).isEqualTo(1)
+        assertThat(stats.bytesSaved).isEqualTo(4_096)
+    }
+
+    @Test
+    fun `syncWithRemote should stream only active rows with their own validators in the active scope`() = runTest {
+        // Arrange
+        repository = createRepository(
+            syncConfig = TemplateFeatureSyncConfig(
+                fullSyncStrategy = FullSyncStrategy.STREAMING,
+                optimisticWrites = false,
+                digestReconciliation = false
+            )
+        )
+        every { preferences.getSyncScope() } returns SyncScope.ACTIVE
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        every { validatorStore.getValidators("list:active") } returns HttpValidators(etag = "\"active-v1\"")
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery {
+            apiService.streamAllTemplateFeatures("\"active-v1\"", null, true)
+        } returns notModified()
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify(exactly = 0) { apiService.streamAllTemplateFeatures(any(), any(), null) }
+        verify(exactly = 0) { validatorStore.getValidators("list") }
+    }
+
     @Test
     fun `createTemplateFeature should return success when remote API succeeds`() = runTest {
         // Arrange
@@ -122,7 +529,7 @@ class TemplateFeatureRepositoryImplTest {
             isActive = true,
             createdAt = "2023-01-01T00:00:00Z"
         )
-        coEvery { apiService.createTemplateFeature(any()) } returns responseDto
+        coEvery { apiService.createTemplateFeature(any(), any()) } returns responseDto
         coEvery { dao.insertTemplateFeature(any()) } returns Unit
 
         // Act
@@ -133,7 +540,7 @@ class TemplateFeatureRepositoryImplTest {
         val createdFeature = result.getOrNull()
         assertThat(createdFeature?.id).isEqualTo("generated-id")
         assertThat(createdFeature?.title).isEqualTo("New Feature")
-        coVerify { apiService.createTemplateFeature(any()) }
+        coVerify { apiService.createTemplateFeature(any(), any()) }
         coVerify { dao.insertTemplateFeature(any()) }
     }
 
@@ -147,8 +554,9 @@ class TemplateFeatureRepositoryImplTest {
             isActive = true,
             createdAt = ""
         )
-        coEvery { apiService.createTemplateFeature(any()) } throws Exception("Network error")
-        coEvery { dao.insertTemplateFeature(any()) } returns Unit
+        val sentKey = slot<String>()
+        coEvery { apiService.createTemplateFeature(any(), capture(sentKey)) } throws Exception("Network error")
+        coEvery { outbox.recordCreate(any(), any()) } returns Unit
 
         // Act
         val result = repository.createTemplateFeature(inputModel)
@@ -158,8 +566,38 @@ class TemplateFeatureRepositoryImplTest {
         val createdFeature = result.getOrNull()
         assertThat(createdFeature?.title).isEqualTo("New Feature")
         assertThat(createdFeature?.id).startsWith("local_")
-        coVerify { apiService.createTemplateFeature(any()) }
-        coVerify { dao.insertTemplateFeature(any()) }
+        // The request may have reached the server, so the replay has to carry the same key
+        coVerifyOrder {
+            outbox.recordCreate(match { it.id.startsWith("local_") }, sentKey.captured)
+            outbox.requestReplay()
+        }
+    }
+
+    @Test
+    fun `createTemplateFeature should save locally without waiting on the network when offline`() = runTest {
+        // Arrange
+        connectivityMonitor.setOnline(false)
+        val inputModel = TemplateFeatureModel(
+            id = "",
+            title = "New Feature",
+            description = "New Description",
+            isActive = true,
+            createdAt = ""
+        )
+        coEvery { apiService.createTemplateFeature(any(), any()) } coAnswers {
+            delay(30_000)
+            throw Exception("Connect timed out")
+        }
+        coEvery { outbox.recordCreate(any(), any()) } returns Unit
+
+        // Act
+        val result = repository.createTemplateFeature(inputModel)
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        assertThat(testScheduler.currentTime).isEqualTo(0)
+        coVerify(exactly = 0) { apiService.createTemplateFeature(any(), any()) }
+        coVerify { outbox.recordCreate(match { it.title == "New Feature" }, any()) }
     }
 
     @Test
@@ -181,7 +619,7 @@ class TemplateFeatureRepositoryImplTest {
     fun `deleteTemplateFeature should fallback to local when remote fails`() = runTest {
         // Arrange
         coEvery { apiService.deleteTemplateFeature("1") } throws Exception("Network error")
-        coEvery { dao.deleteTemplateFeatureById("1") } returns Unit
+        coEvery { outbox.recordDelete("1", any()) } returns Unit
 
         // Act
         val result = repository.deleteTemplateFeature("1")
@@ -189,7 +627,117 @@ class TemplateFeatureRepositoryImplTest {
         // Assert
         assertThat(result.isSuccess).isTrue()
         coVerify { apiService.deleteTemplateFeature("1") }
-        coVerify { dao.deleteTemplateFeatureById("1") }
+        coVerifyOrder {
+            outbox.recordDelete("1", any())
+            outbox.requestReplay()
+        }
+    }
+
+    @Test
+    fun `updateTemplateFeature should queue behind earlier offline writes without calling remote`() = runTest {
+        // Arrange
+        val feature = TemplateFeatureModel(
+            id = "local_1",
+            title = "Offline Feature",
+            description = "Edited offline",
+            isActive = true,
+            createdAt = ""
+        )
+        coEvery { outbox.hasPendingOperations("local_1") } returns true
+        coEvery { outbox.recordUpdate(any(), any()) } returns Unit
+
+        // Act
+        val result = repository.updateTemplateFeature(feature)
+
+        // Assert
+        assertThat(result.getOrNull()).isEqualTo(feature)
+        coVerify(exactly = 0) { apiService.updateTemplateFeature(any(), any()) }
+        coVerify { outbox.recordUpdate(match { it.id == "local_1" }, any()) }
+    }
+
+    @Test
+    fun `updateTemplateFeature should commit locally and confirm in the background when optimistic`() = runTest {
+        // Arrange
+        val optimisticRepository = createRepository(syncConfig = TemplateFeatureSyncConfig(optimisticWrites = true))
+        val model = TemplateFeatureModel(
+            id = "1",
+            title = "Feature",
+            description = "Edited",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        coEvery { outbox.recordUpdate(any(), any()) } returns Unit
+
+        // Act
+        val result = optimisticRepository.updateTemplateFeature(model)
+
+        // Assert
+        assertThat(result.getOrNull()?.syncStatus).isEqualTo(SyncStatus.PENDING)
+        coVerifyOrder {
+            outbox.recordUpdate(match { it.id == "1" && it.description == "Edited" }, any())
+            outbox.requestReplay()
+        }
+        coVerify(exactly = 0) { apiService.updateTemplateFeature(any(), any()) }
+    }
+
+    @Test
+    fun `searchTemplateFeatures should report no connectivity when offline and nothing is cached`() = runTest {
+        // Arrange
+        connectivityMonitor.setOnline(false)
+        coEvery { apiService.searchTemplateFeatures("feature", any()) } throws
+            HttpException(Response.error<Any>(HttpCachePolicyInterceptor.UNSATISFIABLE_REQUEST, "".toResponseBody(null)))
+
+        // Act
+        val result = repository.searchTemplateFeatures("feature")
+
+        // Assert
+        assertThat(result.exceptionOrNull()).isInstanceOf(NoConnectivityException::class.java)
+    }
+
+    @Test
+    fun `searchTemplateFeatures should answer from the local index in auto mode when offline`() = runTest {
+        // Arrange
+        connectivityMonitor.setOnline(false)
+        val entity = TemplateFeatureEntity(
+            id = "1",
+            title = "Feature One",
+            description = "Description",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        every { dao.searchTemplateFeatures("feat* on*", any()) } returns flowOf(listOf(entity))
+
+        // Act
+        val result = repository.searchTemplateFeatures("feat on", SearchMode.AUTO)
+
+        // Assert
+        assertThat(result.getOrNull()?.map { it.id }).containsExactly("1")
+        coVerify(exactly = 0) { apiService.searchTemplateFeatures(any(), any()) }
+    }
+
+    @Test
+    fun `syncWithRemote should fail fast when offline`() = runTest {
+        // Arrange
+        connectivityMonitor.setOnline(false)
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.exceptionOrNull()).isInstanceOf(NoConnectivityException::class.java)
+        coVerify(exactly = 0) { outbox.replay() }
+    }
+
+    @Test
+    fun `syncWithRemote should let cancellation through instead of reporting a failure`() = runTest {
+        // Arrange
+        coEvery { outbox.replay() } throws CancellationException("Caller went away")
+
+        // Act
+        val thrown = runCatching { repository.syncWithRemote() }.exceptionOrNull()
+
+        // Assert
+        assertThat(thrown).isInstanceOf(CancellationException::class.java)
     }
 
     @Test
@@ -204,19 +752,393 @@ class TemplateFeatureRepositoryImplTest {
                 createdAt = "2023-01-01T00:00:00Z"
             )
         )
-        coEvery { apiService.getAllTemplateFeatures() } returns remoteDtos
-        coEvery { dao.deleteAllTemplateFeatures() } returns Unit
-        coEvery { dao.insertTemplateFeatures(any()) } returns Unit
+        coEvery { apiService.getTemplateFeaturesPage(any(), any()) } returns Response.success(
+            TemplateFeaturePageDto(items = remoteDtos, cursor = "cursor-1")
+        )
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.insertStagedTemplateFeatures(any()) } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 1
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 0
+        coEvery { dao.promoteStagedTemplateFeatures() } returns Unit
         coEvery { preferences.setLastSyncTime(any()) } returns Unit
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
 
         // Act
         val result = repository.syncWithRemote()
 
         // Assert
         assertThat(result.isSuccess).isTrue()
-        coVerify { apiService.getAllTemplateFeatures() }
-        coVerify { dao.deleteAllTemplateFeatures() }
-        coVerify { dao.insertTemplateFeatures(any()) }
+        coVerify { apiService.getTemplateFeaturesPage(null, any()) }
+        coVerify { dao.insertStagedTemplateFeatures(any()) }
+        coVerify { dao.promoteStagedTemplateFeatures() }
         coVerify { preferences.setLastSyncTime(any()) }
+        verify { preferences.setSyncCursor("cursor-1") }
+    }
+
+    @Test
+    fun `syncWithRemote should clear the cursor when the listing does not send one`() = runTest {
+        // Arrange
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { apiService.getTemplateFeaturesPage(any(), any()) } returns Response.success(TemplateFeaturePageDto())
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 0
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 0
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        verify { preferences.clearSyncCursor() }
+        verify(exactly = 0) { preferences.setSyncCursor(any()) }
+    }
+
+    @Test
+    fun `syncWithRemote should stage every page before promoting the snapshot`() = runTest {
+        // Arrange
+        val firstPage = TemplateFeaturePageDto(
+            items = listOf(
+                TemplateFeatureResponseDto(
+                    id = "1",
+                    title = "Feature 1",
+                    description = "Description 1",
+                    isActive = true,
+                    createdAt = "2023-01-01T00:00:00Z"
+                )
+            ),
+            nextCursor = "page-2"
+        )
+        val secondPage = TemplateFeaturePageDto(
+            items = listOf(
+                TemplateFeatureResponseDto(
+                    id = "2",
+                    title = "Feature 2",
+                    description = "Description 2",
+                    isActive = false,
+                    createdAt = "2023-01-02T00:00:00Z"
+                )
+            ),
+            cursor = "cursor-1"
+        )
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { apiService.getTemplateFeaturesPage(null, any()) } returns Response.success(firstPage)
+        coEvery { apiService.getTemplateFeaturesPage("page-2", any()) } returns Response.success(secondPage)
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.insertStagedTemplateFeatures(any()) } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 2
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 0
+        coEvery { dao.promoteStagedTemplateFeatures() } returns Unit
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerifyOrder {
+            dao.clearStagedTemplateFeatures()
+            dao.insertStagedTemplateFeatures(match { it.single().id == "1" })
+            dao.insertStagedTemplateFeatures(match { it.single().id == "2" })
+            dao.promoteStagedTemplateFeatures()
+        }
+        verify { preferences.setSyncCursor("cursor-1") }
+    }
+
+    @Test
+    fun `syncWithProgress should publish each page on first load and report progress`() = runTest {
+        // Arrange
+        val firstPage = TemplateFeaturePageDto(
+            items = listOf(
+                TemplateFeatureResponseDto(
+                    id = "1",
+                    title = "Feature 1",
+                    description = "Description 1",
+                    isActive = true,
+                    createdAt = "2023-01-01T00:00:00Z"
+                )
+            ),
+            nextCursor = "page-2",
+            totalCount = 2
+        )
+        val secondPage = firstPage.copy(
+            items = listOf(firstPage.items.single().copy(id = "2")),
+            nextCursor = null
+        )
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { dao.getTemplateFeatureCount() } returns 0
+        coEvery { apiService.getTemplateFeaturesPage(null, any()) } returns Response.success(firstPage)
+        coEvery { apiService.getTemplateFeaturesPage("page-2", any()) } returns Response.success(secondPage)
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.insertStagedTemplateFeatures(any()) } returns Unit
+        coEvery { dao.publishStagedTemplateFeatures() } returns Unit
+
+        // Act
+        val progress = repository.syncWithProgress().toList()
+
+        // Assert
+        val final = progress.last()
+        assertThat(final.phase).isEqualTo(SyncPhase.COMPLETED)
+        assertThat(final.rowsApplied).isEqualTo(2)
+        assertThat(final.estimatedTotalRows).isEqualTo(2)
+        assertThat(final.phaseDurationsMs.keys).containsAtLeast(SyncPhase.FETCH, SyncPhase.WRITE)
+        coVerifyOrder {
+            dao.insertStagedTemplateFeatures(match { it.single().id == "1" })
+            dao.publishStagedTemplateFeatures()
+            dao.insertStagedTemplateFeatures(match { it.single().id == "2" })
+            dao.publishStagedTemplateFeatures()
+        }
+        coVerify(exactly = 0) { dao.promoteStagedTemplateFeatures() }
+    }
+
+    @Test
+    fun `syncWithProgress should end with a failure when offline`() = runTest {
+        // Arrange
+        connectivityMonitor.setOnline(false)
+
+        // Act
+        val progress = repository.syncWithProgress().toList()
+
+        // Assert
+        assertThat(progress.single().phase).isEqualTo(SyncPhase.FAILED)
+        assertThat(progress.single().error).isInstanceOf(NoConnectivityException::class.java)
+    }
+
+    @Test
+    fun `syncWithRemote should skip the promote transaction when nothing changed`() = runTest {
+        // Arrange
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { apiService.getTemplateFeaturesPage(any(), any()) } returns Response.success(TemplateFeaturePageDto())
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 0
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 0
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.getOrNull()).isEqualTo(0)
+        coVerify(exactly = 0) { dao.promoteStagedTemplateFeatures() }
+    }
+
+    @Test
+    fun `syncWithRemote should not rewrite delta rows whose content hash is unchanged`() = runTest {
+        // Arrange
+        val unchanged = TemplateFeatureResponseDto(
+            id = "1",
+            title = "Feature 1",
+            description = "Description 1",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        every { preferences.getSyncCursor() } returns "cursor-1"
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { dao.getTemplateFeatureCount() } returns 1
+        coEvery { apiService.getTemplateFeatureChanges("cursor-1") } returns TemplateFeatureChangesDto(
+            features = listOf(unchanged),
+            cursor = "cursor-2"
+        )
+        coEvery { dao.getContentHashes(listOf("1")) } returns listOf(
+            TemplateFeatureContentHash(id = "1", contentHash = unchanged.contentHash())
+        )
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify(exactly = 0) { dao.applyTemplateFeatureChanges(any(), any()) }
+        verify { preferences.setSyncCursor("cursor-2") }
+    }
+
+    @Test
+    fun `syncWithRemote should apply only changes and tombstones when cursor exists`() = runTest {
+        // Arrange
+        val changes = TemplateFeatureChangesDto(
+            features = listOf(
+                TemplateFeatureResponseDto(
+                    id = "1",
+                    title = "Changed Feature",
+                    description = "Changed Description",
+                    isActive = true,
+                    createdAt = "2023-01-01T00:00:00Z"
+                )
+            ),
+            deletedIds = listOf("2"),
+            cursor = "cursor-2"
+        )
+        every { preferences.getSyncCursor() } returns "cursor-1"
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { dao.getTemplateFeatureCount() } returns 2
+        coEvery { apiService.getTemplateFeatureChanges("cursor-1") } returns changes
+        coEvery { dao.getContentHashes(listOf("1")) } returns emptyList()
+        coEvery { dao.applyTemplateFeatureChanges(any(), any()) } returns Unit
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify(exactly = 1) {
+            dao.applyTemplateFeatureChanges(match { it.single().id == "1" }, listOf("2"))
+        }
+        coVerify(exactly = 0) { apiService.getTemplateFeaturesPage(any(), any()) }
+        coVerify(exactly = 0) { dao.promoteStagedTemplateFeatures() }
+        verify { preferences.setSyncCursor("cursor-2") }
+    }
+
+    @Test
+    fun `syncWithRemote should replay the outbox and keep rows with pending writes`() = runTest {
+        // Arrange
+        val changes = TemplateFeatureChangesDto(
+            features = listOf(
+                TemplateFeatureResponseDto(
+                    id = "1",
+                    title = "Server Copy",
+                    description = "Server Description",
+                    isActive = true,
+                    createdAt = "2023-01-01T00:00:00Z"
+                )
+            ),
+            deletedIds = listOf("1"),
+            cursor = "cursor-2"
+        )
+        coEvery { outbox.pendingFeatureIds() } returns setOf("1")
+        every { preferences.getSyncCursor() } returns "cursor-1"
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { dao.getTemplateFeatureCount() } returns 1
+        coEvery { apiService.getTemplateFeatureChanges("cursor-1") } returns changes
+        coEvery { dao.getContentHashes(listOf("1")) } returns emptyList()
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerifyOrder {
+            outbox.replay()
+            apiService.getTemplateFeatureChanges("cursor-1")
+        }
+        coVerify(exactly = 0) { dao.applyTemplateFeatureChanges(any(), any()) }
+    }
+
+    @Test
+    fun `syncWithRemote should refetch only the buckets whose digests differ`() = runTest {
+        // Arrange
+        repository = createRepository(
+            syncConfig = TemplateFeatureSyncConfig(optimisticWrites = false, digestReconciliation = true)
+        )
+        val changed = TemplateFeatureResponseDto(
+            id = "a",
+            title = "Feature A",
+            description = "Description A",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { apiService.getTemplateFeatureDigests(TemplateFeatureBuckets.BUCKET_COUNT) } returns TemplateFeatureDigestsDto(
+            bucketCount = TemplateFeatureBuckets.BUCKET_COUNT,
+            buckets = listOf(
+                TemplateFeatureBucketDigestDto(bucket = 3, digest = 11L, rowCount = 1),
+                TemplateFeatureBucketDigestDto(bucket = 7, digest = 22L, rowCount = 1)
+            ),
+            cursor = "cursor-9"
+        )
+        coEvery { dao.getBucketDigests() } returns listOf(
+            TemplateFeatureBucketEntity(bucket = 3, digest = 11L, rowCount = 1),
+            TemplateFeatureBucketEntity(bucket = 7, digest = 99L, rowCount = 1),
+            TemplateFeatureBucketEntity(bucket = 9, digest = 33L, rowCount = 1)
+        )
+        coEvery { apiService.getTemplateFeaturesInBuckets(listOf(7, 9)) } returns listOf(changed)
+        coEvery { dao.getSyncedIdsInBuckets(listOf(7, 9)) } returns listOf("a", "gone")
+        coEvery { dao.getContentHashes(listOf("a")) } returns emptyList()
+        coEvery { dao.applyTemplateFeatureChanges(any(), any()) } returns Unit
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify(exactly = 1) { apiService.getTemplateFeaturesInBuckets(any()) }
+        coVerify {
+            dao.applyTemplateFeatureChanges(
+                upserts = match { upserts -> upserts.map { it.id } == listOf("a") },
+                deletedIds = listOf("gone")
+            )
+        }
+        coVerify(exactly = 0) { apiService.getTemplateFeaturesPage(any(), any()) }
+        verify { preferences.setSyncCursor("cursor-9") }
+    }
+
+    @Test
+    fun `syncWithRemote should fall back to a full sync when the server has no digests`() = runTest {
+        // Arrange
+        repository = createRepository(
+            syncConfig = TemplateFeatureSyncConfig(optimisticWrites = false, digestReconciliation = true)
+        )
+        every { preferences.getSyncCursor() } returns null
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { apiService.getTemplateFeatureDigests(any()) } throws
+            HttpException(Response.error<Any>(404, "".toResponseBody(null)))
+        coEvery { apiService.getTemplateFeaturesPage(any(), any()) } returns Response.success(TemplateFeaturePageDto())
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 0
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 0
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        coVerify { apiService.getTemplateFeaturesPage(null, any()) }
+    }
+
+    private fun <T> notModified(headers: Headers = headersOf()): Response<T> {
+        val raw = okhttp3.Response.Builder()
+            .code(HttpHeaders.NOT_MODIFIED)
+            .headers(headers)
+            .message("Not Modified")
+            .protocol(Protocol.HTTP_1_1)
+            .request(Request.Builder().url("https://api.example.com/").build())
+            .build()
+        return Response.error("".toResponseBody(null), raw)
+    }
+
+    @Test
+    fun `syncWithRemote should fall back to full sync when cursor is rejected`() = runTest {
+        // Arrange
+        val rejected = HttpException(Response.error<Any>(410, "".toResponseBody(null)))
+        every { preferences.getSyncCursor() } returns "expired"
+        every { preferences.clearSyncCursor() } returns Unit
+        every { preferences.setSyncCursor(any()) } returns Unit
+        every { preferences.setLastSyncTime(any()) } returns Unit
+        coEvery { dao.getTemplateFeatureCount() } returns 2
+        coEvery { apiService.getTemplateFeatureChanges("expired") } throws rejected
+        coEvery { apiService.getTemplateFeaturesPage(any(), any()) } returns Response.success(TemplateFeaturePageDto())
+        coEvery { dao.clearStagedTemplateFeatures() } returns Unit
+        coEvery { dao.countChangedStagedTemplateFeatures() } returns 0
+        coEvery { dao.countRemovedStagedTemplateFeatures() } returns 2
+        coEvery { dao.promoteStagedTemplateFeatures() } returns Unit
+
+        // Act
+        val result = repository.syncWithRemote()
+
+        // Assert
+        assertThat(result.isSuccess).isTrue()
+        verify { preferences.clearSyncCursor() }
+        coVerify { apiService.getTemplateFeaturesPage(null, any()) }
+        coVerify { dao.promoteStagedTemplateFeatures() }
     }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package com.example.modules.template_feature.data.repositories
+
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchOperationDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchRequestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchResponseDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchResultDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureRequestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.domain.models.TemplateFeatureModel
+import com.google.common.truth.Truth.assertThat
+import io.mockk.coEvery
+import io.mockk.coVerify
+import io.mockk.mockk
+import io.mockk.slot
+import kotlinx.coroutines.async
+import kotlinx.coroutines.test.advanceUntilIdle
+import kotlinx.coroutines.test.runTest
+import org.junit.Before
+import org.junit.Test
+
+class TemplateFeatureWriteCoalescerTest {
+
+    private lateinit var apiService: TemplateFeatureApiService
+
+    @Before
+    fun setUp() {
+        apiService = mockk()
+    }
+
+    @Test
+    fun `repeated updates within the window should be sent once with the last write`() = runTest {
+        // Arrange
+        val coalescer = TemplateFeatureWriteCoalescer(apiService, backgroundScope, windowMs = 100)
+        val request = slot<TemplateFeatureBatchRequestDto>()
+        coEvery { apiService.batchTemplateFeatures(capture(request), any()) } returns TemplateFeatureBatchResponseDto(
+            results = listOf(TemplateFeatureBatchResultDto(status = 200, feature = responseDto("1", "Second")))
+        )
+
+        // Act
+        val first = async { coalescer.update("1", requestDto("First"), idempotencyKey = "key-1") }
+        val second = async { coalescer.update("1", requestDto("Second"), idempotencyKey = "key-2") }
+        advanceUntilIdle()
+
+        // Assert
+        assertThat(first.await()?.description).isEqualTo("Second")
+        assertThat(second.await()?.description).isEqualTo("Second")
+        assertThat(request.captured.operations).containsExactly(
+            TemplateFeatureBatchOperationDto(
+                type = TemplateFeatureBatchOperationDto.TYPE_UPDATE,
+                id = "1",
+                feature = requestDto("Second"),
+                // The first write's key stays, so replaying it after a failure cannot undo the second
+                idempotencyKey = "key-1"
+            )
+        )
+        coVerify(exactly = 0) { apiService.updateTemplateFeature(any(), any()) }
+    }
+
+    @Test
+    fun `create followed by delete within the window should send nothing`() = runTest {
+        // Arrange
+        val coalescer = TemplateFeatureWriteCoalescer(apiService, backgroundScope, windowMs = 100)
+        val model = TemplateFeatureModel(
+            id = "client-1",
+            title = "Feature",
+            description = "Draft",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+
+        // Act
+        val create = async { coalescer.create(model, idempotencyKey = "key-1") }
+        val delete = async { coalescer.delete("client-1", idempotencyKey = "key-2") }
+        advanceUntilIdle()
+
+        // Assert
+        assertThat(create.await()).isNull()
+        delete.await()
+        coVerify(exactly = 0) { apiService.batchTemplateFeatures(any(), any()) }
+    }
+
+    @Test
+    fun `update followed by delete within the window should send only the delete`() = runTest {
+        // Arrange
+        val coalescer = TemplateFeatureWriteCoalescer(apiService, backgroundScope, windowMs = 100)
+        val request = slot<TemplateFeatureBatchRequestDto>()
+        coEvery { apiService.batchTemplateFeatures(capture(request), any()) } returns TemplateFeatureBatchResponseDto(
+            results = listOf(TemplateFeatureBatchResultDto(status = 204))
+        )
+
+        // Act
+        val update = async { coalescer.update("1", requestDto("Edited"), idempotencyKey = "key-1") }
+        val delete = async { coalescer.delete("1", idempotencyKey = "key-2") }
+        advanceUntilIdle()
+
+        // Assert
+        assertThat(update.await()).isNull()
+        delete.await()
+        val operation = request.captured.operations.single()
+        assertThat(operation.type).isEqualTo(TemplateFeatureBatchOperationDto.TYPE_DELETE)
+        assertThat(operation.idempotencyKey).isEqualTo("key-2")
+    }
+
+    @Test
+    fun `rejected items should fail only their own callers`() = runTest {
+        // Arrange
+        val coalescer = TemplateFeatureWriteCoalescer(apiService, backgroundScope, windowMs = 100)
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returns TemplateFeatureBatchResponseDto(
+            results = listOf(
+                TemplateFeatureBatchResultDto(status = 200, feature = responseDto("1", "Kept")),
+                TemplateFeatureBatchResultDto(status = 422, error = "Invalid title")
+            )
+        )
+
+        // Act
+        val accepted = async { runCatching { coalescer.update("1", requestDto("Kept"), idempotencyKey = "key-1") } }
+        val rejected = async { runCatching { coalescer.update("2", requestDto("Bad"), idempotencyKey = "key-2") } }
+        advanceUntilIdle()
+
+        // Assert
+        assertThat(accepted.await().getOrNull()?.description).isEqualTo("Kept")
+        val failure = rejected.await().exceptionOrNull()
+        assertThat(failure).isInstanceOf(BatchWriteException::class.java)
+        assertThat((failure as BatchWriteException).status).isEqualTo(422)
+    }
+
+    @Test
+    fun `zero window should call the single item endpoint directly`() = runTest {
+        // Arrange
+        val coalescer = TemplateFeatureWriteCoalescer(apiService, backgroundScope, windowMs = 0)
+        coEvery { apiService.updateTemplateFeature("1", any()) } returns responseDto("1", "Direct")
+
+        // Act
+        val result = coalescer.update("1", requestDto("Direct"), idempotencyKey = "key-1")
+
+        // Assert
+        assertThat(result?.description).isEqualTo("Direct")
+        coVerify(exactly = 0) { apiService.batchTemplateFeatures(any(), any()) }
+    }
+
+    @Test
+    fun `zero window should send a create under the caller's key`() = runTest {
+        // Arrange
+        val coalescer = TemplateFeatureWriteCoalescer(apiService, backgroundScope, windowMs = 0)
+        val model = TemplateFeatureModel(
+            id = "",
+            title = "Feature",
+            description = "Direct",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+        coEvery { apiService.createTemplateFeature(any(), "key-1") } returns responseDto("1", "Direct")
+
+        // Act
+        val result = coalescer.create(model, idempotencyKey = "key-1")
+
+        // Assert
+        assertThat(result?.id).isEqualTo("1")
+        coVerify { apiService.createTemplateFeature(any(), "key-1") }
+    }
+
+    private fun requestDto(description: String) = TemplateFeatureRequestDto(
+        title = "Feature",
+        description = description,
+        isActive = true
+    )
+
+    private fun responseDto(id: String, description: String) = TemplateFeatureResponseDto(
+        id = id,
+        title = "Feature",
+        description = description,
+        isActive = true,
+        createdAt = "2023-01-01T00:00:00Z"
+    )
+}
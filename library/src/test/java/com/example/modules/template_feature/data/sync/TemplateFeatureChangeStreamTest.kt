@@ -0,0 +1,189 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.data.dto.TemplateFeatureChangeEventDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
+import com.example.modules.template_feature.data.localdatasource.preferences.TemplateFeaturePreferences
+import com.example.modules.template_feature.data.remotedatasource.connectivity.FakeConnectivityMonitor
+import com.example.modules.template_feature.domain.models.SyncScope
+import com.google.common.truth.Truth.assertThat
+import io.mockk.coEvery
+import io.mockk.coVerify
+import io.mockk.every
+import io.mockk.mockk
+import io.mockk.verify
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.cancel
+import kotlinx.coroutines.runBlocking
+import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.Json
+import okhttp3.OkHttpClient
+import okhttp3.Response
+import okhttp3.WebSocket
+import okhttp3.WebSocketListener
+import okhttp3.mockwebserver.MockResponse
+import okhttp3.mockwebserver.MockWebServer
+import org.junit.After
+import org.junit.Before
+import org.junit.Test
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.atomic.AtomicInteger
+
+class TemplateFeatureChangeStreamTest {
+
+    private val json = Json { ignoreUnknownKeys = true }
+    private val catchUps = AtomicInteger()
+
+    private lateinit var server: MockWebServer
+    private lateinit var dao: TemplateFeatureDao
+    private lateinit var preferences: TemplateFeaturePreferences
+    private lateinit var scope: CoroutineScope
+    private lateinit var stream: TemplateFeatureChangeStream
+
+    @Before
+    fun setUp() {
+        server = MockWebServer()
+        server.start()
+        dao = mockk(relaxUnitFun = true)
+        coEvery { dao.getContentHashes(any()) } returns emptyList()
+        val outbox = mockk<TemplateFeatureOutbox>()
+        coEvery { outbox.hasPendingOperations(any()) } returns false
+        preferences = mockk(relaxUnitFun = true)
+        every { preferences.getSyncScope() } returns SyncScope.ALL
+        every { preferences.getStreamSequence() } returns null
+        scope = CoroutineScope(SupervisorJob() + Dispatchers.IO)
+        stream = TemplateFeatureChangeStream(
+            client = OkHttpClient(),
+            json = json,
+            streamUrl = server.url("/template-features/stream"),
+            dao = dao,
+            outbox = outbox,
+            preferences = preferences,
+            connectivityMonitor = FakeConnectivityMonitor(online = true),
+            scope = scope,
+            syncConfig = TemplateFeatureSyncConfig(changeStreamReconnectMs = 10, changeStreamMaxReconnectMs = 10),
+            catchUp = {
+                catchUps.incrementAndGet()
+                Result.success(Unit)
+            }
+        )
+    }
+
+    @After
+    fun tearDown() {
+        stream.stop()
+        scope.cancel()
+        server.shutdown()
+    }
+
+    @Test
+    fun `start should apply events and resume after the last sequence on reconnect`() = runBlocking {
+        // Arrange
+        server.enqueue(socketSending(upsert(1, "a"), delete(2, "b"), closeAfter = true))
+        server.enqueue(socketSending())
+
+        // Act
+        stream.start()
+
+        // Assert
+        assertThat(server.takeRequest(5, TimeUnit.SECONDS)?.requestUrl?.queryParameter("since")).isNull()
+        assertThat(server.takeRequest(5, TimeUnit.SECONDS)?.requestUrl?.queryParameter("since")).isEqualTo("2")
+        coVerify { dao.insertTemplateFeature(match { it.id == "a" }) }
+        coVerify { dao.deleteTemplateFeatureById("b") }
+        // Only the first event, which had no sequence to follow on from
+        assertThat(catchUps.get()).isEqualTo(1)
+    }
+
+    @Test
+    fun `start should resume after the sequence a previous process saved`() = runBlocking {
+        // Arrange
+        every { preferences.getStreamSequence() } returns 7
+        server.enqueue(socketSending(upsert(8, "h")))
+
+        // Act
+        stream.start()
+
+        // Assert
+        assertThat(server.takeRequest(5, TimeUnit.SECONDS)?.requestUrl?.queryParameter("since")).isEqualTo("7")
+        coVerify(timeout = 5_000) { dao.insertTemplateFeature(match { it.id == "h" }) }
+        verify(timeout = 5_000) { preferences.setStreamSequence(8) }
+        // Event 8 follows on from the saved sequence, so nothing needs catching up
+        assertThat(catchUps.get()).isEqualTo(0)
+    }
+
+    @Test
+    fun `start should fall back to a delta sync when events were skipped`() = runBlocking {
+        // Arrange
+        server.enqueue(socketSending(upsert(1, "a"), upsert(2, "b"), upsert(5, "e")))
+
+        // Act
+        stream.start()
+
+        // Assert
+        coVerify(timeout = 5_000) { dao.insertTemplateFeature(match { it.id == "e" }) }
+        assertThat(catchUps.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun `start should catch up when the server can no longer replay from our sequence`() = runBlocking {
+        // Arrange
+        val resync = json.encodeToString(
+            TemplateFeatureChangeEventDto(sequence = 40, type = TemplateFeatureChangeEventDto.TYPE_RESYNC)
+        )
+        server.enqueue(socketSending(upsert(1, "a"), resync, upsert(41, "b")))
+
+        // Act
+        stream.start()
+
+        // Assert
+        coVerify(timeout = 5_000) { dao.insertTemplateFeature(match { it.id == "b" }) }
+        assertThat(catchUps.get()).isEqualTo(2)
+    }
+
+    @Test
+    fun `start should catch up past an event it cannot decode`() = runBlocking {
+        // Arrange
+        server.enqueue(socketSending(upsert(1, "a"), """{"sequence":2,"type":""", upsert(3, "c")))
+
+        // Act
+        stream.start()
+
+        // Assert
+        coVerify(timeout = 5_000) { dao.insertTemplateFeature(match { it.id == "c" }) }
+        // The first event, then the one that could not be read; the next follows on from it
+        assertThat(catchUps.get()).isEqualTo(2)
+    }
+
+    private fun socketSending(vararg messages: String, closeAfter: Boolean = false): MockResponse {
+        return MockResponse().withWebSocketUpgrade(object : WebSocketListener() {
+            override fun onOpen(webSocket: WebSocket, response: Response) {
+                messages.forEach { webSocket.send(it) }
+                if (closeAfter) webSocket.close(1000, null)
+            }
+        })
+    }
+
+    private fun upsert(sequence: Long, id: String): String {
+        return json.encodeToString(
+            TemplateFeatureChangeEventDto(
+                sequence = sequence,
+                type = TemplateFeatureChangeEventDto.TYPE_UPSERT,
+                feature = TemplateFeatureResponseDto(
+                    id = id,
+                    title = "Feature $id",
+                    description = "Description $id",
+                    isActive = true,
+                    createdAt = "2023-01-01T00:00:00Z"
+                )
+            )
+        )
+    }
+
+    private fun delete(sequence: Long, id: String): String {
+        return json.encodeToString(
+            TemplateFeatureChangeEventDto(sequence = sequence, type = TemplateFeatureChangeEventDto.TYPE_DELETE, id = id)
+        )
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchOperationDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchRequestDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchResponseDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureBatchResultDto
+import com.example.modules.template_feature.data.dto.TemplateFeatureResponseDto
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationDao
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationEntity
+import com.example.modules.template_feature.data.localdatasource.database.PendingOperationType
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureEntity
+import com.example.modules.template_feature.data.remotedatasource.api.TemplateFeatureApiService
+import com.example.modules.template_feature.data.remotedatasource.connectivity.FakeConnectivityMonitor
+import com.google.common.truth.Truth.assertThat
+import io.mockk.coEvery
+import io.mockk.coVerify
+import io.mockk.coVerifyOrder
+import io.mockk.mockk
+import kotlinx.coroutines.CancellationException
+import kotlinx.coroutines.test.TestScope
+import kotlinx.coroutines.test.advanceUntilIdle
+import kotlinx.coroutines.test.runCurrent
+import kotlinx.coroutines.test.runTest
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.junit.Before
+import org.junit.Test
+import retrofit2.HttpException
+import retrofit2.Response
+import java.io.IOException
+
+class TemplateFeatureOutboxTest {
+
+    private lateinit var apiService: TemplateFeatureApiService
+    private lateinit var pendingOperationDao: PendingOperationDao
+    private lateinit var outbox: TemplateFeatureOutbox
+
+    private val createOperation = PendingOperationEntity(
+        sequence = 1,
+        featureId = "local_1",
+        type = PendingOperationType.CREATE,
+        title = "Offline Feature",
+        description = "Created offline",
+        isActive = true,
+        idempotencyKey = "create-key"
+    )
+    private val updateOperation = createOperation.copy(
+        sequence = 2,
+        type = PendingOperationType.UPDATE,
+        description = "Edited offline",
+        idempotencyKey = "update-key"
+    )
+
+    @Before
+    fun setUp() {
+        apiService = mockk()
+        pendingOperationDao = mockk(relaxUnitFun = true)
+        coEvery { pendingOperationDao.deletePendingOperation(any()) } returns 1
+        outbox = TemplateFeatureOutbox(
+            apiService,
+            pendingOperationDao,
+            // Batching is opt-in; most tests cover the batch path
+            TemplateFeatureSyncConfig(writeCoalescingWindowMs = 100),
+            FakeConnectivityMonitor(online = true),
+            TestScope()
+        )
+    }
+
+    @Test
+    fun `replay should create remotely and remap the local id before replaying later writes`() = runTest {
+        // Arrange
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(createOperation),
+            listOf(updateOperation.copy(featureId = "server-1")),
+            emptyList()
+        )
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returnsMany listOf(
+            batchResponse(TemplateFeatureBatchResultDto(status = 201, feature = responseDto("server-1", "Created offline"))),
+            batchResponse(TemplateFeatureBatchResultDto(status = 200, feature = responseDto("server-1", "Edited offline")))
+        )
+
+        // Act
+        val result = outbox.replay()
+
+        // Assert
+        assertThat(result).isEqualTo(OutboxReplayResult(replayed = 2, rejected = 0, hasRemaining = false))
+        coVerifyOrder {
+            apiService.batchTemplateFeatures(match { it.operations.single().id == null }, any())
+            pendingOperationDao.completeCreate(1, "local_1", match { it.id == "server-1" })
+            apiService.batchTemplateFeatures(match { it.operations.single().id == "server-1" }, any())
+            pendingOperationDao.completeUpdate(2, match { it.description == "Edited offline" })
+        }
+    }
+
+    @Test
+    fun `replay should send writes to different features in one request`() = runTest {
+        // Arrange
+        val deleteOperation = PendingOperationEntity(
+            sequence = 3,
+            featureId = "server-2",
+            type = PendingOperationType.DELETE
+        )
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(createOperation, deleteOperation),
+            emptyList()
+        )
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returns batchResponse(
+            TemplateFeatureBatchResultDto(status = 201, feature = responseDto("server-1", "Created offline")),
+            TemplateFeatureBatchResultDto(status = 404)
+        )
+
+        // Act
+        val result = outbox.replay()
+
+        // Assert
+        assertThat(result).isEqualTo(OutboxReplayResult(replayed = 2, rejected = 0, hasRemaining = false))
+        coVerify(exactly = 1) {
+            apiService.batchTemplateFeatures(match { request ->
+                request.operations.map { it.type } == listOf(
+                    TemplateFeatureBatchOperationDto.TYPE_CREATE,
+                    TemplateFeatureBatchOperationDto.TYPE_DELETE
+                )
+            }, any())
+        }
+        coVerify { pendingOperationDao.deletePendingOperation(3) }
+    }
+
+    @Test
+    fun `replay should hold back only the features whose oldest write is backing off`() = runTest {
+        // Arrange
+        val backingOff = createOperation.copy(nextAttemptAt = Long.MAX_VALUE)
+        val remoteUpdate = updateOperation.copy(sequence = 3, featureId = "server-2")
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(backingOff, updateOperation, remoteUpdate),
+            listOf(backingOff, updateOperation)
+        )
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returns batchResponse(
+            TemplateFeatureBatchResultDto(status = 200, feature = responseDto("server-2", "Edited offline"))
+        )
+
+        // Act
+        val result = outbox.replay()
+
+        // Assert
+        assertThat(result).isEqualTo(OutboxReplayResult(replayed = 1, rejected = 0, hasRemaining = true))
+        coVerify(exactly = 1) { apiService.batchTemplateFeatures(match { it.operations.single().id == "server-2" }, any()) }
+        coVerify { pendingOperationDao.completeUpdate(3, match { it.id == "server-2" }) }
+    }
+
+    @Test
+    fun `replay should back off a transiently failed write but still apply the rest of the batch`() = runTest {
+        // Arrange
+        val remoteUpdate = updateOperation.copy(sequence = 3, featureId = "server-2")
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returns listOf(createOperation, remoteUpdate)
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returns batchResponse(
+            TemplateFeatureBatchResultDto(status = 503),
+            TemplateFeatureBatchResultDto(status = 200, feature = responseDto("server-2", "Edited offline"))
+        )
+
+        // Act
+        val result = outbox.replay()
+
+        // Assert
+        assertThat(result).isEqualTo(OutboxReplayResult(replayed = 1, rejected = 0, hasRemaining = true))
+        coVerify { pendingOperationDao.markAttemptFailed(1, any()) }
+        coVerify { pendingOperationDao.completeUpdate(3, match { it.id == "server-2" }) }
+        coVerify(exactly = 0) { pendingOperationDao.rejectCreate(any()) }
+    }
+
+    @Test
+    fun `replay should back off and keep order when the network fails`() = runTest {
+        // Arrange
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returns listOf(createOperation, updateOperation)
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } throws IOException("offline")
+
+        // Act
+        val result = outbox.replay()
+
+        // Assert
+        assertThat(result.hasRemaining).isTrue()
+        coVerify { pendingOperationDao.markAttemptFailed(1, any()) }
+        // The update depends on the create's server id, so it waits for the next request
+        coVerify(exactly = 1) { apiService.batchTemplateFeatures(match { it.operations.size == 1 }, any()) }
+    }
+
+    @Test
+    fun `replay should run again by itself once a backed off write is due`() = runTest {
+        // Arrange
+        val retryingOutbox = TemplateFeatureOutbox(
+            apiService,
+            pendingOperationDao,
+            TemplateFeatureSyncConfig(writeCoalescingWindowMs = 100),
+            FakeConnectivityMonitor(online = true),
+            backgroundScope
+        )
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(createOperation),
+            listOf(createOperation),
+            emptyList()
+        )
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } throws IOException("offline") andThen batchResponse(
+            TemplateFeatureBatchResultDto(status = 201, feature = responseDto("server-1", "Created offline"))
+        )
+
+        // Act
+        retryingOutbox.replay()
+        advanceUntilIdle()
+
+        // Assert
+        coVerify(exactly = 2) { apiService.batchTemplateFeatures(any(), any()) }
+        coVerify { pendingOperationDao.completeCreate(1, "local_1", match { it.id == "server-1" }) }
+    }
+
+    @Test
+    fun `replay should resend a failed batch under the same idempotency keys`() = runTest {
+        // Arrange
+        val requests = mutableListOf<TemplateFeatureBatchRequestDto>()
+        val keys = mutableListOf<String?>()
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returns listOf(createOperation)
+        coEvery { apiService.batchTemplateFeatures(capture(requests), capture(keys)) } throws IOException("offline")
+
+        // Act
+        outbox.replay()
+        outbox.replay()
+
+        // Assert
+        assertThat(requests.map { it.operations.single().idempotencyKey }).containsExactly("create-key", "create-key")
+        assertThat(keys).hasSize(2)
+        assertThat(keys[0]).isNotNull()
+        assertThat(keys[1]).isEqualTo(keys[0])
+    }
+
+    @Test
+    fun `replay should rethrow cancellation without backing off`() = runTest {
+        // Arrange
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returns listOf(createOperation)
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } throws CancellationException("replay cancelled")
+
+        // Act
+        val thrown = runCatching { outbox.replay() }.exceptionOrNull()
+
+        // Assert
+        assertThat(thrown).isInstanceOf(CancellationException::class.java)
+        coVerify(exactly = 0) { pendingOperationDao.markAttemptFailed(any(), any()) }
+    }
+
+    @Test
+    fun `replay should drop a rejected create and flag the local row`() = runTest {
+        // Arrange
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(createOperation),
+            emptyList()
+        )
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returns batchResponse(
+            TemplateFeatureBatchResultDto(status = 422, error = "title is required")
+        )
+
+        // Act
+        val result = outbox.replay()
+
+        // Assert
+        assertThat(result.rejected).isEqualTo(1)
+        coVerify { pendingOperationDao.rejectCreate("local_1") }
+    }
+
+    @Test
+    fun `replay should roll a rejected update back to the server copy`() = runTest {
+        // Arrange
+        val remoteUpdate = updateOperation.copy(featureId = "server-1")
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(remoteUpdate),
+            emptyList()
+        )
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returns batchResponse(
+            TemplateFeatureBatchResultDto(status = 409)
+        )
+        coEvery { apiService.getTemplateFeatureById("server-1") } returns responseDto("server-1", "Server copy")
+
+        // Act
+        val result = outbox.replay()
+
+        // Assert
+        assertThat(result.rejected).isEqualTo(1)
+        coVerify {
+            pendingOperationDao.rollBack(2, "server-1", match { it.description == "Server copy" })
+        }
+    }
+
+    @Test
+    fun `outbox should replay when connectivity comes back`() = runTest {
+        // Arrange
+        val connectivityMonitor = FakeConnectivityMonitor(online = false)
+        TemplateFeatureOutbox(
+            apiService,
+            pendingOperationDao,
+            TemplateFeatureSyncConfig(),
+            connectivityMonitor,
+            backgroundScope
+        )
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returns emptyList()
+        runCurrent()
+
+        // Act
+        connectivityMonitor.setOnline(true)
+        runCurrent()
+
+        // Assert
+        coVerify(exactly = 1) { pendingOperationDao.getPendingOperations(any()) }
+    }
+
+    @Test
+    fun `requestReplay should send writes made within the coalescing window together`() = runTest {
+        // Arrange
+        val coalescingOutbox = TemplateFeatureOutbox(
+            apiService,
+            pendingOperationDao,
+            TemplateFeatureSyncConfig(writeCoalescingWindowMs = 100),
+            FakeConnectivityMonitor(online = true),
+            backgroundScope
+        )
+        val deleteOperation = PendingOperationEntity(
+            sequence = 3,
+            featureId = "server-2",
+            type = PendingOperationType.DELETE
+        )
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(createOperation, deleteOperation),
+            emptyList()
+        )
+        coEvery { apiService.batchTemplateFeatures(any(), any()) } returns batchResponse(
+            TemplateFeatureBatchResultDto(status = 201, feature = responseDto("server-1", "Created offline")),
+            TemplateFeatureBatchResultDto(status = 204)
+        )
+
+        // Act
+        coalescingOutbox.requestReplay()
+        coalescingOutbox.requestReplay()
+        advanceUntilIdle()
+
+        // Assert
+        coVerify(exactly = 1) { apiService.batchTemplateFeatures(match { it.operations.size == 2 }, any()) }
+    }
+
+    @Test
+    fun `replay should use the single-item endpoints when batching is off`() = runTest {
+        // Arrange
+        val singleOutbox = TemplateFeatureOutbox(
+            apiService,
+            pendingOperationDao,
+            TemplateFeatureSyncConfig(writeCoalescingWindowMs = 0),
+            FakeConnectivityMonitor(online = true),
+            TestScope()
+        )
+        val deleteOperation = PendingOperationEntity(
+            sequence = 3,
+            featureId = "server-2",
+            type = PendingOperationType.DELETE
+        )
+        coEvery { pendingOperationDao.getPendingOperations(any()) } returnsMany listOf(
+            listOf(createOperation, deleteOperation),
+            listOf(deleteOperation),
+            emptyList()
+        )
+        coEvery { apiService.createTemplateFeature(any(), any()) } returns responseDto("server-1", "Created offline")
+        coEvery { apiService.deleteTemplateFeature("server-2") } throws HttpException(
+            Response.error<Unit>(404, "".toResponseBody())
+        )
+
+        // Act
+        val result = singleOutbox.replay()
+
+        // Assert
+        assertThat(result).isEqualTo(OutboxReplayResult(replayed = 2, rejected = 0, hasRemaining = false))
+        coVerify { apiService.createTemplateFeature(match { it.description == "Created offline" }, "create-key") }
+        coVerify { pendingOperationDao.completeCreate(1, "local_1", match { it.id == "server-1" }) }
+        coVerify { pendingOperationDao.deletePendingOperation(3) }
+        coVerify(exactly = 0) { apiService.batchTemplateFeatures(any(), any()) }
+    }
+
+    @Test
+    fun `recordDelete should drop queued writes for a feature that never reached the server`() = runTest {
+        // Act
+        outbox.recordDelete("local_1")
+
+        // Assert
+        coVerify { pendingOperationDao.deleteLocally("local_1", null) }
+    }
+
+    @Test
+    fun `recordCreate should queue the create under the key its request already used`() = runTest {
+        // Arrange
+        val entity = TemplateFeatureEntity(
+            id = "local_1",
+            title = "Offline Feature",
+            description = "Created offline",
+            isActive = true,
+            createdAt = "2023-01-01T00:00:00Z"
+        )
+
+        // Act
+        outbox.recordCreate(entity, idempotencyKey = "sent-key")
+
+        // Assert
+        coVerify { pendingOperationDao.insertLocalChange(any(), match { it.idempotencyKey == "sent-key" }) }
+    }
+
+    private fun batchResponse(vararg results: TemplateFeatureBatchResultDto) =
+        TemplateFeatureBatchResponseDto(results = results.toList())
+
+    private fun responseDto(id: String, description: String) = TemplateFeatureResponseDto(
+        id = id,
+        title = "Offline Feature",
+        description = description,
+        isActive = true,
+        createdAt = "2023-01-01T00:00:00Z"
+    )
+}
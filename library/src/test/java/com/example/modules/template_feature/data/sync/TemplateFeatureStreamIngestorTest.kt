@@ -0,0 +1,72 @@
+package com.example.modules.template_feature.data.sync
+
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureDao
+import com.example.modules.template_feature.data.localdatasource.database.TemplateFeatureStagingEntity
+import com.google.common.truth.Truth.assertThat
+import io.mockk.coEvery
+import io.mockk.mockk
+import kotlinx.coroutines.test.runTest
+import kotlinx.serialization.json.Json
+import okhttp3.ResponseBody.Companion.toResponseBody
+import org.junit.Before
+import org.junit.Test
+
+class TemplateFeatureStreamIngestorTest {
+
+    private lateinit var dao: TemplateFeatureDao
+    private lateinit var ingestor: TemplateFeatureStreamIngestor
+    private val writtenBatches = mutableListOf<List<TemplateFeatureStagingEntity>>()
+
+    @Before
+    fun setUp() {
+        dao = mockk()
+        coEvery { dao.insertStagedTemplateFeatures(any()) } answers {
+            writtenBatches.add(firstArg())
+        }
+        ingestor = TemplateFeatureStreamIngestor(Json { ignoreUnknownKeys = true }, dao)
+    }
+
+    @Test
+    fun `ingest should write decoded features in fixed size batches`() = runTest {
+        // Arrange
+        val body = (1..5).joinToString(prefix = "[", postfix = "]") { index ->
+            """{"id":"$index","title":"Feature $index","description":"Description $index","isActive":true,"createdAt":"2023-01-0${index}T00:00:00Z","extra":1}"""
+        }.toResponseBody()
+
+        // Act
+        val ingested = ingestor.ingest(body, batchSize = 2)
+
+        // Assert
+        assertThat(ingested).isEqualTo(5)
+        assertThat(writtenBatches.map { it.size }).containsExactly(2, 2, 1).inOrder()
+        assertThat(writtenBatches.flatten().map { it.id }).containsExactly("1", "2", "3", "4", "5").inOrder()
+    }
+
+    @Test
+    fun `ingest should report running row and byte counts after each batch`() = runTest {
+        // Arrange
+        val json = (1..3).joinToString(prefix = "[", postfix = "]") { index ->
+            """{"id":"$index","title":"Feature $index","description":"Description $index","isActive":true,"createdAt":"2023-01-0${index}T00:00:00Z"}"""
+        }
+        val reports = mutableListOf<Pair<Int, Long>>()
+
+        // Act
+        ingestor.ingest(json.toResponseBody(), batchSize = 2) { rowsStaged, bytesRead ->
+            reports.add(rowsStaged to bytesRead)
+        }
+
+        // Assert
+        assertThat(reports.map { it.first }).containsExactly(2, 3).inOrder()
+        assertThat(reports.last().second).isEqualTo(json.toByteArray().size.toLong())
+    }
+
+    @Test
+    fun `ingest should not write anything for an empty array`() = runTest {
+        // Act
+        val ingested = ingestor.ingest("[]".toResponseBody(), batchSize = 2)
+
+        // Assert
+        assertThat(ingested).isEqualTo(0)
+        assertThat(writtenBatches).isEmpty()
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.modules.template_feature.data.sync
+
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.test.runCurrent
+import kotlinx.coroutines.test.runTest
+import org.junit.Test
+
+class TemplateFeatureSyncCoordinatorTest {
+
+    @Test
+    fun `concurrent requests should share one in-flight sync`() = runTest {
+        // Arrange
+        var runs = 0
+        val gate = CompletableDeferred<Unit>()
+        val coordinator = TemplateFeatureSyncCoordinator {
+            runs++
+            gate.await()
+            Result.success(0)
+        }
+
+        // Act
+        val first = async { coordinator.requestSync() }
+        runCurrent()
+        val others = List(3) { async { coordinator.requestSync() } }
+        runCurrent()
+        assertThat(coordinator.state.value.isSyncing).isTrue()
+        assertThat(coordinator.state.value.hasQueuedSync).isTrue()
+        gate.complete(Unit)
+        val results = (listOf(first) + others).awaitAll()
+
+        // Assert
+        // One run for the first caller, one follow-up shared by everyone who arrived mid-sync
+        assertThat(runs).isEqualTo(2)
+        assertThat(results.all { it.isSuccess }).isTrue()
+        assertThat(coordinator.state.value.isSyncing).isFalse()
+        assertThat(coordinator.state.value.completedSyncs).isEqualTo(2)
+    }
+
+    @Test
+    fun `requests arriving while idle should each start a new sync`() = runTest {
+        // Arrange
+        var runs = 0
+        val coordinator = TemplateFeatureSyncCoordinator {
+            runs++
+            Result.success(0)
+        }
+
+        // Act
+        coordinator.requestSync()
+        coordinator.requestSync()
+
+        // Assert
+        assertThat(runs).isEqualTo(2)
+    }
+
+    @Test
+    fun `failures should reach every waiting caller and the state`() = runTest {
+        // Arrange
+        val gate = CompletableDeferred<Unit>()
+        val coordinator = TemplateFeatureSyncCoordinator {
+            gate.await()
+            throw IllegalStateException("Sync failed")
+        }
+
+        // Act
+        val first = async { coordinator.requestSync() }
+        runCurrent()
+        gate.complete(Unit)
+        val result = first.await()
+
+        // Assert
+        assertThat(result.exceptionOrNull()).isInstanceOf(IllegalStateException::class.java)
+        assertThat(coordinator.state.value.lastError).isInstanceOf(IllegalStateException::class.java)
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.modules.template_feature.di
+
+import com.google.common.truth.Truth.assertThat
+import org.junit.Test
+
+class SyncIntervalPolicyTest {
+
+    private val config = BackgroundSyncConfig(minIntervalMinutes = 15, maxIntervalMinutes = 120)
+
+    @Test
+    fun `quiet syncs should double the interval up to the maximum`() {
+        // Act
+        val intervals = generateSequence(15L) { current ->
+            SyncIntervalPolicy.nextIntervalMinutes(current, lastChangeCount = 0, config = config)
+        }.take(6).toList()
+
+        // Assert
+        assertThat(intervals).containsExactly(15L, 30L, 60L, 120L, 120L, 120L).inOrder()
+    }
+
+    @Test
+    fun `a sync that found changes should drop back to the minimum interval`() {
+        // Act
+        val next = SyncIntervalPolicy.nextIntervalMinutes(120, lastChangeCount = 3, config = config)
+
+        // Assert
+        assertThat(next).isEqualTo(15L)
+    }
+}
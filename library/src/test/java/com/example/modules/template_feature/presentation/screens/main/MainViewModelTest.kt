@@ -1,6 +1,9 @@
 package com.example.modules.template_feature.presentation.screens.main
 
 import app.cash.turbine.test
+import com.example.modules.template_feature.domain.models.CacheFreshness
+import com.example.modules.template_feature.domain.models.SyncPhase
+import com.example.modules.template_feature.domain.models.SyncProgress
 import com.example.modules.template_feature.domain.models.TemplateFeatureModel
 import com.example.modules.template_feature.domain.usecases.GetTemplateFeatureDataUseCase
 import com.example.modules.template_feature.domain.usecases.SaveTemplateFeatureDataUseCase
@@ -10,8 +13,11 @@ import io.mockk.coEvery
 import io.mockk.coVerify
 import io.mockk.every
 import io.mockk.mockk
+import io.mockk.verify
 import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.ExperimentalCoroutinesApi
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.MutableStateFlow
 import kotlinx.coroutines.flow.flowOf
 import kotlinx.coroutines.test.StandardTestDispatcher
 import kotlinx.coroutines.test.resetMain
@@ -41,6 +47,9 @@ class MainViewModelTest {
         // Mock default behavior
         coEvery { getTemplateFeatureDataUseCase.getActiveFeatures() } returns flowOf(emptyList())
         coEvery { getTemplateFeatureDataUseCase.getAllFeatures() } returns flowOf(emptyList())
+        every { syncTemplateFeatureUseCase.observeCacheFreshness() } returns flowOf(
+            CacheFreshness(lastSyncTime = null, isStale = true, isRefreshing = false)
+        )
     }
 
     @After
@@ -125,7 +134,11 @@ class MainViewModelTest {
     @Test
     fun `refreshData should call sync and reload features`() = runTest {
         // Arrange
-        coEvery { syncTemplateFeatureUseCase.syncWithRemote() } returns Result.success(Unit)
+        every { syncTemplateFeatureUseCase.syncWithProgress() } returns flowOf(
+            SyncProgress(phase = SyncPhase.FETCH),
+            SyncProgress(phase = SyncPhase.WRITE, rowsApplied = 1, estimatedTotalRows = 2),
+            SyncProgress(phase = SyncPhase.COMPLETED, rowsApplied = 2, estimatedTotalRows = 2)
+        )
         coEvery { getTemplateFeatureDataUseCase.getActiveFeatures() } returns flowOf(emptyList())
         viewModel = MainViewModel(getTemplateFeatureDataUseCase, saveTemplateFeatureDataUseCase, syncTemplateFeatureUseCase)
         testDispatcher.scheduler.advanceUntilIdle()
@@ -135,10 +148,11 @@ class MainViewModelTest {
         testDispatcher.scheduler.advanceUntilIdle()
 
         // Assert
-        coVerify { syncTemplateFeatureUseCase.syncWithRemote() }
+        verify { syncTemplateFeatureUseCase.syncWithProgress() }
         viewModel.state.test {
             val state = awaitItem()
             assertThat(state.isRefreshing).isFalse()
+            assertThat(state.syncProgress?.phase).isEqualTo(SyncPhase.COMPLETED)
         }
     }
 
@@ -174,6 +188,95 @@ class MainViewModelTest {
         coVerify { getTemplateFeatureDataUseCase.searchFeatures(query) }
     }
 
+    @Test
+    fun `searchFeatures should only search the latest query after typing pauses`() = runTest {
+        // Arrange
+        coEvery { getTemplateFeatureDataUseCase.searchFeatures(any()) } returns Result.success(emptyList())
+        viewModel = MainViewModel(getTemplateFeatureDataUseCase, saveTemplateFeatureDataUseCase, syncTemplateFeatureUseCase)
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Act
+        listOf("a", "au", "aut", "auth").forEach { query ->
+            viewModel.searchFeatures(query)
+            testDispatcher.scheduler.advanceTimeBy(100)
+        }
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Assert
+        coVerify(exactly = 1) { getTemplateFeatureDataUseCase.searchFeatures(any()) }
+        coVerify { getTemplateFeatureDataUseCase.searchFeatures("auth") }
+        assertThat(viewModel.state.value.searchStats).isEqualTo(SearchRequestStats(sent = 1, suppressed = 3))
+    }
+
+    @Test
+    fun `searchFeatures should cancel an in-flight search when the query changes`() = runTest {
+        // Arrange
+        val staleResults = listOf(
+            TemplateFeatureModel(id = "1", title = "Stale", description = "", isActive = true, createdAt = "2023-01-01T00:00:00Z")
+        )
+        val freshResults = listOf(
+            TemplateFeatureModel(id = "2", title = "Fresh", description = "", isActive = true, createdAt = "2023-01-01T00:00:00Z")
+        )
+        coEvery { getTemplateFeatureDataUseCase.searchFeatures("auth") } coAnswers {
+            delay(1_000)
+            Result.success(staleResults)
+        }
+        coEvery { getTemplateFeatureDataUseCase.searchFeatures("authz") } returns Result.success(freshResults)
+        viewModel = MainViewModel(getTemplateFeatureDataUseCase, saveTemplateFeatureDataUseCase, syncTemplateFeatureUseCase)
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Act
+        viewModel.searchFeatures("auth")
+        testDispatcher.scheduler.advanceTimeBy(MainViewModel.SEARCH_DEBOUNCE_MS + 100)
+        viewModel.searchFeatures("authz")
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Assert
+        assertThat(viewModel.state.value.templateFeatures).isEqualTo(freshResults)
+        assertThat(viewModel.state.value.searchStats.sent).isEqualTo(2)
+    }
+
+    @Test
+    fun `searchFeatures should keep results on screen when the table changes`() = runTest {
+        // Arrange
+        val table = MutableStateFlow(
+            listOf(TemplateFeatureModel(id = "1", title = "Listed", description = "", isActive = true, createdAt = "2023-01-01T00:00:00Z"))
+        )
+        val searchResults = listOf(
+            TemplateFeatureModel(id = "2", title = "Found", description = "", isActive = true, createdAt = "2023-01-01T00:00:00Z")
+        )
+        coEvery { getTemplateFeatureDataUseCase.getActiveFeatures() } returns table
+        coEvery { getTemplateFeatureDataUseCase.searchFeatures("auth") } returns Result.success(searchResults)
+        viewModel = MainViewModel(getTemplateFeatureDataUseCase, saveTemplateFeatureDataUseCase, syncTemplateFeatureUseCase)
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Act
+        viewModel.searchFeatures("auth")
+        testDispatcher.scheduler.advanceUntilIdle()
+        table.value = table.value + TemplateFeatureModel(
+            id = "3", title = "Synced", description = "", isActive = true, createdAt = "2023-01-01T00:00:00Z"
+        )
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Assert
+        assertThat(viewModel.state.value.templateFeatures).isEqualTo(searchResults)
+    }
+
+    @Test
+    fun `searchFeatures should not reload the list for a first keystroke too short to search`() = runTest {
+        // Arrange
+        viewModel = MainViewModel(getTemplateFeatureDataUseCase, saveTemplateFeatureDataUseCase, syncTemplateFeatureUseCase)
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Act
+        viewModel.searchFeatures("a")
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Assert
+        coVerify(exactly = 1) { getTemplateFeatureDataUseCase.getActiveFeatures() }
+        coVerify(exactly = 0) { getTemplateFeatureDataUseCase.searchFeatures(any()) }
+    }
+
     @Test
     fun `toggleShowOnlyActive should toggle state and reload features`() = runTest {
         // Arrange
@@ -210,6 +313,20 @@ class MainViewModelTest {
         coVerify { saveTemplateFeatureDataUseCase.deleteFeature(featureId) }
     }
 
+    @Test
+    fun `state should expose cache freshness from the sync use case`() = runTest {
+        // Arrange
+        val freshness = CacheFreshness(lastSyncTime = 1_000L, isStale = false, isRefreshing = true)
+        every { syncTemplateFeatureUseCase.observeCacheFreshness() } returns flowOf(freshness)
+
+        // Act
+        viewModel = MainViewModel(getTemplateFeatureDataUseCase, saveTemplateFeatureDataUseCase, syncTemplateFeatureUseCase)
+        testDispatcher.scheduler.advanceUntilIdle()
+
+        // Assert
+        assertThat(viewModel.state.value.cacheFreshness).isEqualTo(freshness)
+    }
+
     @Test
     fun `clearError should set error to null`() = runTest {
         // Arrange